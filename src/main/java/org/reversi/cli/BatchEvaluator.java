@@ -0,0 +1,30 @@
+package org.reversi.cli;
+
+/**
+ * Evaluates all positions of a {@link PositionBatch} with the heuristic of {@link ReversiAgent}:
+ * the disks, the corners and the rows and columns entirely occupied by a player, weighted by {@link EvaluationWeights}.
+ */
+public interface BatchEvaluator {
+    /**
+     * true iff the Vector API module was added to the JVM, with {@code --add-modules jdk.incubator.vector}
+     */
+    boolean VECTOR_API_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * evaluates every position of a batch
+     * @param batch the positions
+     * @param player the player whose view is taken
+     * @param scores receives the score of each position at its index, at least as long as the capacity of the batch.
+     *               the scores past the positions of the batch are unspecified
+     */
+    void evaluate(PositionBatch batch, int player, int[] scores);
+
+    /**
+     * @param weights the weights of the features
+     * @return the SIMD evaluator if the Vector API is available, the scalar one otherwise
+     */
+    static BatchEvaluator create(final EvaluationWeights weights) {
+        // the vector class is only loaded when its module is there
+        return VECTOR_API_AVAILABLE ? new VectorBatchEvaluator(weights) : new ScalarBatchEvaluator(weights);
+    }
+}
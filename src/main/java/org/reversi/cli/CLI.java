@@ -1,5 +1,10 @@
 package org.reversi.cli;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * The Main class to run the game
  */
@@ -12,13 +17,105 @@ public class CLI {
     }
 
     /**
-     * runs the game with an AI agent
+     * runs the game with an AI agent, optionally with the weights of a file {@code [--weights file]}
+     * or with other evaluation features {@code [--features DISKS=5,MOBILITY=10,...]},
+     * or against Monte Carlo tree search {@code --engine mcts [--playouts n] [--time-ms t] [--threads n] [--rave k]},
+     * or solves the endgame positions of a file with {@code --ffo file [--threads n]},
+     * or writes self-play training data with
+     * {@code --selfplay file --positions n [--threads n] [--depth d] [--weights file] [--seed s]},
+     * or fits evaluation weights to training data with {@code --tune file --out file [--iterations k] [--threads n]},
+     * or reports the cost of the evaluation features with {@code --profile games [--depth d] [--features ...]},
+     * or writes the perfect play table of a small board with {@code --solve-table file [--size 4]}
+     * @see EndgameSuite
+     * @see PerfectPlaySolver
+     * @see SelfPlay
+     * @see WeightTuner
+     * @see FeatureProfiler
+     * @see MctsAgent
      * @param args CLI args
+     * @throws IOException if a file can't be read or written
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        final Map<String, String> options = parseOptions(args);
+        final int threads = Integer.parseInt(options.getOrDefault("--threads", "1"));
+
+        if (options.containsKey("--ffo")) {
+            EndgameSuite.run(Path.of(options.get("--ffo")), threads);
+            return;
+        }
+        if (options.containsKey("--solve-table")) {
+            PerfectPlaySolver.run(Path.of(options.get("--solve-table")),
+                    Integer.parseInt(options.getOrDefault("--size", "4")));
+            return;
+        }
+        final EvaluationWeights weights = options.containsKey("--weights")
+                ? EvaluationWeights.load(Path.of(options.get("--weights")))
+                : EvaluationWeights.DEFAULT;
+        if (options.containsKey("--selfplay")) {
+            SelfPlay.run(Path.of(options.get("--selfplay")),
+                    Long.parseLong(required(options, "--positions")), threads,
+                    Integer.parseInt(options.getOrDefault("--depth", "2")), weights,
+                    Long.parseLong(options.getOrDefault("--seed", String.valueOf(System.nanoTime()))));
+            return;
+        }
+        final WeightedEvaluator evaluator = options.containsKey("--features")
+                ? WeightedEvaluator.parse(options.get("--features"))
+                : WeightedEvaluator.of(weights);
+        if (options.containsKey("--profile")) {
+            FeatureProfiler.run(evaluator, Integer.parseInt(options.get("--profile")),
+                    Integer.parseInt(options.getOrDefault("--depth", "3")),
+                    Long.parseLong(options.getOrDefault("--seed", String.valueOf(System.nanoTime()))));
+            return;
+        }
+        if (options.containsKey("--tune")) {
+            WeightTuner.run(Path.of(options.get("--tune")), Path.of(required(options, "--out")),
+                    Integer.parseInt(options.getOrDefault("--iterations", "10")), threads);
+            return;
+        }
+
         final ReversiModel model = new ReversiModel(8);
         final ReversiController controller = ReversiController.getInstance();
 
-        controller.startGameOn(model, true);
+        if (options.getOrDefault("--engine", "minimax").equals("mcts")) {
+            // a time limit alone lets a move play out as much as it can in time
+            final String playouts = options.containsKey("--time-ms") ? String.valueOf(Integer.MAX_VALUE) : "20000";
+            final MctsConfig config = MctsConfig.DEFAULT
+                    .withPlayouts(Integer.parseInt(options.getOrDefault("--playouts", playouts)))
+                    .withTimeLimit(Long.parseLong(options.getOrDefault("--time-ms", "0")))
+                    .withThreads(threads)
+                    .withRave(Integer.parseInt(options.getOrDefault("--rave", "0")))
+                    .withSeed(System.nanoTime());
+            controller.startGameOn(model, true, new MctsAgent(model, -model.getCurrentPlayer(), config));
+            return;
+        }
+        controller.startGameOn(model, true, evaluator);
+    }
+
+    /**
+     * @param args CLI args, pairs of an option and its value
+     * @return the value of each option
+     */
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("expected an option and its value at " + args[i]);
+            }
+            options.put(args[i], args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * @param options the options
+     * @param name the option name
+     * @return the value of the option
+     */
+    private static String required(final Map<String, String> options, final String name) {
+        final String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing option " + name);
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package org.reversi.cli;
+
+/**
+ * A flag to stop a running search from another thread, e.g. once its client went away.
+ * The search polls it every {@link SearchBudget#CHECK_INTERVAL} nodes, so cancelling costs it a volatile read.
+ */
+public class CancellationToken {
+    /**
+     * true once the search should stop
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * asks the searches holding this token to stop as soon as possible
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * @return true iff the token was cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+}
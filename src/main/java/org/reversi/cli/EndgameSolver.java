@@ -0,0 +1,170 @@
+package org.reversi.cli;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Exact endgame solver, searching every line to the end of the game.
+ * <p>
+ * Scores are final disk differences from the view of the player to move, the empty squares going to the winner,
+ * as in the FFO endgame test suite. The search is a fail-soft alpha-beta negamax over {@link ReversiModel},
+ * trying the corners first and the squares next to them last.
+ * A solver isn't thread safe, solve positions in parallel with one solver each.
+ */
+public class EndgameSolver {
+    /**
+     * the number of positions visited by the last solve
+     */
+    private long nodes;
+
+    /**
+     * The exact result of a position.
+     * @param score the final disk difference for the player to move under perfect play
+     * @param bestMove a move reaching the score, null if the game is over
+     * @param nodes the number of positions visited
+     * @param nanos the time spent solving
+     */
+    public record Result(int score, Coordinate bestMove, long nodes, long nanos) {
+        /**
+         * @return the positions visited per second
+         */
+        public double nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * solves a position exactly
+     * @param model the position, left untouched
+     * @return the score and best move of the player to move
+     */
+    public Result solve(final ReversiModel model) {
+        final long start = System.nanoTime();
+        this.nodes = 1;
+
+        if (model.isGameOver()) {
+            return new Result(finalScore(model, model.getCurrentPlayer()), null, this.nodes, System.nanoTime() - start);
+        }
+
+        final int player = model.getCurrentPlayer();
+        final int size = model.getBoard().length;
+        int alpha = -size * size;
+        final int beta = size * size;
+        Coordinate bestMove = null;
+
+        for (Coordinate move : orderedMoves(model)) {
+            final int score = scoreMove(model, move, player, alpha, beta);
+            if (bestMove == null || score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+
+        return new Result(alpha, bestMove, this.nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * negamax with alpha-beta pruning
+     * @param model the position
+     * @param alpha the lower bound of interest, for the player to move
+     * @param beta the upper bound of interest, for the player to move
+     * @return the score of the position for the player to move, exact iff it's within (alpha, beta)
+     */
+    private int negamax(final ReversiModel model, int alpha, final int beta) {
+        final int player = model.getCurrentPlayer();
+        int best = Integer.MIN_VALUE;
+
+        for (Coordinate move : orderedMoves(model)) {
+            final int score = scoreMove(model, move, player, alpha, beta);
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * plays a move and searches the resulting position
+     * @param model the position, left untouched
+     * @param move the move
+     * @param player the player making the move
+     * @param alpha the lower bound of interest, for the player
+     * @param beta the upper bound of interest, for the player
+     * @return the score of the move for the player
+     */
+    private int scoreMove(final ReversiModel model, final Coordinate move, final int player,
+                          final int alpha, final int beta) {
+        final ReversiModel child = model.getClone();
+        child.makeMove(move.x(), move.y());
+        this.nodes++;
+
+        if (child.isGameOver()) {
+            return finalScore(child, player);
+        }
+        // the opponent may have to pass, then the player moves again
+        return child.getCurrentPlayer() == player
+                ? negamax(child, alpha, beta)
+                : -negamax(child, -beta, -alpha);
+    }
+
+    /**
+     * @param model a finished game
+     * @param player the player whose view is taken
+     * @return the disk difference for the player, the empty squares going to the winner
+     */
+    static int finalScore(final ReversiModel model, final int player) {
+        int mine = 0;
+        int theirs = 0;
+        int empty = 0;
+
+        for (int[] row : model.getBoard()) {
+            for (int cell : row) {
+                if (cell == player) {
+                    mine++;
+                } else if (cell == ReversiModel.EMPTY) {
+                    empty++;
+                } else {
+                    theirs++;
+                }
+            }
+        }
+
+        final int diff = mine - theirs;
+        return diff > 0 ? diff + empty : diff < 0 ? diff - empty : 0;
+    }
+
+    /**
+     * @param model the position
+     * @return the possible moves, the most promising first
+     */
+    private static List<Coordinate> orderedMoves(final ReversiModel model) {
+        final int last = model.getBoard().length - 1;
+        final List<Coordinate> moves = new ArrayList<>(model.getPossibleMoves());
+        moves.sort(Comparator.comparingInt((Coordinate move) -> squarePriority(move, last))
+                .thenComparingInt(Coordinate::x)
+                .thenComparingInt(Coordinate::y));
+        return moves;
+    }
+
+    /**
+     * @param move a move
+     * @param last the last row and column index
+     * @return 0 for corners, 2 for the squares next to a corner, 1 otherwise
+     */
+    private static int squarePriority(final Coordinate move, final int last) {
+        final int rowEdge = Math.min(move.x(), last - move.x());
+        final int colEdge = Math.min(move.y(), last - move.y());
+        if (rowEdge == 0 && colEdge == 0) {
+            return 0;
+        }
+        return rowEdge <= 1 && colEdge <= 1 ? 2 : 1;
+    }
+}
@@ -0,0 +1,133 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves a file of endgame positions and reports the throughput of the solver, e.g. on the FFO test suite.
+ * <p>
+ * Each position is a line with the board, one character per square row by row
+ * ({@code X} or {@code *} for black, {@code O} for white, {@code -} or {@code .} for empty),
+ * followed by the player to move ({@code X} or {@code O}) and an optional {@code ;} and comment,
+ * the notation of {@link PositionCodec}.
+ * The older FFO layout, a board line followed by a {@code Black to move} or {@code White to move} line,
+ * is read as well. Black moves first, so it plays as {@link ReversiModel#PLAYER1}.
+ */
+public class EndgameSuite {
+    /**
+     * a position of the suite
+     * @param name the name of the position, its line number
+     * @param model the position
+     */
+    record Position(String name, ReversiModel model) {}
+
+    /**
+     * Forbidden constructor as EndgameSuite is a utility class
+     */
+    private EndgameSuite() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * solves all positions of a file and prints a line per position and the totals
+     * @param file the position file
+     * @param threads the number of positions solved in parallel
+     * @throws IOException if the file can't be read
+     */
+    public static void run(final Path file, final int threads) throws IOException {
+        final List<Position> positions = parse(Files.readAllLines(file));
+        System.out.printf("%d positions, %d thread(s)%n", positions.size(), threads);
+        System.out.printf("%-6s %6s %5s %14s %10s %12s%n", "#", "score", "move", "nodes", "time (s)", "nodes/s");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final long start = System.nanoTime();
+        long totalNodes = 0;
+        try {
+            final List<Future<EndgameSolver.Result>> results = new ArrayList<>();
+            for (Position position : positions) {
+                results.add(executor.submit(() -> new EndgameSolver().solve(position.model())));
+            }
+            // printed in input order, whichever position is solved first
+            for (int i = 0; i < positions.size(); i++) {
+                final EndgameSolver.Result result = results.get(i).get();
+                totalNodes += result.nodes();
+                System.out.printf(Locale.ROOT, "%-6s %+6d %5s %14d %10.3f %12.0f%n",
+                        positions.get(i).name(), result.score(), toSquare(result.bestMove()),
+                        result.nodes(), result.nanos() / 1e9, result.nodesPerSecond());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("solving a position failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final long wall = System.nanoTime() - start;
+        System.out.printf(Locale.ROOT, "total: %d nodes in %.3f s, %.0f nodes/s%n",
+                totalNodes, wall / 1e9, wall == 0 ? 0 : totalNodes * 1e9 / wall);
+    }
+
+    /**
+     * @param lines the lines of a position file
+     * @return the positions, in file order
+     */
+    static List<Position> parse(final List<String> lines) {
+        final List<Position> positions = new ArrayList<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("%") || line.startsWith("#")) {
+                continue;
+            }
+            final String[] tokens = line.split("[\\s;]+");
+            final String board = tokens[0];
+            final String toMove;
+            if (tokens.length > 1) {
+                toMove = tokens[1];
+            } else if (i + 1 < lines.size()) {
+                // older FFO layout, the player to move on the next line
+                toMove = lines.get(++i).strip();
+            } else {
+                throw new IllegalArgumentException("line " + (i + 1) + ": player to move missing");
+            }
+            positions.add(new Position(String.valueOf(positions.size() + 1), toModel(board, toMove, i + 1)));
+        }
+
+        return positions;
+    }
+
+    /**
+     * @param board the board, one character per square
+     * @param toMove the player to move
+     * @param lineNumber the line of the position, for the errors
+     * @return the model of the position
+     */
+    private static ReversiModel toModel(final String board, final String toMove, final int lineNumber) {
+        try {
+            return PositionCodec.parse(board + ' ' + toMove);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param move a move
+     * @return the move in the usual notation, column letter then row number, e.g. {@code a1}
+     */
+    static String toSquare(final Coordinate move) {
+        if (move == null) {
+            return "--";
+        }
+        return (char) ('a' + move.y()) + String.valueOf(move.x() + 1);
+    }
+}
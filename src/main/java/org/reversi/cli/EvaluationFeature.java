@@ -0,0 +1,22 @@
+package org.reversi.cli;
+
+/**
+ * A feature of a position for the heuristic evaluation of {@link ReversiAgent}, weighted by a {@link WeightedEvaluator}.
+ * <p>
+ * Features are evaluated at every leaf of the search, so they must be cheap and thread safe.
+ * @see StandardFeature
+ */
+public interface EvaluationFeature {
+    /**
+     * @return the name of the feature, as in a feature specification
+     * @see WeightedEvaluator#parse(String)
+     */
+    String name();
+
+    /**
+     * @param state the position, left untouched
+     * @param player the player whose view is taken
+     * @return the value of the feature, higher is better for the player for a positive weight
+     */
+    int evaluate(ReversiModel state, int player);
+}
@@ -0,0 +1,76 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Weights of the features of the agent's heuristic evaluation.
+ * <p>
+ * Weights files are properties files with the keys {@code disk}, {@code corner} and {@code fullLine},
+ * as written by {@link WeightTuner}.
+ * @param disk the value of each disk of the agent
+ * @param corner the value of each corner of the agent
+ * @param fullLine the value of each row or column entirely occupied by the agent
+ */
+public record EvaluationWeights(int disk, int corner, int fullLine) {
+    /**
+     * the weights of {@link ReversiAgent}
+     */
+    public static final EvaluationWeights DEFAULT = new EvaluationWeights(5, 50, 100);
+
+    /**
+     * reads a weights file
+     * @param file the weights file
+     * @return the weights
+     * @throws IOException if the file can't be read or misses a weight
+     */
+    public static EvaluationWeights load(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return new EvaluationWeights(
+                weight(properties, "disk", file),
+                weight(properties, "corner", file),
+                weight(properties, "fullLine", file));
+    }
+
+    /**
+     * @param properties the weights file
+     * @param key the weight
+     * @param file the weights file, for the errors
+     * @return the weight
+     * @throws IOException if the weight is missing or not an integer
+     */
+    private static int weight(final Properties properties, final String key, final Path file) throws IOException {
+        final String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IOException(file + ": weight " + key + " missing");
+        }
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IOException(file + ": weight " + key + " is not an integer: " + value, e);
+        }
+    }
+
+    /**
+     * writes a weights file
+     * @param file the weights file
+     * @param comment the comment heading the file, e.g. how the weights were obtained
+     * @throws IOException if the file can't be written
+     */
+    public void save(final Path file, final String comment) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# " + comment + System.lineSeparator());
+            writer.write("disk=" + this.disk + System.lineSeparator());
+            writer.write("corner=" + this.corner + System.lineSeparator());
+            writer.write("fullLine=" + this.fullLine + System.lineSeparator());
+        }
+    }
+}
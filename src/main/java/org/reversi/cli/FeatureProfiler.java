@@ -0,0 +1,67 @@
+package org.reversi.cli;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Reports the cost of each evaluation feature during real searches: the agent plays games against itself
+ * with a {@link WeightedEvaluator#profiled() profiled} evaluator, and the time of each feature is compared
+ * to the time of the searches. Features whose cost outweighs their contribution to the strength are worth dropping.
+ */
+public final class FeatureProfiler {
+    /**
+     * the plies played at random at the start of each game, so that the games differ
+     */
+    private static final int RANDOM_OPENING_PLIES = 4;
+
+    /**
+     * Forbidden constructor as FeatureProfiler is a utility class
+     */
+    private FeatureProfiler() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * plays games and prints the profile of each feature
+     * @param evaluator the evaluation, profiled by this run
+     * @param games the number of games to play
+     * @param depth the search depth of the agents
+     * @param seed the seed of the random openings
+     */
+    public static void run(final WeightedEvaluator evaluator, final int games, final int depth, final long seed) {
+        final WeightedEvaluator profiled = evaluator.profiled();
+        final SplittableRandom random = new SplittableRandom(seed);
+        long searchNanos = 0;
+        long searches = 0;
+
+        for (int game = 0; game < games; game++) {
+            final ReversiModel model = new ReversiModel(8);
+            for (int ply = 0; !model.isGameOver(); ply++) {
+                final Coordinate move;
+                if (ply < RANDOM_OPENING_PLIES) {
+                    final List<Coordinate> moves = List.copyOf(model.getPossibleMoves());
+                    move = moves.get(random.nextInt(moves.size()));
+                } else {
+                    final long start = System.nanoTime();
+                    move = new ReversiAgent(model, depth, model.getCurrentPlayer(), profiled).findBestMove();
+                    searchNanos += System.nanoTime() - start;
+                    searches++;
+                }
+                model.makeMove(move.x(), move.y());
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d games, %d searches of depth %d in %.3f s%n",
+                games, searches, depth, searchNanos / 1e9);
+        System.out.printf("%-20s %8s %14s %10s %8s%n", "feature", "weight", "calls", "ns/call", "search");
+        final List<WeightedEvaluator.Term> terms = profiled.getTerms();
+        final List<ProfiledFeature.Profile> profiles = profiled.getProfiles();
+        for (int i = 0; i < profiles.size(); i++) {
+            final ProfiledFeature.Profile profile = profiles.get(i);
+            System.out.printf(Locale.ROOT, "%-20s %8d %14d %10.1f %7.1f%%%n",
+                    profile.name(), terms.get(i).weight(), profile.calls(), profile.nanosPerCall(),
+                    100 * profile.shareOf(searchNanos));
+        }
+    }
+}
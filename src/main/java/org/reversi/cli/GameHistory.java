@@ -0,0 +1,191 @@
+package org.reversi.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact record of a game, one byte per ply.
+ * <p>
+ * A ply is either a move, stored as {@code row * size + col}, or a pass marker,
+ * recorded when a player has to pass. Any position of the game is rebuilt by replaying the plies
+ * on the rules of {@link ReversiModel}. Snapshots of every {@link GameHistory#SNAPSHOT_INTERVAL}-th position
+ * are cached as replays reach them, and kept by copies and by trimming, so once a position was rebuilt,
+ * rebuilding it or any earlier one replays at most that many plies, in this history and in its later copies.
+ * Until a game is replayed, its history costs a few dozen bytes.
+ */
+public class GameHistory {
+    /**
+     * the number of plies between two cached snapshots
+     */
+    public static final int SNAPSHOT_INTERVAL = 16;
+
+    /**
+     * the ply marking a pass, never a valid cell as boards have at most 15 x 15 cells
+     */
+    private static final byte PASS = (byte) 0xFF;
+
+    /**
+     * the size of the game board
+     */
+    private final int size;
+
+    /**
+     * the recorded plies
+     */
+    private byte[] plies;
+
+    /**
+     * the number of recorded plies
+     */
+    private int length;
+
+    /**
+     * the packed snapshots of the positions after every SNAPSHOT_INTERVAL-th ply, the first being the start position
+     */
+    private final List<byte[]> snapshots = new ArrayList<>();
+
+    /**
+     * creates an empty history
+     * @param size the size of the game board
+     */
+    public GameHistory(final int size) {
+        if (size * size >= (PASS & 0xFF)) {
+            throw new IllegalArgumentException("board size must be at most 15");
+        }
+        this.size = size;
+        this.plies = new byte[8];
+    }
+
+    /**
+     * records a move
+     * @param row the row of the move
+     * @param col the column of the move
+     */
+    public synchronized void recordMove(final int row, final int col) {
+        append((byte) (row * size + col));
+    }
+
+    /**
+     * records a pass of the player to move
+     */
+    public synchronized void recordPass() {
+        append(PASS);
+    }
+
+    /**
+     * appends a ply, growing the plies array if needed
+     * @param ply the ply
+     */
+    private void append(final byte ply) {
+        if (length == plies.length) {
+            plies = Arrays.copyOf(plies, Math.max(8, 2 * length));
+        }
+        plies[length++] = ply;
+    }
+
+    /**
+     * getter for the number of recorded plies
+     * @return the number of plies
+     */
+    public synchronized int getLength() {
+        return length;
+    }
+
+    /**
+     * getter for the size of the game board
+     * @return the board size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * getter for a recorded ply
+     * @param ply the index of the ply
+     * @return the coordinate of the move, null if the ply is a pass
+     */
+    public synchronized Coordinate getMove(final int ply) {
+        checkPly(ply, length - 1);
+        final int cell = plies[ply] & 0xFF;
+        return plies[ply] == PASS ? null : new Coordinate(cell / size, cell % size);
+    }
+
+    /**
+     * rebuilds the position after the given number of plies
+     * @param ply the number of plies, 0 for the start position
+     * @return a new model of the position
+     */
+    public synchronized ReversiModel positionAt(final int ply) {
+        checkPly(ply, length);
+        if (snapshots.isEmpty()) {
+            snapshots.add(pack(new ReversiModel(size)));
+        }
+
+        int replayed = Math.min(ply / SNAPSHOT_INTERVAL, snapshots.size() - 1) * SNAPSHOT_INTERVAL;
+        ReversiModel model = unpack(snapshots.get(replayed / SNAPSHOT_INTERVAL));
+
+        while (replayed < ply) {
+            final byte move = plies[replayed];
+            if (move != PASS && !model.makeMove((move & 0xFF) / size, (move & 0xFF) % size)) {
+                throw new IllegalStateException("invalid move recorded at ply " + replayed);
+            }
+            replayed++;
+
+            if (replayed % SNAPSHOT_INTERVAL == 0 && replayed / SNAPSHOT_INTERVAL == snapshots.size()) {
+                snapshots.add(pack(model));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * shrinks the plies array to the recorded plies, e.g. once the game is over
+     */
+    public synchronized void trimToSize() {
+        plies = Arrays.copyOf(plies, length);
+    }
+
+    /**
+     * copies the history, the copy doesn't share any mutable state with the original
+     * but keeps its cached snapshots, which are never modified
+     * @return the copy
+     */
+    public synchronized GameHistory copy() {
+        final GameHistory copy = new GameHistory(size);
+        copy.plies = Arrays.copyOf(plies, length);
+        copy.length = length;
+        copy.snapshots.addAll(snapshots);
+        return copy;
+    }
+
+    /**
+     * @param ply the index of a ply
+     * @param max the largest valid index
+     */
+    private static void checkPly(final int ply, final int max) {
+        if (ply < 0 || ply > max) {
+            throw new IndexOutOfBoundsException("ply " + ply + " out of range [0, " + max + "]");
+        }
+    }
+
+    /**
+     * packs a position into its binary form, see {@link PositionCodec}
+     * @param model the position
+     * @return the packed position
+     */
+    private byte[] pack(final ReversiModel model) {
+        final byte[] packed = new byte[PositionCodec.binaryLength(size)];
+        PositionCodec.write(model.getBoard(), model.getCurrentPlayer(), packed, 0);
+        return packed;
+    }
+
+    /**
+     * unpacks a position packed by {@link GameHistory#pack(ReversiModel)}
+     * @param packed the packed position
+     * @return a new model of the position
+     */
+    private ReversiModel unpack(final byte[] packed) {
+        return PositionCodec.decode(packed, 0, size);
+    }
+}
@@ -0,0 +1,453 @@
+package org.reversi.cli;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Monte Carlo tree search agent, an alternative to the minimax of {@link ReversiAgent} needing no evaluation.
+ * <p>
+ * Each playout walks down the tree by UCT, optionally blended with RAVE (all moves as first) statistics,
+ * grows the tree by the children of the leaf it reached, and plays random moves to the end of the game on a
+ * {@link PlayoutBoard}. The nodes live in a {@link MctsArena}, reused by the searches of the agent.
+ * <p>
+ * Several threads search the same tree. A playout counts as a loss of the nodes it walks through until
+ * its result is known, the virtual loss, so that the threads spread over different lines.
+ * <p>
+ * The node budget of a search counts playouts. Scores are the expected result of a move for the player to move,
+ * in per mille, a win counting 1 and a draw 1/2.
+ */
+public class MctsAgent implements SearchEngine {
+    /**
+     * the visits after which a leaf gets its children, so that the tree doesn't grow by every playout
+     */
+    private static final int EXPANSION_VISITS = 2;
+
+    /**
+     * the game model the agent will play on
+     */
+    private final ReversiModel model;
+
+    /**
+     * the player ID the agent takes
+     */
+    private final int agentID;
+
+    /**
+     * the settings of the search
+     */
+    private final MctsConfig config;
+
+    /**
+     * the nodes of the tree, created by the first search
+     */
+    private MctsArena arena;
+
+    /**
+     * the number of searches so far, so that the playouts of successive searches differ
+     */
+    private long searches;
+
+    /**
+     * Constructor for the agent
+     * @param model the game model the agent will play on
+     * @param agentID the player ID the agent takes
+     * @param config the settings of the search
+     */
+    public MctsAgent(final ReversiModel model, final int agentID, final MctsConfig config) {
+        assert agentID == 1 || agentID == -1;
+
+        this.model = model;
+        this.agentID = agentID;
+        this.config = config;
+    }
+
+    /**
+     * finds the best move within the playouts and the time limit of the config
+     * @return the best move coordinate
+     */
+    @Override
+    public Coordinate findBestMove() {
+        final SearchBudget budget = this.config.timeLimitMs() > 0
+                ? SearchBudget.ofTime(Duration.ofMillis(this.config.timeLimitMs()))
+                : SearchBudget.UNLIMITED;
+        return search(budget).bestMove();
+    }
+
+    /**
+     * searches the best move within a budget, the playouts of the config if it doesn't bound the nodes
+     * @param budget the budget of the search, its nodes counting playouts
+     * @return the most visited move and the scores of all moves played out
+     */
+    @Override
+    public SearchResult search(final SearchBudget budget) {
+        if (this.model.isGameOver()) {
+            return new SearchResult(null, Integer.MIN_VALUE, 0, 0, true, Map.of());
+        }
+        final SearchBudget bounded = budget.maxNodes() == Long.MAX_VALUE
+                ? new SearchBudget(this.config.playouts(), budget.deadline(), budget.token())
+                : budget;
+
+        if (this.arena == null) {
+            this.arena = new MctsArena(this.config.arenaCapacity());
+        }
+        this.arena.reset(-this.model.getCurrentPlayer());
+        final PlayoutBoard root = new PlayoutBoard(this.model.getBoard().length);
+        root.load(this.model);
+
+        final Search search = new Search(root, bounded);
+        final SplittableRandom seeds = new SplittableRandom(this.config.seed() + this.searches++);
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < this.config.threads(); i++) {
+            workers.add(new Worker(search, seeds.split()));
+        }
+        runAll(workers);
+
+        int depth = 0;
+        for (Worker worker : workers) {
+            depth = Math.max(depth, worker.maxDepth);
+        }
+        final boolean cancelled = budget.token() != null && budget.token().isCancelled();
+        return toResult(root, depth, search.playouts.sum(), !cancelled);
+    }
+
+    /**
+     * runs the workers, the first on the calling thread
+     * @param workers the workers
+     */
+    private static void runAll(final List<Worker> workers) {
+        if (workers.size() == 1) {
+            workers.get(0).run();
+            return;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(workers.size() - 1);
+        try {
+            final List<Future<?>> helpers = new ArrayList<>();
+            for (Worker worker : workers.subList(1, workers.size())) {
+                helpers.add(executor.submit(worker));
+            }
+            workers.get(0).run();
+            for (Future<?> helper : helpers) {
+                helper.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.get(0).search.stopped = true;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("search failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @param root the root position
+     * @param depth the deepest playout start in the tree
+     * @param playouts the number of playouts
+     * @param complete true iff the search wasn't cancelled
+     * @return the result of the search, the most visited move being the best
+     */
+    private SearchResult toResult(final PlayoutBoard root, final int depth, final long playouts,
+                                  final boolean complete) {
+        final Map<Coordinate, Integer> scores = new HashMap<>();
+        final int start = this.arena.childStart(MctsArena.ROOT);
+        int best = -1;
+
+        if (start >= 0) {
+            for (int child = start; child < start + this.arena.childCount[MctsArena.ROOT]; child++) {
+                final int visits = this.arena.visits(child);
+                if (visits == 0) {
+                    continue;
+                }
+                scores.put(root.toCoordinate(this.arena.move[child]),
+                        (int) Math.round(1000.0 * this.arena.wins(child) / (2.0 * visits)));
+                if (best < 0 || visits > this.arena.visits(best)
+                        || (visits == this.arena.visits(best) && this.arena.wins(child) > this.arena.wins(best))) {
+                    best = child;
+                }
+            }
+        }
+
+        if (best < 0) {
+            // not a single playout, e.g. cancelled at once
+            final Coordinate anyMove = this.model.getPossibleMoves().iterator().next();
+            return new SearchResult(anyMove, Integer.MIN_VALUE, 0, playouts, complete, Map.of());
+        }
+        final Coordinate bestMove = root.toCoordinate(this.arena.move[best]);
+        return new SearchResult(bestMove, scores.get(bestMove), depth, playouts, complete, Map.copyOf(scores));
+    }
+
+    /**
+     * getter for agentID
+     * @return agentID
+     */
+    @Override
+    public int getAgentID() {
+        return this.agentID;
+    }
+
+    /**
+     * The state of a search shared by its workers.
+     */
+    private static final class Search {
+        /**
+         * the root position
+         */
+        private final PlayoutBoard root;
+
+        /**
+         * the budget of the search
+         */
+        private final SearchBudget budget;
+
+        /**
+         * the playouts started
+         */
+        private final AtomicLong started = new AtomicLong();
+
+        /**
+         * the playouts finished
+         */
+        private final LongAdder playouts = new LongAdder();
+
+        /**
+         * true once a worker found the budget exhausted
+         */
+        private volatile boolean stopped;
+
+        /**
+         * @param root the root position
+         * @param budget the budget of the search
+         */
+        private Search(final PlayoutBoard root, final SearchBudget budget) {
+            this.root = root;
+            this.budget = budget;
+        }
+    }
+
+    /**
+     * A searching thread, with its own board and buffers, so that a playout allocates nothing.
+     */
+    private final class Worker implements Runnable {
+        /**
+         * the shared state of the search
+         */
+        private final Search search;
+
+        /**
+         * the random source of this thread
+         */
+        private final SplittableRandom random;
+
+        /**
+         * the position of the playout
+         */
+        private final PlayoutBoard board;
+
+        /**
+         * the nodes walked through by the playout, from the root
+         */
+        private final int[] path;
+
+        /**
+         * the moves of an expanded leaf
+         */
+        private final int[] moves;
+
+        /**
+         * the player of each square played by the playout
+         */
+        private final int[] playedBy;
+
+        /**
+         * the stamp of the playout that played each square
+         */
+        private final int[] playedStamp;
+
+        /**
+         * the stamp of the running playout
+         */
+        private int stamp;
+
+        /**
+         * the deepest node a playout started from
+         */
+        private int maxDepth;
+
+        /**
+         * @param search the shared state of the search
+         * @param random the random source of this thread
+         */
+        private Worker(final Search search, final SplittableRandom random) {
+            this.search = search;
+            this.random = random;
+            this.board = new PlayoutBoard(MctsAgent.this.model.getBoard().length);
+            final int squares = this.board.getSquareCount();
+            this.path = new int[squares + 1];
+            this.moves = new int[squares];
+            this.playedBy = new int[squares];
+            this.playedStamp = new int[squares];
+        }
+
+        @Override
+        public void run() {
+            while (!this.search.stopped) {
+                if (this.search.budget.isExhausted(this.search.started.getAndIncrement())) {
+                    this.search.stopped = true;
+                    break;
+                }
+                playOnce();
+                this.search.playouts.increment();
+            }
+        }
+
+        /**
+         * walks down the tree, grows it and plays out to the end of the game
+         */
+        private void playOnce() {
+            final MctsArena nodes = MctsAgent.this.arena;
+            this.board.copyFrom(this.search.root);
+            this.stamp++;
+
+            int node = MctsArena.ROOT;
+            int depth = 0;
+            this.path[0] = node;
+            nodes.addVisit(node);
+
+            while (true) {
+                int start = nodes.childStart(node);
+                boolean expanded = false;
+                if (start == MctsArena.UNEXPANDED
+                        && (node == MctsArena.ROOT || nodes.visits(node) >= EXPANSION_VISITS)
+                        && nodes.tryClaim(node)) {
+                    start = expand(node);
+                    expanded = true;
+                }
+                if (start < 0 || nodes.childCount[node] == 0) {
+                    // a leaf, a finished game, or a node another thread is expanding
+                    break;
+                }
+
+                final int child = select(node, start, nodes.childCount[node]);
+                final int move = nodes.move[child];
+                this.board.play(move, nodes.mover[child]);
+                this.playedBy[move] = nodes.mover[child];
+                this.playedStamp[move] = this.stamp;
+                this.path[++depth] = child;
+                nodes.addVisit(child);
+                node = child;
+                if (expanded) {
+                    break;
+                }
+            }
+            this.maxDepth = Math.max(this.maxDepth, depth);
+
+            final int winner = this.board.playout(this.random, this.playedBy, this.playedStamp, this.stamp);
+            for (int i = 0; i <= depth; i++) {
+                nodes.addWins(this.path[i], halfPoints(winner, nodes.mover[this.path[i]]));
+            }
+            if (MctsAgent.this.config.raveEquivalence() > 0) {
+                updateAmaf(depth, winner);
+            }
+        }
+
+        /**
+         * gives the children of a claimed node
+         * @param node the node
+         * @return its first child, -1 if the arena is full
+         */
+        private int expand(final int node) {
+            final MctsArena nodes = MctsAgent.this.arena;
+            final int count = this.board.generateMoves(this.moves);
+            if (count == 0) {
+                nodes.publish(node, 0, 0);
+                return 0;
+            }
+            final int first = nodes.allocate(count);
+            if (first < 0) {
+                // the node stays claimed, a leaf for good
+                return -1;
+            }
+            for (int i = 0; i < count; i++) {
+                nodes.move[first + i] = this.moves[i];
+                nodes.mover[first + i] = this.board.getPlayer();
+            }
+            nodes.publish(node, first, count);
+            return first;
+        }
+
+        /**
+         * @param node a node with children
+         * @param start its first child
+         * @param count its number of children
+         * @return the child maximizing the UCT value, the first unvisited one if any
+         */
+        private int select(final int node, final int start, final int count) {
+            final MctsArena nodes = MctsAgent.this.arena;
+            final MctsConfig settings = MctsAgent.this.config;
+            final double logVisits = Math.log(Math.max(nodes.visits(node), 1));
+            int best = start;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (int child = start; child < start + count; child++) {
+                final int visits = nodes.visits(child);
+                if (visits == 0) {
+                    return child;
+                }
+                double value = nodes.wins(child) / (2.0 * visits);
+                final int amafVisits = settings.raveEquivalence() > 0 ? nodes.amafVisits(child) : 0;
+                if (amafVisits > 0) {
+                    final double k = settings.raveEquivalence();
+                    final double beta = Math.sqrt(k / (3.0 * visits + k));
+                    value = (1 - beta) * value + beta * nodes.amafWins(child) / (2.0 * amafVisits);
+                }
+                value += settings.exploration() * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * credits the children of the walked nodes whose move their mover played later in the playout
+         * @param depth the depth of the playout start
+         * @param winner the winner of the playout
+         */
+        private void updateAmaf(final int depth, final int winner) {
+            final MctsArena nodes = MctsAgent.this.arena;
+            for (int i = 0; i <= depth; i++) {
+                final int start = nodes.childStart(this.path[i]);
+                if (start < 0) {
+                    continue;
+                }
+                // a square is played once per game, so a child's move played in this playout was played after node i
+                for (int child = start; child < start + nodes.childCount[this.path[i]]; child++) {
+                    final int move = nodes.move[child];
+                    if (this.playedStamp[move] == this.stamp && this.playedBy[move] == nodes.mover[child]) {
+                        nodes.addAmaf(child, halfPoints(winner, nodes.mover[child]));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param winner the winner of a playout, {@link ReversiModel#EMPTY} for a draw
+     * @param player a player
+     * @return the half points of the player, 2 for a win and 1 for a draw
+     */
+    private static int halfPoints(final int winner, final int player) {
+        return winner == player ? 2 : winner == ReversiModel.EMPTY ? 1 : 0;
+    }
+}
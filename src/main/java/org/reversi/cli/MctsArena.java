@@ -0,0 +1,215 @@
+package org.reversi.cli;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The nodes of a Monte Carlo search tree, in primitive arrays indexed by node rather than one object per node.
+ * <p>
+ * The children of a node are allocated together, so they're a range of indexes. An arena is reused by the searches
+ * of its agent, a reset only rewinds it. The statistics are updated with atomic adds, so that several threads
+ * search the same tree. A node is published by writing its first child with release semantics,
+ * after its children are initialized.
+ */
+final class MctsArena {
+    /**
+     * {@link #childStart} of a node never expanded
+     */
+    static final int UNEXPANDED = -1;
+
+    /**
+     * {@link #childStart} of a node being expanded by another thread, or that couldn't be as the arena is full
+     */
+    static final int EXPANDING = -2;
+
+    /**
+     * the index of the root
+     */
+    static final int ROOT = 0;
+
+    /**
+     * atomic access to the int arrays
+     */
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * the square of the move leading to each node
+     */
+    final int[] move;
+
+    /**
+     * the player who made the move leading to each node
+     */
+    final int[] mover;
+
+    /**
+     * the first child of each node, {@link #UNEXPANDED} or {@link #EXPANDING} while it has none
+     */
+    private final int[] childStart;
+
+    /**
+     * the number of children of each node, 0 for a finished game once expanded
+     */
+    final int[] childCount;
+
+    /**
+     * the playouts through each node, those still running included as losses, the virtual loss
+     */
+    private final int[] visits;
+
+    /**
+     * the half points won through each node by its mover, 2 per win and 1 per draw
+     */
+    private final int[] wins;
+
+    /**
+     * the playouts in which the mover of each node played its move later on, for RAVE
+     */
+    private final int[] amafVisits;
+
+    /**
+     * the half points won by the mover in those playouts
+     */
+    private final int[] amafWins;
+
+    /**
+     * the next free node
+     */
+    private final AtomicInteger top = new AtomicInteger();
+
+    /**
+     * @param capacity the maximal number of nodes
+     */
+    MctsArena(final int capacity) {
+        this.move = new int[capacity];
+        this.mover = new int[capacity];
+        this.childStart = new int[capacity];
+        this.childCount = new int[capacity];
+        this.visits = new int[capacity];
+        this.wins = new int[capacity];
+        this.amafVisits = new int[capacity];
+        this.amafWins = new int[capacity];
+        Arrays.fill(this.childStart, UNEXPANDED);
+    }
+
+    /**
+     * empties the arena, keeping a fresh root
+     * @param rootMover the player who moved into the root position
+     */
+    void reset(final int rootMover) {
+        final int used = Math.min(this.top.get(), this.move.length);
+        Arrays.fill(this.childStart, 0, used, UNEXPANDED);
+        Arrays.fill(this.visits, 0, used, 0);
+        Arrays.fill(this.wins, 0, used, 0);
+        Arrays.fill(this.amafVisits, 0, used, 0);
+        Arrays.fill(this.amafWins, 0, used, 0);
+        this.childStart[ROOT] = UNEXPANDED;
+        this.move[ROOT] = -1;
+        this.mover[ROOT] = rootMover;
+        this.top.set(1);
+    }
+
+    /**
+     * @param node a node
+     * @return its first child, {@link #UNEXPANDED} or {@link #EXPANDING} while it has none
+     */
+    int childStart(final int node) {
+        return (int) INTS.getAcquire(this.childStart, node);
+    }
+
+    /**
+     * claims the expansion of a node
+     * @param node an unexpanded node
+     * @return true iff this thread expands it
+     */
+    boolean tryClaim(final int node) {
+        return INTS.compareAndSet(this.childStart, node, UNEXPANDED, EXPANDING);
+    }
+
+    /**
+     * allocates the children of a claimed node
+     * @param count the number of children
+     * @return the first child, -1 if the arena is full, the node then stays a leaf
+     */
+    int allocate(final int count) {
+        final int first = this.top.getAndAdd(count);
+        if (first + count > this.move.length) {
+            return -1;
+        }
+        return first;
+    }
+
+    /**
+     * publishes the children of a claimed node, once their move and mover are set
+     * @param node the node
+     * @param first its first child
+     * @param count its number of children, 0 for a finished game
+     */
+    void publish(final int node, final int first, final int count) {
+        this.childCount[node] = count;
+        INTS.setRelease(this.childStart, node, first);
+    }
+
+    /**
+     * counts a playout through a node before its result is known, as a loss until then
+     * @param node the node
+     */
+    void addVisit(final int node) {
+        INTS.getAndAdd(this.visits, node, 1);
+    }
+
+    /**
+     * @param node a node
+     * @param halfPoints the half points won by its mover
+     */
+    void addWins(final int node, final int halfPoints) {
+        if (halfPoints != 0) {
+            INTS.getAndAdd(this.wins, node, halfPoints);
+        }
+    }
+
+    /**
+     * @param node a node whose mover played its move later in a playout
+     * @param halfPoints the half points won by its mover
+     */
+    void addAmaf(final int node, final int halfPoints) {
+        INTS.getAndAdd(this.amafVisits, node, 1);
+        if (halfPoints != 0) {
+            INTS.getAndAdd(this.amafWins, node, halfPoints);
+        }
+    }
+
+    /**
+     * @param node a node
+     * @return its visits
+     */
+    int visits(final int node) {
+        return (int) INTS.getOpaque(this.visits, node);
+    }
+
+    /**
+     * @param node a node
+     * @return the half points of its mover
+     */
+    int wins(final int node) {
+        return (int) INTS.getOpaque(this.wins, node);
+    }
+
+    /**
+     * @param node a node
+     * @return its RAVE visits
+     */
+    int amafVisits(final int node) {
+        return (int) INTS.getOpaque(this.amafVisits, node);
+    }
+
+    /**
+     * @param node a node
+     * @return the RAVE half points of its mover
+     */
+    int amafWins(final int node) {
+        return (int) INTS.getOpaque(this.amafWins, node);
+    }
+}
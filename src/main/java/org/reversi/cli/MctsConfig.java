@@ -0,0 +1,65 @@
+package org.reversi.cli;
+
+/**
+ * Settings of {@link MctsAgent}.
+ * @param playouts the playouts of a search without a node budget, e.g. by {@link MctsAgent#findBestMove()}
+ * @param timeLimitMs the time in ms {@link MctsAgent#findBestMove()} may take, 0 for no limit
+ * @param threads the threads searching the tree together
+ * @param exploration the UCT exploration constant, higher tries the less visited moves more
+ * @param raveEquivalence the visits at which a move's own statistics and its RAVE statistics weigh the same,
+ *                        0 to disable RAVE
+ * @param arenaCapacity the maximal number of nodes of the tree, the leaves stop growing once it's full
+ * @param seed the seed of the playouts, reproducible with a single thread and a budget of playouts
+ */
+public record MctsConfig(int playouts, long timeLimitMs, int threads, double exploration, int raveEquivalence,
+                         int arenaCapacity, long seed) {
+    /**
+     * plain UCT on a single thread
+     */
+    public static final MctsConfig DEFAULT = new MctsConfig(20_000, 0, 1, 1.0, 0, 1 << 19, 0);
+
+    /**
+     * @param playouts the playouts of a search without a node budget
+     * @return this config with the playouts
+     */
+    public MctsConfig withPlayouts(final int playouts) {
+        return new MctsConfig(playouts, this.timeLimitMs, this.threads, this.exploration, this.raveEquivalence,
+                this.arenaCapacity, this.seed);
+    }
+
+    /**
+     * @param timeLimitMs the time in ms a move may take, 0 for no limit
+     * @return this config with the time limit
+     */
+    public MctsConfig withTimeLimit(final long timeLimitMs) {
+        return new MctsConfig(this.playouts, timeLimitMs, this.threads, this.exploration, this.raveEquivalence,
+                this.arenaCapacity, this.seed);
+    }
+
+    /**
+     * @param threads the threads searching the tree together
+     * @return this config with the threads
+     */
+    public MctsConfig withThreads(final int threads) {
+        return new MctsConfig(this.playouts, this.timeLimitMs, threads, this.exploration, this.raveEquivalence,
+                this.arenaCapacity, this.seed);
+    }
+
+    /**
+     * @param raveEquivalence the visits at which both statistics weigh the same, 0 to disable RAVE
+     * @return this config with RAVE
+     */
+    public MctsConfig withRave(final int raveEquivalence) {
+        return new MctsConfig(this.playouts, this.timeLimitMs, this.threads, this.exploration, raveEquivalence,
+                this.arenaCapacity, this.seed);
+    }
+
+    /**
+     * @param seed the seed of the playouts
+     * @return this config with the seed
+     */
+    public MctsConfig withSeed(final long seed) {
+        return new MctsConfig(this.playouts, this.timeLimitMs, this.threads, this.exploration, this.raveEquivalence,
+                this.arenaCapacity, seed);
+    }
+}
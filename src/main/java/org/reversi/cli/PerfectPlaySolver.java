@@ -0,0 +1,279 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Solves every position reachable from the start of a small board, and writes them to a {@link PerfectPlayTable}.
+ * <p>
+ * The game tree is walked exhaustively from the start position, each position being solved once from the exact
+ * scores of the positions following it, which are memoized by key. So the whole tree is searched without pruning,
+ * which bounds the sizes that can be solved: the 4 x 4 board takes a fraction of a second, while the reachable
+ * positions of the 6 x 6 board are far too many to be enumerated on a single machine, though its keys would fit.
+ * Positions are two bitboards here, the player to move's and the opponent's, a square {@code (row, col)}
+ * being the bit {@code row * size + col}.
+ */
+public final class PerfectPlaySolver {
+    /**
+     * the largest board whose reachable positions can be enumerated
+     */
+    static final int MAX_SOLVED_SIZE = 4;
+
+    /**
+     * the eight directions, as row and column steps
+     */
+    private static final int[][] DIRECTIONS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+    /**
+     * the board size
+     */
+    private final int size;
+
+    /**
+     * the squares of each direction from each square, nearest first
+     */
+    private final int[][][] rays;
+
+    /**
+     * the power of 3 of each square's digit in the key
+     */
+    private final long[] digits;
+
+    /**
+     * the score and best move of each position solved so far, by key, see {@link #pack(int, int)}
+     */
+    private final Map<Long, Integer> solved = new HashMap<>();
+
+    /**
+     * Forbidden constructor outside of {@link #run(Path, int)}
+     * @param size the board size
+     */
+    private PerfectPlaySolver(final int size) {
+        this.size = size;
+        final int squares = size * size;
+        this.rays = new int[squares][DIRECTIONS.length][];
+        this.digits = new long[squares];
+        long digit = 1;
+        for (int square = 0; square < squares; square++) {
+            this.digits[square] = digit;
+            digit *= 3;
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                final int[] ray = new int[size];
+                int length = 0;
+                int row = square / size + DIRECTIONS[d][0];
+                int col = square % size + DIRECTIONS[d][1];
+                while (row >= 0 && row < size && col >= 0 && col < size) {
+                    ray[length++] = row * size + col;
+                    row += DIRECTIONS[d][0];
+                    col += DIRECTIONS[d][1];
+                }
+                this.rays[square][d] = Arrays.copyOf(ray, length);
+            }
+        }
+    }
+
+    /**
+     * solves every reachable position of a board size and writes the table
+     * @param file the table file, overwritten
+     * @param size the board size
+     * @throws IOException if the file can't be written
+     */
+    public static void run(final Path file, final int size) throws IOException {
+        if (size < 4 || size > MAX_SOLVED_SIZE || size % 2 != 0) {
+            throw new IllegalArgumentException("only the " + MAX_SOLVED_SIZE + " x " + MAX_SOLVED_SIZE
+                    + " game tree is small enough to be solved exhaustively");
+        }
+        final long start = System.nanoTime();
+        final PerfectPlaySolver solver = new PerfectPlaySolver(size);
+        final ReversiModel model = new ReversiModel(size);
+        final int player = model.getCurrentPlayer();
+        final long own = PositionCodec.toBits(model.getBoard(), player);
+        final long opponent = PositionCodec.toBits(model.getBoard(), -player);
+        final int score = unpackScore(solver.solve(own, opponent));
+        solver.write(file);
+
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d positions of the %d x %d board in %.1f s, "
+                        + "the first player scores %+d under perfect play%n",
+                solver.solved.size(), size, size, seconds, score);
+    }
+
+    /**
+     * solves a position and all the positions following it
+     * @param own the squares of the player to move, who has a move
+     * @param opponent the squares of the opponent
+     * @return the packed score and best move of the player to move
+     */
+    private int solve(final long own, final long opponent) {
+        final long key = key(own, opponent);
+        final Integer known = this.solved.get(key);
+        if (known != null) {
+            return known;
+        }
+
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = -1;
+        long empty = ~(own | opponent) & squareMask();
+        while (empty != 0) {
+            final int square = Long.numberOfTrailingZeros(empty);
+            empty &= empty - 1;
+            final long flips = flips(square, own, opponent);
+            if (flips == 0) {
+                continue;
+            }
+            final long nextOwn = own | flips | 1L << square;
+            final long nextOpponent = opponent & ~flips;
+
+            final int score;
+            if (hasMove(nextOpponent, nextOwn)) {
+                score = -unpackScore(solve(nextOpponent, nextOwn));
+            } else if (hasMove(nextOwn, nextOpponent)) {
+                // the opponent passes
+                score = unpackScore(solve(nextOwn, nextOpponent));
+            } else {
+                score = finalScore(nextOwn, nextOpponent);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = square;
+            }
+        }
+
+        final int packed = pack(bestScore, bestMove);
+        this.solved.put(key, packed);
+        return packed;
+    }
+
+    /**
+     * @param square an empty square
+     * @param own the squares of the player
+     * @param opponent the squares of the opponent
+     * @return the opponent's squares the player flips by moving there, none if it isn't a move
+     */
+    private long flips(final int square, final long own, final long opponent) {
+        long flips = 0;
+        for (int[] ray : this.rays[square]) {
+            long line = 0;
+            for (int next : ray) {
+                final long bit = 1L << next;
+                if ((opponent & bit) != 0) {
+                    line |= bit;
+                } else {
+                    if ((own & bit) != 0) {
+                        flips |= line;
+                    }
+                    break;
+                }
+            }
+        }
+        return flips;
+    }
+
+    /**
+     * @param own the squares of the player
+     * @param opponent the squares of the opponent
+     * @return true iff the player has a move
+     */
+    private boolean hasMove(final long own, final long opponent) {
+        long empty = ~(own | opponent) & squareMask();
+        while (empty != 0) {
+            if (flips(Long.numberOfTrailingZeros(empty), own, opponent) != 0) {
+                return true;
+            }
+            empty &= empty - 1;
+        }
+        return false;
+    }
+
+    /**
+     * @param own the squares of the player
+     * @param opponent the squares of the opponent
+     * @return the disk difference for the player at the end of the game, the empty squares going to the winner
+     */
+    private int finalScore(final long own, final long opponent) {
+        final int diff = Long.bitCount(own) - Long.bitCount(opponent);
+        final int empty = this.size * this.size - Long.bitCount(own | opponent);
+        return diff > 0 ? diff + empty : diff < 0 ? diff - empty : 0;
+    }
+
+    /**
+     * @return the squares of the board
+     */
+    private long squareMask() {
+        final int squares = this.size * this.size;
+        return squares == Long.SIZE ? -1L : (1L << squares) - 1;
+    }
+
+    /**
+     * @param own the squares of the player to move
+     * @param opponent the squares of the opponent
+     * @return the key of the position, see {@link PerfectPlayTable}
+     */
+    private long key(final long own, final long opponent) {
+        long key = 0;
+        for (long bits = own; bits != 0; bits &= bits - 1) {
+            key += this.digits[Long.numberOfTrailingZeros(bits)];
+        }
+        for (long bits = opponent; bits != 0; bits &= bits - 1) {
+            key += 2 * this.digits[Long.numberOfTrailingZeros(bits)];
+        }
+        return key;
+    }
+
+    /**
+     * @param score the final score of the player to move
+     * @param move the best move
+     * @return both in an int, the score in the low byte
+     */
+    private static int pack(final int score, final int move) {
+        return move << 8 | score & 0xFF;
+    }
+
+    /**
+     * @param packed a packed score and move
+     * @return the score
+     */
+    private static int unpackScore(final int packed) {
+        return (byte) packed;
+    }
+
+    /**
+     * writes the solved positions sorted by key
+     * @param file the table file, overwritten
+     * @throws IOException if the file can't be written
+     */
+    private void write(final Path file) throws IOException {
+        final long[] keys = new long[this.solved.size()];
+        int i = 0;
+        for (long key : this.solved.keySet()) {
+            keys[i++] = key;
+        }
+        Arrays.sort(keys);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long length = PerfectPlayTable.HEADER_SIZE + (long) keys.length * PerfectPlayTable.RECORD_SIZE;
+            // mapping past the end grows the file
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(PerfectPlayTable.MAGIC)
+                    .putInt(PerfectPlayTable.VERSION)
+                    .putInt(this.size)
+                    .putInt(PerfectPlayTable.RECORD_SIZE)
+                    .putLong(0);
+            for (long key : keys) {
+                final int packed = this.solved.get(key);
+                buffer.putLong(key).put((byte) packed).put((byte) (packed >>> 8));
+            }
+            buffer.force();
+            // the count marks the table complete, once its records are written
+            buffer.putLong(PerfectPlayTable.COUNT_OFFSET, keys.length);
+            buffer.force();
+        }
+    }
+}
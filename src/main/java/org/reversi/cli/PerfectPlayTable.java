@@ -0,0 +1,239 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The exact score and best move of every position reachable on a small board, written by {@link PerfectPlaySolver}
+ * and read through a read-only memory mapping.
+ * <p>
+ * A file is a {@value PerfectPlayTable#HEADER_SIZE} byte header followed by fixed-width records of
+ * {@value PerfectPlayTable#RECORD_SIZE} bytes, big endian, sorted by key:
+ * <pre>
+ * header: int magic, int version, int board size, int record size, long record count
+ * record: long key, byte final score of the player to move, byte best move {@code row * size + col}
+ * </pre>
+ * The key of a position is its board read as a base 3 number from the view of the player to move, the square
+ * {@code (row, col)} being the digit {@code row * size + col}: 0 for empty, 1 for the player, 2 for the opponent.
+ * It fits a long for boards of up to 6 x 6. Only positions in which the player to move has a move are stored,
+ * as {@link ReversiModel} passes the turn on its own. A lookup is a binary search over the mapped records,
+ * so it takes no search and no heap, and the table is shared by any number of threads.
+ */
+public class PerfectPlayTable implements AutoCloseable {
+    /**
+     * "RVPT", the first bytes of every table
+     */
+    static final int MAGIC = 0x52565054;
+
+    /**
+     * the version of the format
+     */
+    static final int VERSION = 1;
+
+    /**
+     * the size of the header
+     */
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * the offset of the record count in the header
+     */
+    static final int COUNT_OFFSET = 16;
+
+    /**
+     * the size of a record
+     */
+    static final int RECORD_SIZE = 10;
+
+    /**
+     * the largest board whose keys fit a long, 3^36 being below 2^63
+     */
+    static final int MAX_SIZE = 6;
+
+    /**
+     * the file
+     */
+    private final FileChannel channel;
+
+    /**
+     * the mapped records
+     */
+    private final MappedByteBuffer records;
+
+    /**
+     * the board size
+     */
+    private final int size;
+
+    /**
+     * the number of records
+     */
+    private final long count;
+
+    /**
+     * opens and maps a table
+     * @param file the file
+     * @throws IOException if the file can't be read or isn't a complete table
+     */
+    public PerfectPlayTable(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (this.channel.size() < HEADER_SIZE) {
+                throw new IOException(file + " is not a perfect play table");
+            }
+            final MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a perfect play table of version " + VERSION);
+            }
+            this.size = header.getInt();
+            if (header.getInt() != RECORD_SIZE) {
+                throw new IOException(file + " has an unexpected record size");
+            }
+            this.count = header.getLong();
+            if (this.count == 0) {
+                throw new IOException(file + " is empty or incomplete");
+            }
+            if (this.count * RECORD_SIZE > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be mapped at once");
+            }
+            if (this.channel.size() < HEADER_SIZE + this.count * RECORD_SIZE) {
+                throw new IOException(file + " is truncated");
+            }
+            this.records = this.channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, this.count * RECORD_SIZE);
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the board size
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of positions
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * looks up the exact scores of all possible moves
+     * @param model a position, left untouched
+     * @return the best move and the exact final score of every move for the player to move,
+     *         empty if the table doesn't hold the position
+     */
+    public Optional<SearchResult> lookup(final ReversiModel model) {
+        if (model.getBoard().length != this.size || model.isGameOver()) {
+            return Optional.empty();
+        }
+        final long index = find(key(model));
+        if (index < 0) {
+            return Optional.empty();
+        }
+
+        final int player = model.getCurrentPlayer();
+        final int offset = (int) index * RECORD_SIZE;
+        final int best = this.records.get(offset + Long.BYTES + 1);
+        final Coordinate bestMove = new Coordinate(best / this.size, best % this.size);
+
+        final Map<Coordinate, Integer> scores = new HashMap<>();
+        long lookups = 1;
+        for (Coordinate move : model.getPossibleMoves()) {
+            final ReversiModel child = model.getClone();
+            child.makeMove(move.x(), move.y());
+            if (child.isGameOver()) {
+                scores.put(move, EndgameSolver.finalScore(child, player));
+                continue;
+            }
+            final long childIndex = find(key(child));
+            if (childIndex < 0) {
+                throw new IllegalStateException("the table misses a position following one it holds");
+            }
+            lookups++;
+            final int score = scoreAt(childIndex);
+            // the opponent may have to pass, then the player moves again
+            scores.put(move, child.getCurrentPlayer() == player ? score : -score);
+        }
+
+        return Optional.of(new SearchResult(bestMove, scoreAt(index), countEmpties(model), lookups, true, scores));
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the final score of the player to move
+     */
+    private int scoreAt(final long index) {
+        return this.records.get((int) index * RECORD_SIZE + Long.BYTES);
+    }
+
+    /**
+     * binary search of a key
+     * @param key the key of a position
+     * @return the index of its record, -1 if there is none
+     */
+    private long find(final long key) {
+        long low = 0;
+        long high = this.count - 1;
+        while (low <= high) {
+            final long mid = (low + high) >>> 1;
+            final long found = this.records.getLong((int) mid * RECORD_SIZE);
+            if (found < key) {
+                low = mid + 1;
+            } else if (found > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param model a position
+     * @return its key, from the view of its player to move
+     */
+    static long key(final ReversiModel model) {
+        final int[][] board = model.getBoard();
+        final int player = model.getCurrentPlayer();
+        long key = 0;
+        // the last square is the most significant digit
+        for (int row = board.length - 1; row >= 0; row--) {
+            for (int col = board.length - 1; col >= 0; col--) {
+                final int cell = board[row][col];
+                key = key * 3 + (cell == ReversiModel.EMPTY ? 0 : cell == player ? 1 : 2);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * @param model a position
+     * @return the number of empty squares
+     */
+    private static int countEmpties(final ReversiModel model) {
+        int empties = 0;
+        for (int[] row : model.getBoard()) {
+            for (int cell : row) {
+                if (cell == ReversiModel.EMPTY) {
+                    empties++;
+                }
+            }
+        }
+        return empties;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,275 @@
+package org.reversi.cli;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A mutable board for fast random playouts, of any even size.
+ * <p>
+ * The squares are a flat array with a one square border, so that walking a direction never checks the bounds,
+ * and the empty squares are kept in a list, so that looking for moves never scans the disks.
+ * Once built, nothing is allocated: a playout copies its start position into a board of its own.
+ * Squares are indexes into the padded array, see {@link #toSquare(int, int)}.
+ * Boards aren't thread safe.
+ */
+final class PlayoutBoard {
+    /**
+     * the value of the border squares, neither a player nor empty
+     */
+    private static final int BORDER = 2;
+
+    /**
+     * the board size
+     */
+    private final int size;
+
+    /**
+     * the length of a padded row
+     */
+    private final int stride;
+
+    /**
+     * the squares, padded, {@link ReversiModel#PLAYER1}, {@link ReversiModel#PLAYER2}, empty or border
+     */
+    private final int[] cells;
+
+    /**
+     * the offsets of the eight directions
+     */
+    private final int[] directions;
+
+    /**
+     * the empty squares, the first {@link #emptyCount}
+     */
+    private final int[] empties;
+
+    /**
+     * the position of each empty square in {@link #empties}
+     */
+    private final int[] emptyIndex;
+
+    /**
+     * the number of empty squares
+     */
+    private int emptyCount;
+
+    /**
+     * the player to move, or the last to move once the game is over
+     */
+    private int player;
+
+    /**
+     * @param size the board size
+     */
+    PlayoutBoard(final int size) {
+        this.size = size;
+        this.stride = size + 2;
+        this.cells = new int[this.stride * this.stride];
+        this.directions = new int[] {
+                -this.stride - 1, -this.stride, -this.stride + 1, -1, 1, this.stride - 1, this.stride, this.stride + 1};
+        this.empties = new int[size * size];
+        this.emptyIndex = new int[this.cells.length];
+    }
+
+    /**
+     * sets the position of a model
+     * @param model the position, its player to move included
+     */
+    void load(final ReversiModel model) {
+        final int[][] board = model.getBoard();
+        Arrays.fill(this.cells, BORDER);
+        this.emptyCount = 0;
+        for (int row = 0; row < this.size; row++) {
+            for (int col = 0; col < this.size; col++) {
+                final int square = toSquare(row, col);
+                this.cells[square] = board[row][col];
+                if (board[row][col] == ReversiModel.EMPTY) {
+                    this.emptyIndex[square] = this.emptyCount;
+                    this.empties[this.emptyCount++] = square;
+                }
+            }
+        }
+        this.player = model.getCurrentPlayer();
+    }
+
+    /**
+     * sets the position of another board of the same size
+     * @param other the position
+     */
+    void copyFrom(final PlayoutBoard other) {
+        System.arraycopy(other.cells, 0, this.cells, 0, this.cells.length);
+        System.arraycopy(other.empties, 0, this.empties, 0, other.emptyCount);
+        System.arraycopy(other.emptyIndex, 0, this.emptyIndex, 0, this.emptyIndex.length);
+        this.emptyCount = other.emptyCount;
+        this.player = other.player;
+    }
+
+    /**
+     * @param row row coordinate
+     * @param col column coordinate
+     * @return the square
+     */
+    int toSquare(final int row, final int col) {
+        return (row + 1) * this.stride + col + 1;
+    }
+
+    /**
+     * @param square a square
+     * @return the coordinate of the square
+     */
+    Coordinate toCoordinate(final int square) {
+        return new Coordinate(square / this.stride - 1, square % this.stride - 1);
+    }
+
+    /**
+     * @return the number of squares, the padded ones included, an upper bound of the squares
+     */
+    int getSquareCount() {
+        return this.cells.length;
+    }
+
+    /**
+     * @return the player to move
+     */
+    int getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * @param square an empty square
+     * @param p a player
+     * @return true iff the player may move on the square
+     */
+    private boolean isMove(final int square, final int p) {
+        for (int direction : this.directions) {
+            int x = square + direction;
+            if (this.cells[x] != -p) {
+                continue;
+            }
+            do {
+                x += direction;
+            } while (this.cells[x] == -p);
+            if (this.cells[x] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * lists the moves of the player to move, passing the turn if the player can't move
+     * @param moves receives the moves, at least as long as the board has squares
+     * @return the number of moves, 0 iff the game is over
+     */
+    int generateMoves(final int[] moves) {
+        int count = collectMoves(this.player, moves);
+        if (count == 0) {
+            count = collectMoves(-this.player, moves);
+            if (count > 0) {
+                this.player = -this.player;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param p a player
+     * @param moves receives the moves of the player
+     * @return the number of moves
+     */
+    private int collectMoves(final int p, final int[] moves) {
+        int count = 0;
+        for (int i = 0; i < this.emptyCount; i++) {
+            if (isMove(this.empties[i], p)) {
+                moves[count++] = this.empties[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param p a player
+     * @param random the random source
+     * @return a move of the player, uniformly at random, -1 if it has none
+     */
+    private int randomMove(final int p, final SplittableRandom random) {
+        int chosen = -1;
+        int seen = 0;
+        // reservoir sampling, so that the moves are never collected
+        for (int i = 0; i < this.emptyCount; i++) {
+            final int square = this.empties[i];
+            if (isMove(square, p) && random.nextInt(++seen) == 0) {
+                chosen = square;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * makes a move and passes the turn to the opponent, who may still have to pass, see {@link #generateMoves(int[])}
+     * @param square a possible move of the player
+     * @param p the player making the move
+     */
+    void play(final int square, final int p) {
+        this.cells[square] = p;
+        for (int direction : this.directions) {
+            int x = square + direction;
+            while (this.cells[x] == -p) {
+                x += direction;
+            }
+            if (this.cells[x] == p) {
+                for (x -= direction; x != square; x -= direction) {
+                    this.cells[x] = p;
+                }
+            }
+        }
+
+        // the last empty square takes the place of the one played
+        final int index = this.emptyIndex[square];
+        final int last = this.empties[--this.emptyCount];
+        this.empties[index] = last;
+        this.emptyIndex[last] = index;
+        this.player = -p;
+    }
+
+    /**
+     * plays random moves to the end of the game
+     * @param random the random source
+     * @param playedBy receives the player of each square played
+     * @param playedStamp receives the stamp for each square played
+     * @param stamp the stamp of this playout, so that the arrays are never cleared
+     * @return the winner, {@link ReversiModel#PLAYER1} or {@link ReversiModel#PLAYER2}, {@link ReversiModel#EMPTY}
+     *         for a draw
+     */
+    int playout(final SplittableRandom random, final int[] playedBy, final int[] playedStamp, final int stamp) {
+        int passes = 0;
+        while (passes < 2 && this.emptyCount > 0) {
+            final int move = randomMove(this.player, random);
+            if (move < 0) {
+                passes++;
+                this.player = -this.player;
+                continue;
+            }
+            passes = 0;
+            playedBy[move] = this.player;
+            playedStamp[move] = stamp;
+            play(move, this.player);
+        }
+        return winner();
+    }
+
+    /**
+     * @return the player owning more disks, {@link ReversiModel#EMPTY} on a tie
+     */
+    int winner() {
+        int balance = 0;
+        for (int row = 0; row < this.size; row++) {
+            final int start = toSquare(row, 0);
+            for (int square = start; square < start + this.size; square++) {
+                balance += this.cells[square];
+            }
+        }
+        // PLAYER1 is 1 and PLAYER2 is -1, so the sum is the disk difference from PLAYER1's view
+        return Integer.signum(balance);
+    }
+}
@@ -0,0 +1,101 @@
+package org.reversi.cli;
+
+/**
+ * Many positions of the same board size in structure-of-arrays layout, for {@link BatchEvaluator}.
+ * <p>
+ * The cells of a square are contiguous over all positions, {@code cells[square * capacity + position]},
+ * so that the evaluation of a square handles as many positions at once as a vector register holds.
+ * The capacity is a multiple of the widest vector, so vector loops need no tail.
+ */
+public class PositionBatch {
+    /**
+     * the capacity is rounded up to a multiple of this many positions, 64 ints fill the widest, 2048 bit, registers
+     */
+    static final int LANE_ALIGNMENT = 64;
+
+    /**
+     * the size of the boards
+     */
+    private final int size;
+
+    /**
+     * the maximal number of positions
+     */
+    private final int capacity;
+
+    /**
+     * the cells of all positions, square by square
+     */
+    private final int[] cells;
+
+    /**
+     * the number of positions in the batch
+     */
+    private int count;
+
+    /**
+     * creates an empty batch
+     * @param size the size of the boards
+     * @param capacity the maximal number of positions
+     */
+    public PositionBatch(final int size, final int capacity) {
+        this.size = size;
+        this.capacity = Math.max(LANE_ALIGNMENT, (capacity + LANE_ALIGNMENT - 1) / LANE_ALIGNMENT * LANE_ALIGNMENT);
+        this.cells = new int[size * size * this.capacity];
+    }
+
+    /**
+     * adds a position
+     * @param board the board, encoded with PLAYER1, PLAYER2 and EMPTY
+     * @return the index of the position in the batch
+     */
+    public int add(final int[][] board) {
+        if (this.count == this.capacity) {
+            throw new IllegalStateException("batch is full");
+        }
+        final int position = this.count++;
+        int square = 0;
+        for (int[] row : board) {
+            for (int cell : row) {
+                this.cells[square++ * this.capacity + position] = cell;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * empties the batch, keeping its memory
+     */
+    public void clear() {
+        // stale cells are only ever evaluated into the unused scores
+        this.count = 0;
+    }
+
+    /**
+     * @return the size of the boards
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the maximal number of positions, a multiple of {@link PositionBatch#LANE_ALIGNMENT}
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return the number of positions in the batch
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the cells of all positions, {@code cells[square * capacity + position]}
+     */
+    int[] getCells() {
+        return this.cells;
+    }
+}
@@ -0,0 +1,295 @@
+package org.reversi.cli;
+
+/**
+ * Compact encodings of a position, a board and its player to move, in binary and as text.
+ * <p>
+ * Cells are coded 0 for empty, 1 for {@link ReversiModel#PLAYER1} and 2 for {@link ReversiModel#PLAYER2},
+ * the disk values of the web game, where white moves first. The binary form of an 8 x 8 board is its two
+ * bitboards, big endian, the square {@code (row, col)} being the bit {@code row * size + col}, then the code of
+ * the player to move: 17 bytes. Other sizes pack the cells into 2 bits each, the square {@code (row, col)} being
+ * the cell {@code row * size + col} from the low bits of the first byte, then the code of the player to move.
+ * The board size isn't written, the reader knows it. The text notation lists the cells row by row,
+ * {@code X} for {@link ReversiModel#PLAYER1}, {@code O} for {@link ReversiModel#PLAYER2} and {@code -} for empty,
+ * then a space and the player to move, e.g. {@code ---------------------------XO------OX--------------------------- X}
+ * for the start of an 8 x 8 {@link ReversiModel}. The reader also takes the characters of the FFO endgame files,
+ * whose first mover, black, is read as {@link ReversiModel#PLAYER1}. The readers and writers of both forms work on
+ * a board and a buffer of the caller, so they allocate nothing.
+ */
+public final class PositionCodec {
+    /**
+     * the code of an empty cell
+     */
+    public static final int EMPTY_CODE = 0;
+
+    /**
+     * the code of a cell of {@link ReversiModel#PLAYER1}
+     */
+    public static final int PLAYER1_CODE = 1;
+
+    /**
+     * the code of a cell of {@link ReversiModel#PLAYER2}
+     */
+    public static final int PLAYER2_CODE = 2;
+
+    /**
+     * the board size whose binary form is two bitboards
+     */
+    private static final int BITBOARD_SIZE = 8;
+
+    /**
+     * Forbidden constructor as PositionCodec is a utility class
+     */
+    private PositionCodec() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * @param player {@link ReversiModel#PLAYER1}, {@link ReversiModel#PLAYER2} or {@link ReversiModel#EMPTY}
+     * @return the code of the cell
+     */
+    public static int toCode(final int player) {
+        return player == ReversiModel.PLAYER1 ? PLAYER1_CODE : player == ReversiModel.PLAYER2 ? PLAYER2_CODE : EMPTY_CODE;
+    }
+
+    /**
+     * @param code the code of a cell
+     * @return {@link ReversiModel#PLAYER1}, {@link ReversiModel#PLAYER2} or {@link ReversiModel#EMPTY}
+     */
+    public static int toPlayer(final int code) {
+        return code == PLAYER1_CODE ? ReversiModel.PLAYER1 : code == PLAYER2_CODE ? ReversiModel.PLAYER2 : ReversiModel.EMPTY;
+    }
+
+    /**
+     * @param board the board, of at most 8 x 8, encoded with PLAYER1, PLAYER2 and EMPTY
+     * @param player the player
+     * @return the squares of the player, the square {@code (row, col)} being the bit {@code row * size + col}
+     */
+    public static long toBits(final int[][] board, final int player) {
+        final int size = board.length;
+        long bits = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board[row][col] == player) {
+                    bits |= 1L << (row * size + col);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @param size the board size
+     * @return the length of the binary form of a position
+     */
+    public static int binaryLength(final int size) {
+        return size == BITBOARD_SIZE ? 2 * Long.BYTES + 1 : (2 * size * size + Byte.SIZE - 1) / Byte.SIZE + 1;
+    }
+
+    /**
+     * @param model a position
+     * @return its binary form
+     */
+    public static byte[] encode(final ReversiModel model) {
+        final byte[] out = new byte[binaryLength(model.getBoard().length)];
+        write(model.getBoard(), model.getCurrentPlayer(), out, 0);
+        return out;
+    }
+
+    /**
+     * writes the binary form of a position
+     * @param board the board, encoded with PLAYER1, PLAYER2 and EMPTY
+     * @param player the player to move
+     * @param out receives the binary form
+     * @param offset the index of its first byte in {@code out}
+     * @return the number of bytes written, {@link #binaryLength(int)}
+     */
+    public static int write(final int[][] board, final int player, final byte[] out, final int offset) {
+        final int size = board.length;
+        final int length = binaryLength(size);
+        if (size == BITBOARD_SIZE) {
+            writeLong(toBits(board, ReversiModel.PLAYER1), out, offset);
+            writeLong(toBits(board, ReversiModel.PLAYER2), out, offset + Long.BYTES);
+        } else {
+            for (int i = offset; i < offset + length - 1; i++) {
+                out[i] = 0;
+            }
+            for (int cell = 0; cell < size * size; cell++) {
+                out[offset + cell / 4] |= (byte) (toCode(board[cell / size][cell % size]) << (2 * (cell % 4)));
+            }
+        }
+        out[offset + length - 1] = (byte) toCode(player);
+        return length;
+    }
+
+    /**
+     * @param in the binary form of a position
+     * @param offset the index of its first byte in {@code in}
+     * @param size the board size
+     * @return the model of the position, passing the turn if the player to move can't move
+     * @throws IllegalArgumentException if the binary form is invalid
+     */
+    public static ReversiModel decode(final byte[] in, final int offset, final int size) {
+        final int[][] board = new int[size][size];
+        return ReversiModel.fromBoard(board, read(in, offset, board));
+    }
+
+    /**
+     * reads the binary form of a position
+     * @param in the binary form
+     * @param offset the index of its first byte in {@code in}
+     * @param board receives the board, encoded with PLAYER1, PLAYER2 and EMPTY, of the size of the position
+     * @return the player to move
+     * @throws IllegalArgumentException if the binary form is invalid
+     */
+    public static int read(final byte[] in, final int offset, final int[][] board) {
+        final int size = board.length;
+        final int length = binaryLength(size);
+        if (size == BITBOARD_SIZE) {
+            final long player1 = readLong(in, offset);
+            final long player2 = readLong(in, offset + Long.BYTES);
+            if ((player1 & player2) != 0) {
+                throw new IllegalArgumentException("a square can't hold two disks");
+            }
+            for (int cell = 0; cell < size * size; cell++) {
+                final long bit = 1L << cell;
+                board[cell / size][cell % size] = (player1 & bit) != 0 ? ReversiModel.PLAYER1
+                        : (player2 & bit) != 0 ? ReversiModel.PLAYER2 : ReversiModel.EMPTY;
+            }
+        } else {
+            for (int cell = 0; cell < size * size; cell++) {
+                final int code = in[offset + cell / 4] >>> (2 * (cell % 4)) & 3;
+                if (code > PLAYER2_CODE) {
+                    throw new IllegalArgumentException("invalid cell code " + code);
+                }
+                board[cell / size][cell % size] = toPlayer(code);
+            }
+        }
+        final int toMove = in[offset + length - 1];
+        if (toMove != PLAYER1_CODE && toMove != PLAYER2_CODE) {
+            throw new IllegalArgumentException("invalid player to move " + toMove);
+        }
+        return toPlayer(toMove);
+    }
+
+    /**
+     * @param model a position
+     * @return its text notation
+     */
+    public static String format(final ReversiModel model) {
+        final int size = model.getBoard().length;
+        final StringBuilder out = new StringBuilder(size * size + 2);
+        format(model.getBoard(), model.getCurrentPlayer(), out);
+        return out.toString();
+    }
+
+    /**
+     * appends the text notation of a position
+     * @param board the board, encoded with PLAYER1, PLAYER2 and EMPTY
+     * @param player the player to move
+     * @param out receives the notation
+     */
+    public static void format(final int[][] board, final int player, final StringBuilder out) {
+        for (int[] row : board) {
+            for (int cell : row) {
+                out.append(toChar(cell));
+            }
+        }
+        out.append(' ').append(toChar(player));
+    }
+
+    /**
+     * @param text the text notation of a position, of any even size
+     * @return the model of the position, passing the turn if the player to move can't move
+     * @throws IllegalArgumentException if the notation is invalid
+     */
+    public static ReversiModel parse(final CharSequence text) {
+        int cells = 0;
+        while (cells < text.length() && !isSeparator(text.charAt(cells))) {
+            cells++;
+        }
+        final int size = (int) Math.round(Math.sqrt(cells));
+        if (size * size != cells || size % 2 != 0 || size < 4) {
+            throw new IllegalArgumentException("not a square board of even size");
+        }
+        final int[][] board = new int[size][size];
+        return ReversiModel.fromBoard(board, parse(text, board));
+    }
+
+    /**
+     * reads the text notation of a position. the player to move may follow the cells after spaces or a {@code ;},
+     * {@code X} or {@code B} for {@link ReversiModel#PLAYER1}, {@code O} or {@code W} for {@link ReversiModel#PLAYER2}
+     * @param text the notation, cells may also be {@code x} or {@code *}, {@code o}, and {@code .}
+     * @param board receives the board, encoded with PLAYER1, PLAYER2 and EMPTY, of the size of the position
+     * @return the player to move
+     * @throws IllegalArgumentException if the notation is invalid
+     */
+    public static int parse(final CharSequence text, final int[][] board) {
+        final int size = board.length;
+        final int cells = size * size;
+        if (text.length() < cells) {
+            throw new IllegalArgumentException("expected " + cells + " squares");
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            final char c = text.charAt(cell);
+            board[cell / size][cell % size] = switch (c) {
+                case 'X', 'x', '*' -> ReversiModel.PLAYER1;
+                case 'O', 'o' -> ReversiModel.PLAYER2;
+                case '-', '.' -> ReversiModel.EMPTY;
+                default -> throw new IllegalArgumentException("invalid square '" + c + "'");
+            };
+        }
+
+        int i = cells;
+        while (i < text.length() && isSeparator(text.charAt(i))) {
+            i++;
+        }
+        if (i >= text.length()) {
+            throw new IllegalArgumentException("player to move missing");
+        }
+        return switch (Character.toUpperCase(text.charAt(i))) {
+            case 'X', 'B' -> ReversiModel.PLAYER1;
+            case 'O', 'W' -> ReversiModel.PLAYER2;
+            default -> throw new IllegalArgumentException("invalid player to move '" + text.charAt(i) + "'");
+        };
+    }
+
+    /**
+     * @param c a character
+     * @return true iff it separates the cells from the player to move
+     */
+    private static boolean isSeparator(final char c) {
+        return c == ' ' || c == '\t' || c == ';';
+    }
+
+    /**
+     * @param player PLAYER1, PLAYER2 or EMPTY
+     * @return its character in the notation
+     */
+    private static char toChar(final int player) {
+        return player == ReversiModel.PLAYER1 ? 'X' : player == ReversiModel.PLAYER2 ? 'O' : '-';
+    }
+
+    /**
+     * @param value a long
+     * @param out receives it, big endian
+     * @param offset the index of its first byte
+     */
+    private static void writeLong(final long value, final byte[] out, final int offset) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            out[offset + i] = (byte) (value >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+        }
+    }
+
+    /**
+     * @param in a big endian long
+     * @param offset the index of its first byte
+     * @return the long
+     */
+    private static long readLong(final byte[] in, final int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = value << Byte.SIZE | in[offset + i] & 0xFF;
+        }
+        return value;
+    }
+}
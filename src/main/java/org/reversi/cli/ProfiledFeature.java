@@ -0,0 +1,79 @@
+package org.reversi.cli;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times the calls of a feature, to weigh its cost against its contribution to the strength of the agent.
+ * <p>
+ * Each call reads the clock twice, some tens of nanoseconds, which is counted in the time of the feature.
+ * @see WeightedEvaluator#profiled()
+ */
+public final class ProfiledFeature implements EvaluationFeature {
+    /**
+     * the timed feature
+     */
+    private final EvaluationFeature feature;
+
+    /**
+     * the number of calls
+     */
+    private final LongAdder calls = new LongAdder();
+
+    /**
+     * the time spent in the calls
+     */
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * The profile of a feature.
+     * @param name the name of the feature
+     * @param calls the number of calls
+     * @param nanos the time spent in the calls
+     */
+    public record Profile(String name, long calls, long nanos) {
+        /**
+         * @return the average time of a call
+         */
+        public double nanosPerCall() {
+            return calls == 0 ? 0 : (double) nanos / calls;
+        }
+
+        /**
+         * @param searchNanos the time of the searches that called the feature
+         * @return the share of the search time spent in the feature, between 0 and 1
+         */
+        public double shareOf(final long searchNanos) {
+            return searchNanos == 0 ? 0 : (double) nanos / searchNanos;
+        }
+    }
+
+    /**
+     * @param feature the timed feature
+     */
+    public ProfiledFeature(final EvaluationFeature feature) {
+        this.feature = feature;
+    }
+
+    @Override
+    public String name() {
+        return this.feature.name();
+    }
+
+    @Override
+    public int evaluate(final ReversiModel state, final int player) {
+        final long start = System.nanoTime();
+        try {
+            return this.feature.evaluate(state, player);
+        } finally {
+            this.nanos.add(System.nanoTime() - start);
+            this.calls.increment();
+        }
+    }
+
+    /**
+     * @return the profile so far
+     */
+    public Profile getProfile() {
+        return new Profile(name(), this.calls.sum(), this.nanos.sum());
+    }
+}
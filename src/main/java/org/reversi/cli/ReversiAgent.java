@@ -1,17 +1,15 @@
 package org.reversi.cli;
 
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.IntFunction;
-import java.util.stream.IntStream;
 
 
 /**
  * A class for the AI agent for Reversi
  */
-public class ReversiAgent {
+public class ReversiAgent implements SearchEngine {
     /**
      * the max depth for minimax search
      */
@@ -29,6 +27,53 @@ public class ReversiAgent {
      */
     private final int agentID;
 
+    /**
+     * the heuristic evaluation
+     */
+    private final WeightedEvaluator evaluator;
+
+    /**
+     * evaluates the children of the frontier nodes, SIMD if the Vector API is available.
+     * null if the evaluator has features the batch evaluators lack, the children are then evaluated one by one
+     */
+    private final BatchEvaluator frontierEvaluator;
+
+    /**
+     * the children of the frontier node being evaluated, created on first use
+     */
+    private PositionBatch frontier;
+
+    /**
+     * the scores of the frontier children
+     */
+    private int[] frontierScores;
+
+    /**
+     * the budget of the running search
+     */
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    /**
+     * the number of nodes visited by the running search
+     */
+    private long nodes;
+
+    /**
+     * Thrown through the search once its budget is exhausted, without a stack trace as it's thrown often.
+     */
+    private static final class SearchAbortedException extends RuntimeException {
+        /**
+         * the single instance
+         */
+        private static final SearchAbortedException INSTANCE = new SearchAbortedException();
+
+        /**
+         * private constructor, use the single instance
+         */
+        private SearchAbortedException() {
+            super("search budget exhausted", null, false, false);
+        }
+    }
 
     /**
      * Constructor for the agent
@@ -38,37 +83,136 @@ public class ReversiAgent {
      * @param agentID the player ID the agent takes
      */
     public ReversiAgent(ReversiModel model, int depth, int agentID) {
+        this(model, depth, agentID, EvaluationWeights.DEFAULT);
+    }
+
+    /**
+     * Constructor for the agent with its own evaluation weights, e.g. tuned by {@link WeightTuner}
+     * @see ReversiAgent#agentID
+     * @param model the game model the agent will play on
+     * @param depth the max depth for minimax search
+     * @param agentID the player ID the agent takes
+     * @param weights the weights of the heuristic evaluation
+     */
+    public ReversiAgent(ReversiModel model, int depth, int agentID, EvaluationWeights weights) {
+        this(model, depth, agentID, WeightedEvaluator.of(weights));
+    }
+
+    /**
+     * Constructor for the agent with its own evaluation features
+     * @see ReversiAgent#agentID
+     * @param model the game model the agent will play on
+     * @param depth the max depth for minimax search
+     * @param agentID the player ID the agent takes
+     * @param evaluator the heuristic evaluation
+     */
+    public ReversiAgent(ReversiModel model, int depth, int agentID, WeightedEvaluator evaluator) {
         assert agentID == 1 || agentID == -1;
 
         this.agentID = agentID;
         this.model = model;
         this.depth = depth;
+        this.evaluator = evaluator;
+        this.frontierEvaluator = evaluator.toWeights().map(BatchEvaluator::create).orElse(null);
     }
 
     /**
      * finds the best move using minimax
      * @return the best move coordinate
      */
+    @Override
     public Coordinate findBestMove() {
+        final Coordinate bestMove = search(SearchBudget.UNLIMITED).bestMove();
+        assert Objects.nonNull(bestMove);
+        return bestMove;
+    }
+
+    /**
+     * searches the best move within a budget, by iterative deepening up to the depth of the agent.
+     * an unbounded budget, possibly with a cancellation token, goes straight to the depth of the agent.
+     * the agent must not run several searches at once.
+     * @param budget the budget of the search
+     * @return the scores of the deepest depth completed, or of the moves scored so far
+     */
+    @Override
+    public SearchResult search(final SearchBudget budget) {
+        this.budget = budget;
+        this.nodes = 0;
+        Map<Coordinate, Integer> scores = Map.of();
+        int completedDepth = 0;
+        boolean complete = false;
+
+        try {
+            for (int d = budget.isBounded() ? 1 : this.depth; d <= this.depth; d++) {
+                final Map<Coordinate, Integer> depthScores = new HashMap<>();
+                try {
+                    for (Coordinate move : this.model.getPossibleMoves()) {
+                        depthScores.put(move, scoreMove(move, d));
+                    }
+                } catch (SearchAbortedException e) {
+                    if (completedDepth == 0) {
+                        scores = depthScores;
+                    }
+                    throw e;
+                }
+                scores = depthScores;
+                completedDepth = d;
+            }
+            complete = true;
+        } catch (SearchAbortedException e) {
+            // keep the scores of the last completed depth
+        } finally {
+            this.budget = SearchBudget.UNLIMITED;
+        }
+
+        return toResult(scores, completedDepth, complete);
+    }
+
+    /**
+     * @param scores the scores of the scored moves
+     * @param completedDepth the deepest depth completed
+     * @param complete true iff the search reached its depth
+     * @return the result of the search
+     */
+    private SearchResult toResult(final Map<Coordinate, Integer> scores, final int completedDepth,
+                                  final boolean complete) {
         int bestScore = Integer.MIN_VALUE;
         Coordinate bestMove = null;
-        Set<Coordinate> moves = this.model.getPossibleMoves();
 
-        final int alpha = Integer.MIN_VALUE;
-        final int beta = Integer.MAX_VALUE;
-
-        ReversiModel clonedModel = this.model.getClone();
-        for (Coordinate move : moves) {
-            clonedModel.makeMove(move.x(), move.y());
-            int score = miniMax(clonedModel, this.depth - 1, false, alpha, beta);
-            if (score > bestScore) {
+        // iterated in the order of the possible moves, so ties are broken as by an unbudgeted search
+        for (Coordinate move : this.model.getPossibleMoves()) {
+            final Integer score = scores.get(move);
+            if (score != null && (bestMove == null || score > bestScore)) {
                 bestScore = score;
                 bestMove = move;
             }
         }
+        if (bestMove == null && !this.model.getPossibleMoves().isEmpty()) {
+            bestMove = this.model.getPossibleMoves().iterator().next();
+        }
 
-        assert Objects.nonNull(bestMove);
-        return bestMove;
+        return new SearchResult(bestMove, bestScore, completedDepth, this.nodes, complete, Map.copyOf(scores));
+    }
+
+    /**
+     * scores a single move using minimax
+     * @param move a possible move of the agent
+     * @return the score associated with the move, higher is better for the agent
+     */
+    public int scoreMove(Coordinate move) {
+        return scoreMove(move, this.depth);
+    }
+
+    /**
+     * scores a single move using minimax, within the budget of the running search
+     * @param move a possible move of the agent
+     * @param moveDepth the search depth, the move included
+     * @return the score associated with the move, higher is better for the agent
+     */
+    private int scoreMove(Coordinate move, int moveDepth) {
+        ReversiModel clonedModel = this.model.getClone();
+        clonedModel.makeMove(move.x(), move.y());
+        return miniMax(clonedModel, moveDepth - 1, false, Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     /**
@@ -81,16 +225,23 @@ public class ReversiAgent {
      * @return the score associated with the best branch in the minimax search
      */
     private int miniMax(ReversiModel gameState, int currDepth, boolean maximizingPlayer, int alpha, int beta) {
+        if (this.budget.isExhausted(++this.nodes)) {
+            throw SearchAbortedException.INSTANCE;
+        }
         if (currDepth == 0 || gameState.isGameOver()) {
             return evaluate(gameState);
         }
+        if (currDepth == 1) {
+            return evaluateChildren(gameState, maximizingPlayer);
+        }
 
         int bestScore = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
         Set<Coordinate> moves = gameState.getPossibleMoves();
 
         for (Coordinate move : moves) {
-            gameState.makeMove(move.x(), move.y());
-            int score = miniMax(gameState, currDepth - 1, !maximizingPlayer, alpha, beta);
+            ReversiModel child = gameState.getClone();
+            child.makeMove(move.x(), move.y());
+            int score = miniMax(child, currDepth - 1, !maximizingPlayer, alpha, beta);
             bestScore = maximizingPlayer ? Math.max(bestScore, score): Math.min(bestScore, score);
 
             if (maximizingPlayer) {
@@ -99,7 +250,7 @@ public class ReversiAgent {
                 beta = Math.min(beta, bestScore);
             }
 
-            if (maximizingPlayer && beta <= alpha || !maximizingPlayer && alpha <= beta) {
+            if (beta <= alpha) {
                 break;
             }
         }
@@ -108,88 +259,59 @@ public class ReversiAgent {
     }
 
     /**
-     * heuristics evaluation of the game state
-     * @param gameState Reversi model representing the game state
-     * @return the heuristic evaluation
-     */
-    private int evaluate(final ReversiModel gameState) {
-        return countMyCorners(gameState) + countMyPieces(gameState) + endToEndStableOccupation(gameState);
-    }
-
-
-    /**
-     * counts the rows and cols stably - cannot be recaptured - occupied end to end by the agent
-     * @param gameState Reversi model representing the game state
-     * @return the heuristic evaluation
-     */
-    private int endToEndStableOccupation(final ReversiModel gameState) {
-        final int startVal = 100;
-        final int[][] board = gameState.getBoard();
-
-        // count occupied rows
-        final CompletableFuture<Integer> numFullRowsFuture = CompletableFuture.supplyAsync(() ->
-                (int) Arrays.stream(board)
-                .filter(row ->
-                        IntStream.of(row).allMatch(playa -> playa == this.agentID)
-                ).count());
-
-        // count occupied columns
-        final IntFunction<IntStream> toColumnStream = col -> Arrays.stream(board).mapToInt(row -> row[col]);
-        final CompletableFuture<Integer> numFullColsFuture = CompletableFuture.supplyAsync(() ->
-                (int) IntStream.range(0, board.length)
-                .mapToObj(toColumnStream)
-                .filter(col ->
-                        col.allMatch(playa -> playa == this.agentID)
-                ).count());
-
-
-        final CompletableFuture<Void> allFutures = CompletableFuture.allOf(
-                numFullRowsFuture, numFullColsFuture
-        );
-        allFutures.join();
-
-        return startVal * (numFullRowsFuture.join() + numFullColsFuture.join());
-    }
-
-
-    /**
-     * counts the number of corners captured by the agent as the corners are valuable.
-     * @param gameState Reversi model representing the game state
-     * @return the heuristic evaluation
+     * evaluates all children of a frontier node at once, see {@link BatchEvaluator},
+     * or one by one if the evaluator has features the batch evaluators lack.
+     * each child counts as a node, as it would when searched one by one
+     * @param gameState Reversi model representing the game state, one ply above the leaves
+     * @param maximizingPlayer boolean to represent if it's the maximizing player's turn
+     * @return the score of the best child for the player to move
      */
-    private int countMyCorners(final ReversiModel gameState) {
-        final int stratVal = 50;
-
-        int cnt = 0;
-        for (int i: new int[] {0, gameState.getBoard().length - 1}) {
-            for (int j : new int[] {0, gameState.getBoard().length - 1}) {
-                if (gameState.getBoard()[i][j] == agentID) {
-                    cnt++;
+    private int evaluateChildren(ReversiModel gameState, boolean maximizingPlayer) {
+        if (this.frontierEvaluator == null) {
+            int bestScore = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            for (Coordinate move : gameState.getPossibleMoves()) {
+                if (this.budget.isExhausted(++this.nodes)) {
+                    throw SearchAbortedException.INSTANCE;
                 }
+                ReversiModel child = gameState.getClone();
+                child.makeMove(move.x(), move.y());
+                final int score = evaluate(child);
+                bestScore = maximizingPlayer ? Math.max(bestScore, score) : Math.min(bestScore, score);
             }
+            return bestScore;
+        }
+        if (this.frontier == null) {
+            final int size = gameState.getBoard().length;
+            this.frontier = new PositionBatch(size, size * size);
+            this.frontierScores = new int[this.frontier.getCapacity()];
         }
+        this.frontier.clear();
 
-        return stratVal * cnt;
+        for (Coordinate move : gameState.getPossibleMoves()) {
+            if (this.budget.isExhausted(++this.nodes)) {
+                throw SearchAbortedException.INSTANCE;
+            }
+            ReversiModel child = gameState.getClone();
+            child.makeMove(move.x(), move.y());
+            this.frontier.add(child.getBoard());
+        }
+        this.frontierEvaluator.evaluate(this.frontier, this.agentID, this.frontierScores);
+
+        int bestScore = maximizingPlayer ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < this.frontier.getCount(); i++) {
+            bestScore = maximizingPlayer
+                    ? Math.max(bestScore, this.frontierScores[i]) : Math.min(bestScore, this.frontierScores[i]);
+        }
+        return bestScore;
     }
 
     /**
-     * counts the number of agent disks.
+     * heuristics evaluation of the game state
      * @param gameState Reversi model representing the game state
      * @return the heuristic evaluation
      */
-    private int countMyPieces(final ReversiModel gameState) {
-        final int stratVal = 5;
-        int cnt = 0;
-
-        for (int[] row: gameState.getBoard()) {
-            for (int playa: row) {
-                if (playa == agentID) {
-                    cnt++;
-                }
-            }
-        }
-
-        return stratVal * cnt;
+    private int evaluate(final ReversiModel gameState) {
+        return this.evaluator.evaluate(gameState, this.agentID);
     }
 
     /**
@@ -197,6 +319,7 @@ public class ReversiAgent {
      * @see ReversiAgent#agentID
      * @return agentID
      */
+    @Override
     public int getAgentID() {
         return this.agentID;
     }
@@ -16,6 +16,11 @@ public final class ReversiController {
      */
     private final static Pattern INPUT_PATT = Pattern.compile("(\\d) (\\d)");
 
+    /**
+     * Pattern to match replay requests
+     */
+    private final static Pattern REPLAY_PATT = Pattern.compile("r (\\d+)");
+
     /**
      * reference to the view singleton of the MVC architecture
      */
@@ -31,6 +36,21 @@ public final class ReversiController {
      */
     private static final String EXIT_KEY = "q";
 
+    /**
+     * the key used for listing the moves so far
+     */
+    private static final String HISTORY_KEY = "h";
+
+    /**
+     * the key used for replaying the position after some ply
+     */
+    private static final String REPLAY_KEY = "r";
+
+    /**
+     * the system property ending the game at the first prompt, for the training runs of the class data sharing archive
+     */
+    private static final String STARTUP_EXIT_PROPERTY = "reversi.startup.exit";
+
     /**
      * private constructor for singleton behavior
      */
@@ -62,15 +82,56 @@ public final class ReversiController {
         );
     }
 
+    /**
+     * makes a move and records it, along with the opponent's pass if it has no move left
+     * @param model the game model representing the game state
+     * @param history the record of the game
+     * @param move the move
+     * @return true iff the move was valid
+     */
+    private boolean makeRecordedMove(final ReversiModel model, final GameHistory history, final Coordinate move) {
+        final int player = model.getCurrentPlayer();
+        if (!model.makeMove(move.x(), move.y())) {
+            return false;
+        }
+
+        history.recordMove(move.x(), move.y());
+        if (!model.isGameOver() && model.getCurrentPlayer() == player) {
+            history.recordPass();
+        }
+        return true;
+    }
+
     /**
      * method to start the game with or without an AI agent
      * @param model the game model representing the game state
      * @param withAgent a boolean, which is true iff the game is played with an AI agent
      */
     public void startGameOn(ReversiModel model, boolean withAgent) {
-        final ReversiAgent agent = new ReversiAgent(model, 4, -model.getCurrentPlayer());
+        startGameOn(model, withAgent, WeightedEvaluator.of(EvaluationWeights.DEFAULT));
+    }
+
+    /**
+     * method to start the game with or without an AI agent
+     * @param model the game model representing the game state
+     * @param withAgent a boolean, which is true iff the game is played with an AI agent
+     * @param evaluator the heuristic evaluation of the AI agent
+     */
+    public void startGameOn(ReversiModel model, boolean withAgent, WeightedEvaluator evaluator) {
+        startGameOn(model, withAgent, new ReversiAgent(model, 4, -model.getCurrentPlayer(), evaluator));
+    }
+
+    /**
+     * method to start the game with or without an AI agent
+     * @param model the game model representing the game state
+     * @param withAgent a boolean, which is true iff the game is played with an AI agent
+     * @param agent the AI agent, searching on the model
+     */
+    public void startGameOn(ReversiModel model, boolean withAgent, SearchEngine agent) {
+        final GameHistory history = new GameHistory(model.getBoard().length);
 
         VIEW.welcome(EXIT_KEY);
+        VIEW.replayHelp(HISTORY_KEY, REPLAY_KEY);
         try (BufferedReader input = new BufferedReader(new InputStreamReader(System.in))) {
             while (!model.isGameOver()) {
                 System.out.println();
@@ -80,16 +141,29 @@ public final class ReversiController {
                 if (withAgent && model.getCurrentPlayer() == agent.getAgentID()) {
                     Coordinate bestMove = agent.findBestMove();
                     System.out.printf("Agent: %d %d%n", bestMove.x(), bestMove.y());
-                    model.makeMove(bestMove.x(), bestMove.y());
+                    makeRecordedMove(model, history, bestMove);
                     continue;
                 }
 
+                if (Boolean.getBoolean(STARTUP_EXIT_PROPERTY)) {break;}
+
                 try {
                     final String line = input.readLine();
                     if (line.equals(EXIT_KEY)) {break;}
+                    if (line.equals(HISTORY_KEY)) {
+                        VIEW.printHistory(history);
+                        continue;
+                    }
+
+                    final Matcher replayMatcher = REPLAY_PATT.matcher(line);
+                    if (replayMatcher.matches()) {
+                        System.out.println();
+                        VIEW.printBoard(history.positionAt(Integer.parseInt(replayMatcher.group(1))));
+                        continue;
+                    }
 
                     final Coordinate inputCoord = getInputCoordFrom(line);
-                    if (!model.makeMove(inputCoord.x(), inputCoord.y())) {
+                    if (!makeRecordedMove(model, history, inputCoord)) {
                         System.out.println("Invalid move, try again.");
                     }
                 } catch (Exception e) {
@@ -86,6 +86,33 @@ public class ReversiModel {
         this.possibleMoves = this.getPossibleMoveCoordsForPlayer(this.currentPlayer);
     }
 
+    /**
+     * creates a model for an arbitrary position, e.g. one played elsewhere.
+     * the turn passes to the opponent if the current player can't move.
+     * @param board the board to copy, encoded with PLAYER1, PLAYER2 and EMPTY
+     * @param currentPlayer the player whose turn it is to make a move
+     * @return the model of the given position
+     */
+    public static ReversiModel fromBoard(final int[][] board, final int currentPlayer) {
+        final ReversiModel model = new ReversiModel(board.length);
+        for (int i = 0; i < board.length; i++)
+            System.arraycopy(board[i], 0, model.board[i], 0, board.length);
+
+        model.currentPlayer = currentPlayer;
+        model.possibleMoves = model.getPossibleMoveCoordsForPlayer(currentPlayer);
+
+        // the current player might have to pass, or the game might be over
+        if (model.possibleMoves.isEmpty()) {
+            model.switchTurn();
+            model.possibleMoves = model.getPossibleMoveCoordsForPlayer(model.currentPlayer);
+            if (model.possibleMoves.isEmpty()) {
+                model.currentPlayer = currentPlayer;
+                model.winner = model.getMajorityPlayer();
+            }
+        }
+        return model;
+    }
+
     /**
      * switches the player turn in the game
      */
@@ -249,7 +276,9 @@ public class ReversiModel {
 
         for (int[] row: this.board) {
             for (int player: row) {
-                occupiedTiles[getPlayerIndex(player)] += 1;
+                if (player != EMPTY) {
+                    occupiedTiles[getPlayerIndex(player)] += 1;
+                }
             }
         }
 
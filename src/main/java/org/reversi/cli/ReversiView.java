@@ -135,6 +135,30 @@ public final class ReversiView {
         System.out.printf("Enter %s to exit%n", exitKey);
     }
 
+    /**
+     * prints out how to replay the game so far
+     * @param historyKey key for printing the moves so far
+     * @param replayKey key, followed by a ply, for printing the position after that ply
+     */
+    public void replayHelp(final String historyKey, final String replayKey) {
+        System.out.printf("Enter %s to list the moves, %s <ply> to show the position after a ply%n", historyKey, replayKey);
+    }
+
+    /**
+     * prints the recorded moves, one ply per line
+     * @param history the recorded game
+     */
+    public void printHistory(final GameHistory history) {
+        for (int ply = 0; ply < history.getLength(); ply++) {
+            final Coordinate move = history.getMove(ply);
+            if (move == null) {
+                System.out.printf("%d: pass%n", ply + 1);
+            } else {
+                System.out.printf("%d: %d %d%n", ply + 1, move.x(), move.y());
+            }
+        }
+    }
+
     /**
      * prints the current player to the console
      * @param currentPlayer the player whose turn it is to play
@@ -0,0 +1,67 @@
+package org.reversi.cli;
+
+/**
+ * The portable {@link BatchEvaluator}, one position and one square at a time.
+ */
+public class ScalarBatchEvaluator implements BatchEvaluator {
+    /**
+     * the weights of the features
+     */
+    private final EvaluationWeights weights;
+
+    /**
+     * creates the evaluator
+     * @param weights the weights of the features
+     */
+    public ScalarBatchEvaluator(final EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public void evaluate(final PositionBatch batch, final int player, final int[] scores) {
+        final int size = batch.getSize();
+        final int capacity = batch.getCapacity();
+        final int[] cells = batch.getCells();
+        final int last = size - 1;
+        final int[] cornerSquares = {0, last, last * size, last * size + last};
+
+        for (int position = 0; position < batch.getCount(); position++) {
+            int disks = 0;
+            int fullLines = 0;
+
+            for (int row = 0; row < size; row++) {
+                int rowDisks = 0;
+                for (int col = 0; col < size; col++) {
+                    if (cells[(row * size + col) * capacity + position] == player) {
+                        rowDisks++;
+                    }
+                }
+                disks += rowDisks;
+                if (rowDisks == size) {
+                    fullLines++;
+                }
+            }
+            for (int col = 0; col < size; col++) {
+                int colDisks = 0;
+                for (int row = 0; row < size; row++) {
+                    if (cells[(row * size + col) * capacity + position] == player) {
+                        colDisks++;
+                    }
+                }
+                if (colDisks == size) {
+                    fullLines++;
+                }
+            }
+
+            int corners = 0;
+            for (int square : cornerSquares) {
+                if (cells[square * capacity + position] == player) {
+                    corners++;
+                }
+            }
+
+            scores[position] = this.weights.disk() * disks + this.weights.corner() * corners
+                    + this.weights.fullLine() * fullLines;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.reversi.cli;
+
+import java.time.Duration;
+
+/**
+ * Bounds of a search: a number of nodes, a deadline and a cancellation token.
+ * <p>
+ * The node limit is checked on every node, so a search bounded by nodes alone is reproducible.
+ * The deadline and the token are only checked every {@link SearchBudget#CHECK_INTERVAL} nodes.
+ * @param maxNodes the number of nodes the search may visit
+ * @param deadline the {@link System#nanoTime()} by which the search must stop, {@link Long#MAX_VALUE} for none
+ * @param token the token stopping the search, null for none
+ */
+public record SearchBudget(long maxNodes, long deadline, CancellationToken token) {
+    /**
+     * the number of nodes between two checks of the deadline and the token, a power of 2.
+     * a node costs far more than reading the clock, so the checks are cheap even at this interval
+     */
+    public static final int CHECK_INTERVAL = 64;
+
+    /**
+     * the budget of a search running to its depth whatever happens
+     */
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE, null);
+
+    /**
+     * @param maxNodes the number of nodes the search may visit
+     * @return a budget of nodes only
+     */
+    public static SearchBudget ofNodes(final long maxNodes) {
+        return new SearchBudget(maxNodes, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param timeout the time the search may take from now
+     * @return a budget of time only
+     */
+    public static SearchBudget ofTime(final Duration timeout) {
+        return UNLIMITED.withTimeout(timeout);
+    }
+
+    /**
+     * @param timeout the time the search may take from now
+     * @return this budget, stopping after the timeout at the latest
+     */
+    public SearchBudget withTimeout(final Duration timeout) {
+        final long now = System.nanoTime();
+        final long timeoutNanos = timeout.toNanos();
+        final long newDeadline = timeoutNanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutNanos;
+        return new SearchBudget(this.maxNodes, Math.min(this.deadline, newDeadline), this.token);
+    }
+
+    /**
+     * @param cancellationToken the token stopping the search
+     * @return this budget, also stopped by the token
+     */
+    public SearchBudget withToken(final CancellationToken cancellationToken) {
+        return new SearchBudget(this.maxNodes, this.deadline, cancellationToken);
+    }
+
+    /**
+     * a search with neither a node limit nor a deadline goes straight to its depth,
+     * as it will never need the result of a shallower one
+     * @return true iff the budget limits the nodes or the time of the search
+     */
+    public boolean isBounded() {
+        return this.maxNodes != Long.MAX_VALUE || this.deadline != Long.MAX_VALUE;
+    }
+
+    /**
+     * checked on every node
+     * @param nodes the number of nodes visited so far
+     * @return true iff the search must stop
+     */
+    boolean isExhausted(final long nodes) {
+        if (nodes >= this.maxNodes) {
+            return true;
+        }
+        if ((nodes & (CHECK_INTERVAL - 1)) != 0) {
+            return false;
+        }
+        return (this.token != null && this.token.isCancelled())
+                || (this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline >= 0);
+    }
+}
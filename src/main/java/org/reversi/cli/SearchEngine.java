@@ -0,0 +1,27 @@
+package org.reversi.cli;
+
+/**
+ * A computer player searching the moves of the player to move of its model.
+ * @see ReversiAgent
+ * @see MctsAgent
+ */
+public interface SearchEngine {
+    /**
+     * @return the best move found for the player to move, within the default budget of the engine
+     */
+    Coordinate findBestMove();
+
+    /**
+     * searches the best move within a budget. an engine must not run several searches at once
+     * @param budget the budget of the search
+     * @return the best move and the scores of the moves searched
+     */
+    SearchResult search(SearchBudget budget);
+
+    /**
+     * @return the player the engine plays
+     * @see ReversiModel#PLAYER1
+     * @see ReversiModel#PLAYER2
+     */
+    int getAgentID();
+}
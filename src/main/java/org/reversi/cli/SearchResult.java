@@ -0,0 +1,18 @@
+package org.reversi.cli;
+
+import java.util.Map;
+
+/**
+ * The outcome of a budgeted search of {@link ReversiAgent}.
+ * <p>
+ * A search stopped by its budget keeps the scores of the deepest depth it completed,
+ * or, if it didn't complete the first one, of the moves it scored so far.
+ * @param bestMove the best move found, any possible move if none could be scored
+ * @param score the score of the best move for the agent, {@link Integer#MIN_VALUE} if none could be scored
+ * @param depth the deepest depth completed, 0 if not even the first
+ * @param nodes the number of nodes visited
+ * @param complete true iff the search reached its depth within the budget
+ * @param scores the scores of the scored moves for the agent
+ */
+public record SearchResult(Coordinate bestMove, int score, int depth, long nodes, boolean complete,
+                           Map<Coordinate, Integer> scores) {}
@@ -0,0 +1,153 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates training data by self-play of {@link ReversiAgent}, see {@link TrainingData}.
+ * <p>
+ * Every thread plays whole games and writes each position in which a move was made, with the final score of the
+ * player to move, until the file is full. The first plies and a share of the later ones are random moves,
+ * so that the games don't all repeat the agent's favourite line.
+ */
+public final class SelfPlay {
+    /**
+     * the number of random plies opening every game
+     */
+    private static final int RANDOM_OPENING_PLIES = 4;
+
+    /**
+     * the share of random moves after the opening
+     */
+    private static final double RANDOM_MOVE_RATE = 0.1;
+
+    /**
+     * Forbidden constructor as SelfPlay is a utility class
+     */
+    private SelfPlay() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * plays games until the file holds the requested number of positions
+     * @param file the training file, overwritten
+     * @param positions the number of positions to write
+     * @param threads the number of games played at once
+     * @param depth the search depth of the agents
+     * @param weights the evaluation weights of the agents
+     * @param seed the seed of the random moves
+     * @throws IOException if the file can't be written
+     */
+    public static void run(final Path file, final long positions, final int threads, final int depth,
+                           final EvaluationWeights weights, final long seed) throws IOException {
+        final int size = 8;
+        final AtomicLong games = new AtomicLong();
+        final long start = System.nanoTime();
+
+        try (TrainingDataWriter writer = new TrainingDataWriter(file, size, positions)) {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            final SplittableRandom seeds = new SplittableRandom(seed);
+            try {
+                final List<Future<?>> players = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    final SplittableRandom random = seeds.split();
+                    players.add(executor.submit(() -> playUntilFull(writer, size, depth, weights, random, games)));
+                }
+                for (Future<?> player : players) {
+                    player.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("self-play interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("self-play failed", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d positions of %d games in %.1f s, %.0f positions/s%n",
+                positions, games.get(), seconds, positions / seconds);
+    }
+
+    /**
+     * plays and writes games until the file is full
+     * @param writer the training file
+     * @param size the board size
+     * @param depth the search depth of the agents
+     * @param weights the evaluation weights of the agents
+     * @param random the random moves of this thread
+     * @param games counts the games played
+     */
+    private static void playUntilFull(final TrainingDataWriter writer, final int size, final int depth,
+                                      final EvaluationWeights weights, final SplittableRandom random,
+                                      final AtomicLong games) {
+        final TrainingData data = new TrainingData(size);
+        final List<long[]> game = new ArrayList<>();
+
+        while (!Thread.currentThread().isInterrupted()) {
+            game.clear();
+            final ReversiModel model = new ReversiModel(size);
+            for (int ply = 0; !model.isGameOver(); ply++) {
+                final int player = model.getCurrentPlayer();
+                final int[][] board = model.getBoard();
+                game.add(new long[] {PositionCodec.toBits(board, player), PositionCodec.toBits(board, -player), player});
+
+                final Coordinate move = ply < RANDOM_OPENING_PLIES || random.nextDouble() < RANDOM_MOVE_RATE
+                        ? randomMove(model, random)
+                        : new ReversiAgent(model, depth, player, weights).findBestMove();
+                model.makeMove(move.x(), move.y());
+            }
+            games.incrementAndGet();
+
+            final long first = writer.reserve(game.size());
+            if (first < 0) {
+                return;
+            }
+            final int player1Score = finalScore(model.getBoard());
+            for (int i = 0; i < game.size() && first + i < writer.getCapacity(); i++) {
+                final long[] position = game.get(i);
+                writer.write(first + i, position[0], position[1],
+                        position[2] == ReversiModel.PLAYER1 ? player1Score : -player1Score);
+            }
+        }
+    }
+
+    /**
+     * @param model the position
+     * @param random the random source
+     * @return a possible move, uniformly at random
+     */
+    private static Coordinate randomMove(final ReversiModel model, final SplittableRandom random) {
+        final List<Coordinate> moves = new ArrayList<>(model.getPossibleMoves());
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    /**
+     * @param board a finished board
+     * @return the disk difference of the first player, the empty squares going to the winner
+     */
+    private static int finalScore(final int[][] board) {
+        int diff = 0;
+        int empty = 0;
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell == ReversiModel.EMPTY) {
+                    empty++;
+                } else {
+                    diff += cell == ReversiModel.PLAYER1 ? 1 : -1;
+                }
+            }
+        }
+        return diff > 0 ? diff + empty : diff < 0 ? diff - empty : 0;
+    }
+}
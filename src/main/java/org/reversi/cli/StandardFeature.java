@@ -0,0 +1,220 @@
+package org.reversi.cli;
+
+/**
+ * The built-in evaluation features.
+ * <p>
+ * {@link #DISKS}, {@link #CORNERS} and {@link #FULL_LINES} only count the player's disks, as the original heuristic
+ * of {@link ReversiAgent} did. The others compare both players, positive when the player is ahead.
+ */
+public enum StandardFeature implements EvaluationFeature {
+    /**
+     * the player's disks
+     */
+    DISKS {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            int count = 0;
+            for (int[] row : state.getBoard()) {
+                for (int cell : row) {
+                    if (cell == player) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    },
+
+    /**
+     * the player's corners
+     */
+    CORNERS {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            final int[][] board = state.getBoard();
+            final int last = board.length - 1;
+            int count = 0;
+            for (int i : new int[] {0, last}) {
+                for (int j : new int[] {0, last}) {
+                    if (board[i][j] == player) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+    },
+
+    /**
+     * the rows and columns entirely occupied by the player, which can't be recaptured
+     */
+    FULL_LINES {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            final int[][] board = state.getBoard();
+            int count = 0;
+            for (int i = 0; i < board.length; i++) {
+                boolean fullRow = true;
+                boolean fullCol = true;
+                for (int j = 0; j < board.length && (fullRow || fullCol); j++) {
+                    fullRow &= board[i][j] == player;
+                    fullCol &= board[j][i] == player;
+                }
+                count += (fullRow ? 1 : 0) + (fullCol ? 1 : 0);
+            }
+            return count;
+        }
+    },
+
+    /**
+     * the player's possible moves minus the opponent's
+     */
+    MOBILITY {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            final int[][] board = state.getBoard();
+            return countMoves(board, player) - countMoves(board, -player);
+        }
+    },
+
+    /**
+     * the empty squares next to an opponent's disk minus those next to a player's disk.
+     * the disks next to an empty square form the frontier, the more a player has, the more moves it gives away
+     */
+    POTENTIAL_MOBILITY {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            final int[][] board = state.getBoard();
+            int potential = 0;
+            for (int i = 0; i < board.length; i++) {
+                for (int j = 0; j < board.length; j++) {
+                    if (board[i][j] == ReversiModel.EMPTY) {
+                        potential += (isNextTo(board, i, j, -player) ? 1 : 0) - (isNextTo(board, i, j, player) ? 1 : 0);
+                    }
+                }
+            }
+            return potential;
+        }
+    },
+
+    /**
+     * 1 if the player is expected to make the last move, -1 if the opponent is, 0 once the game is over.
+     * without passes, the player to move makes the last move iff the number of empty squares is odd
+     */
+    PARITY {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            if (state.isGameOver()) {
+                return 0;
+            }
+            int empty = 0;
+            for (int[] row : state.getBoard()) {
+                for (int cell : row) {
+                    if (cell == ReversiModel.EMPTY) {
+                        empty++;
+                    }
+                }
+            }
+            final boolean toMoveLast = empty % 2 == 1;
+            return toMoveLast == (state.getCurrentPlayer() == player) ? 1 : -1;
+        }
+    },
+
+    /**
+     * the opponent's disks minus the player's on the X and C squares, next to an empty corner,
+     * as they give the corner away
+     */
+    X_C_SQUARES {
+        @Override
+        public int evaluate(final ReversiModel state, final int player) {
+            final int[][] board = state.getBoard();
+            final int last = board.length - 1;
+            int count = 0;
+            for (int i : new int[] {0, last}) {
+                for (int j : new int[] {0, last}) {
+                    if (board[i][j] != ReversiModel.EMPTY) {
+                        continue;
+                    }
+                    final int di = i == 0 ? 1 : -1;
+                    final int dj = j == 0 ? 1 : -1;
+                    count -= board[i + di][j + dj] + board[i + di][j] + board[i][j + dj];
+                }
+            }
+            // the cells hold 1 or -1 for the players, so the sum is from the view of PLAYER1
+            return player == ReversiModel.PLAYER1 ? count : -count;
+        }
+    };
+
+    /**
+     * @param board the board
+     * @param player a player, not necessarily the one to move
+     * @return the number of possible moves of the player
+     */
+    private static int countMoves(final int[][] board, final int player) {
+        int count = 0;
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                if (board[i][j] == ReversiModel.EMPTY && isMove(board, i, j, player)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param board the board
+     * @param row the row of an empty square
+     * @param col the column of an empty square
+     * @param player a player
+     * @return true iff the player can move on the square, flanking an opponent's disk in some direction
+     */
+    private static boolean isMove(final int[][] board, final int row, final int col, final int player) {
+        for (int xDir = -1; xDir <= 1; xDir++) {
+            for (int yDir = -1; yDir <= 1; yDir++) {
+                if (xDir == 0 && yDir == 0) {continue;}
+                int x = row + xDir;
+                int y = col + yDir;
+
+                boolean separated = false;
+                while (insideBoard(board, x, y) && board[x][y] == -player) {
+                    x += xDir;
+                    y += yDir;
+                    separated = true;
+                }
+                if (separated && insideBoard(board, x, y) && board[x][y] == player) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param board the board
+     * @param row row coordinate
+     * @param col column coordinate
+     * @param player a player
+     * @return true iff one of the eight neighbours of the square holds a disk of the player
+     */
+    private static boolean isNextTo(final int[][] board, final int row, final int col, final int player) {
+        for (int x = Math.max(row - 1, 0); x <= Math.min(row + 1, board.length - 1); x++) {
+            for (int y = Math.max(col - 1, 0); y <= Math.min(col + 1, board.length - 1); y++) {
+                if (board[x][y] == player) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param board the board
+     * @param row row coordinate
+     * @param col column coordinate
+     * @return true iff (row, col) is a coordinate inside the board
+     */
+    private static boolean insideBoard(final int[][] board, final int row, final int col) {
+        return row >= 0 && row < board.length && col >= 0 && col < board.length;
+    }
+}
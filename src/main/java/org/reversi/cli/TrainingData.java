@@ -0,0 +1,126 @@
+package org.reversi.cli;
+
+/**
+ * The format of the self-play training files, and the features of their positions.
+ * <p>
+ * A file is a {@value TrainingData#HEADER_SIZE} byte header followed by fixed-width records of
+ * {@value TrainingData#RECORD_SIZE} bytes, big endian:
+ * <pre>
+ * header: int magic, int version, int board size, int record size, long record count
+ * record: long disks of the player to move, long disks of the opponent, byte final score of the player to move
+ * </pre>
+ * A square {@code (row, col)} is the bit {@code row * size + col}, so boards of up to 8 x 8 fit.
+ * The final score is the disk difference at the end of the game, the empty squares going to the winner.
+ * The record count is only written once the file is complete, an incomplete file counts no records.
+ */
+public final class TrainingData {
+    /**
+     * "RVTD", the first bytes of every training file
+     */
+    static final int MAGIC = 0x52565444;
+
+    /**
+     * the version of the format
+     */
+    static final int VERSION = 1;
+
+    /**
+     * the size of the header
+     */
+    static final int HEADER_SIZE = 24;
+
+    /**
+     * the offset of the record count in the header
+     */
+    static final int COUNT_OFFSET = 16;
+
+    /**
+     * the size of a record
+     */
+    static final int RECORD_SIZE = 17;
+
+    /**
+     * the records mapped at once, a mapping holds at most 2 GB and never splits a record
+     */
+    static final long RECORDS_PER_SEGMENT = (1L << 30) / RECORD_SIZE;
+
+    /**
+     * the largest board a record holds
+     */
+    static final int MAX_SIZE = 8;
+
+    /**
+     * the number of features of a position, as weighted by {@link EvaluationWeights}
+     */
+    static final int FEATURES = 3;
+
+    /**
+     * the board size
+     */
+    private final int size;
+
+    /**
+     * the squares of each row
+     */
+    private final long[] rowMasks;
+
+    /**
+     * the squares of each column
+     */
+    private final long[] colMasks;
+
+    /**
+     * the corner squares
+     */
+    private final long cornerMask;
+
+    /**
+     * prepares the masks of a board size
+     * @param size the board size
+     */
+    TrainingData(final int size) {
+        if (size < 2 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("training boards are at most " + MAX_SIZE + " x " + MAX_SIZE);
+        }
+        this.size = size;
+        this.rowMasks = new long[size];
+        this.colMasks = new long[size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                this.rowMasks[row] |= square(row, col);
+                this.colMasks[col] |= square(row, col);
+            }
+        }
+        final int last = size - 1;
+        this.cornerMask = square(0, 0) | square(0, last) | square(last, 0) | square(last, last);
+    }
+
+    /**
+     * @param row the row
+     * @param col the column
+     * @return the bit of the square
+     */
+    private long square(final int row, final int col) {
+        return 1L << (row * this.size + col);
+    }
+
+    /**
+     * computes the features of {@link EvaluationWeights}, in the order disk, corner, full line
+     * @param own the squares of the player
+     * @param features receives the features, at least {@value TrainingData#FEATURES} long
+     */
+    void features(final long own, final double[] features) {
+        int fullLines = 0;
+        for (int i = 0; i < this.size; i++) {
+            if ((own & this.rowMasks[i]) == this.rowMasks[i]) {
+                fullLines++;
+            }
+            if ((own & this.colMasks[i]) == this.colMasks[i]) {
+                fullLines++;
+            }
+        }
+        features[0] = Long.bitCount(own);
+        features[1] = Long.bitCount(own & this.cornerMask);
+        features[2] = fullLines;
+    }
+}
@@ -0,0 +1,135 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a training file through read-only memory mappings, see {@link TrainingData}.
+ * <p>
+ * Records are read in place, by any number of threads at once, and the operating system pages them in and out,
+ * so files far larger than the heap can be streamed.
+ */
+public class TrainingDataReader implements AutoCloseable {
+    /**
+     * the file
+     */
+    private final FileChannel channel;
+
+    /**
+     * the mapped records, {@link TrainingData#RECORDS_PER_SEGMENT} per segment
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * the board size
+     */
+    private final int size;
+
+    /**
+     * the number of records
+     */
+    private final long count;
+
+    /**
+     * opens and maps a training file
+     * @param file the file
+     * @throws IOException if the file can't be read or isn't a complete training file
+     */
+    public TrainingDataReader(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (this.channel.size() < TrainingData.HEADER_SIZE) {
+                throw new IOException(file + " is not a training file");
+            }
+            final MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, TrainingData.HEADER_SIZE);
+            if (header.getInt() != TrainingData.MAGIC || header.getInt() != TrainingData.VERSION) {
+                throw new IOException(file + " is not a training file of version " + TrainingData.VERSION);
+            }
+            this.size = header.getInt();
+            if (header.getInt() != TrainingData.RECORD_SIZE) {
+                throw new IOException(file + " has an unexpected record size");
+            }
+            this.count = header.getLong();
+            if (this.count == 0) {
+                throw new IOException(file + " is empty or incomplete");
+            }
+            if (this.channel.size() < TrainingData.HEADER_SIZE + this.count * TrainingData.RECORD_SIZE) {
+                throw new IOException(file + " is truncated");
+            }
+
+            final int segmentCount = (int) ((this.count + TrainingData.RECORDS_PER_SEGMENT - 1) / TrainingData.RECORDS_PER_SEGMENT);
+            this.segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                final long first = i * TrainingData.RECORDS_PER_SEGMENT;
+                final long records = Math.min(TrainingData.RECORDS_PER_SEGMENT, this.count - first);
+                this.segments[i] = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                        TrainingData.HEADER_SIZE + first * TrainingData.RECORD_SIZE, records * TrainingData.RECORD_SIZE);
+            }
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the board size
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the squares of the player to move
+     */
+    public long getOwn(final long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the squares of the opponent
+     */
+    public long getOpponent(final long index) {
+        return segment(index).getLong(offset(index) + Long.BYTES);
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the final score of the player to move
+     */
+    public int getScore(final long index) {
+        return segment(index).get(offset(index) + 2 * Long.BYTES);
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the segment holding the record
+     */
+    private MappedByteBuffer segment(final long index) {
+        return this.segments[(int) (index / TrainingData.RECORDS_PER_SEGMENT)];
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the offset of the record in its segment
+     */
+    private static int offset(final long index) {
+        return (int) (index % TrainingData.RECORDS_PER_SEGMENT) * TrainingData.RECORD_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,123 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a training file of a fixed number of records through memory mappings, see {@link TrainingData}.
+ * <p>
+ * Writers on several threads reserve disjoint ranges of records and fill them in place,
+ * so records are never copied nor held on the heap. The operating system writes the pages back.
+ */
+public class TrainingDataWriter implements AutoCloseable {
+    /**
+     * the file
+     */
+    private final FileChannel channel;
+
+    /**
+     * the mapped records, {@link TrainingData#RECORDS_PER_SEGMENT} per segment
+     */
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * the number of records of the file
+     */
+    private final long capacity;
+
+    /**
+     * the next record to reserve
+     */
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * creates the file and maps it
+     * @param file the file, overwritten
+     * @param size the board size
+     * @param capacity the number of records of the file
+     * @throws IOException if the file can't be created
+     */
+    public TrainingDataWriter(final Path file, final int size, final long capacity) throws IOException {
+        if (size < 2 || size > TrainingData.MAX_SIZE) {
+            throw new IllegalArgumentException("training boards are at most " + TrainingData.MAX_SIZE + " x " + TrainingData.MAX_SIZE);
+        }
+        this.capacity = capacity;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        final MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, TrainingData.HEADER_SIZE);
+        header.putInt(TrainingData.MAGIC)
+                .putInt(TrainingData.VERSION)
+                .putInt(size)
+                .putInt(TrainingData.RECORD_SIZE)
+                .putLong(0);
+        header.force();
+
+        final int segmentCount = (int) ((capacity + TrainingData.RECORDS_PER_SEGMENT - 1) / TrainingData.RECORDS_PER_SEGMENT);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            final long first = i * TrainingData.RECORDS_PER_SEGMENT;
+            final long records = Math.min(TrainingData.RECORDS_PER_SEGMENT, capacity - first);
+            // mapping past the end grows the file
+            this.segments[i] = this.channel.map(FileChannel.MapMode.READ_WRITE,
+                    TrainingData.HEADER_SIZE + first * TrainingData.RECORD_SIZE, records * TrainingData.RECORD_SIZE);
+        }
+    }
+
+    /**
+     * reserves records, thread safe
+     * @param records the number of records wanted
+     * @return the index of the first reserved record, -1 once the file is full.
+     *         the reservation may run past the capacity, those records are not to be written
+     */
+    public long reserve(final int records) {
+        final long first = this.next.getAndAdd(records);
+        return first < this.capacity ? first : -1;
+    }
+
+    /**
+     * @return the number of records of the file
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * writes a reserved record
+     * @param index the index of the record
+     * @param own the squares of the player to move
+     * @param opponent the squares of the opponent
+     * @param score the final score of the player to move
+     */
+    public void write(final long index, final long own, final long opponent, final int score) {
+        final MappedByteBuffer segment = this.segments[(int) (index / TrainingData.RECORDS_PER_SEGMENT)];
+        final int offset = (int) (index % TrainingData.RECORDS_PER_SEGMENT) * TrainingData.RECORD_SIZE;
+        // absolute puts leave the buffer's position alone, so threads writing disjoint records don't interfere
+        segment.putLong(offset, own);
+        segment.putLong(offset + Long.BYTES, opponent);
+        segment.put(offset + 2 * Long.BYTES, (byte) score);
+    }
+
+    /**
+     * writes the records back and marks the file complete
+     * @throws IOException if the file can't be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            for (MappedByteBuffer segment : this.segments) {
+                segment.force();
+            }
+            final long written = Math.min(this.next.get(), this.capacity);
+            final MappedByteBuffer header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, TrainingData.HEADER_SIZE);
+            header.putLong(TrainingData.COUNT_OFFSET, written);
+            header.force();
+        } finally {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.reversi.cli;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD {@link BatchEvaluator}, evaluating as many positions at once as a vector register holds.
+ * <p>
+ * Requires {@code --add-modules jdk.incubator.vector}, see {@link BatchEvaluator#create(EvaluationWeights)}.
+ * The lanes are positions, so every feature is the same branch-free sequence of compares and masked adds
+ * over the squares, whatever the boards.
+ */
+public class VectorBatchEvaluator implements BatchEvaluator {
+    /**
+     * the widest species of the platform, at most {@link PositionBatch#LANE_ALIGNMENT} lanes
+     */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * the weights of the features
+     */
+    private final EvaluationWeights weights;
+
+    /**
+     * creates the evaluator
+     * @param weights the weights of the features
+     */
+    public VectorBatchEvaluator(final EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public void evaluate(final PositionBatch batch, final int player, final int[] scores) {
+        final int size = batch.getSize();
+        final int capacity = batch.getCapacity();
+        final int[] cells = batch.getCells();
+        final int last = size - 1;
+        // the capacity is a multiple of the lanes, so the last chunk may read past the count but not the array
+        final int bound = Math.min(capacity, (batch.getCount() + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length());
+
+        for (int position = 0; position < bound; position += SPECIES.length()) {
+            IntVector disks = IntVector.zero(SPECIES);
+            IntVector fullLines = IntVector.zero(SPECIES);
+
+            for (int row = 0; row < size; row++) {
+                IntVector rowDisks = IntVector.zero(SPECIES);
+                for (int col = 0; col < size; col++) {
+                    rowDisks = rowDisks.add(1, owned(cells, (row * size + col) * capacity + position, player));
+                }
+                disks = disks.add(rowDisks);
+                fullLines = fullLines.add(1, rowDisks.compare(VectorOperators.EQ, size));
+            }
+            for (int col = 0; col < size; col++) {
+                IntVector colDisks = IntVector.zero(SPECIES);
+                for (int row = 0; row < size; row++) {
+                    colDisks = colDisks.add(1, owned(cells, (row * size + col) * capacity + position, player));
+                }
+                fullLines = fullLines.add(1, colDisks.compare(VectorOperators.EQ, size));
+            }
+
+            final IntVector corners = IntVector.zero(SPECIES)
+                    .add(1, owned(cells, position, player))
+                    .add(1, owned(cells, last * capacity + position, player))
+                    .add(1, owned(cells, last * size * capacity + position, player))
+                    .add(1, owned(cells, (last * size + last) * capacity + position, player));
+
+            disks.mul(this.weights.disk())
+                    .add(corners.mul(this.weights.corner()))
+                    .add(fullLines.mul(this.weights.fullLine()))
+                    .intoArray(scores, position);
+        }
+    }
+
+    /**
+     * @param cells the cells of the batch
+     * @param offset the offset of the first lane
+     * @param player the player
+     * @return the lanes whose cell belongs to the player
+     */
+    private static VectorMask<Integer> owned(final int[] cells, final int offset, final int player) {
+        return IntVector.fromArray(SPECIES, cells, offset).compare(VectorOperators.EQ, player);
+    }
+}
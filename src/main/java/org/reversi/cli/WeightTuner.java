@@ -0,0 +1,281 @@
+package org.reversi.cli;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fits the {@link EvaluationWeights} to a self-play training file, see {@link SelfPlay}.
+ * <p>
+ * The weights are those of a logistic regression of the outcome of the game, won, drawn or lost,
+ * on the features of the position of the player to move. Each Newton step streams the whole file once,
+ * its records split among the threads, each summing the gradient and the Hessian of its share.
+ * The file is never loaded on the heap. The fitted weights are scaled to integers, the largest being
+ * {@value WeightTuner#WEIGHT_SCALE}, as the agent only compares evaluations.
+ */
+public final class WeightTuner {
+    /**
+     * the largest weight in absolute value once scaled to integers
+     */
+    static final int WEIGHT_SCALE = 100;
+
+    /**
+     * the number of parameters, the intercept and one weight per feature
+     */
+    private static final int PARAMETERS = TrainingData.FEATURES + 1;
+
+    /**
+     * the L2 regularization, keeping the Hessian invertible when a feature never varies
+     */
+    private static final double RIDGE = 1e-6;
+
+    /**
+     * Newton steps shorter than this end the fit
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Forbidden constructor as WeightTuner is a utility class
+     */
+    private WeightTuner() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * The gradient and Hessian of the log-likelihood over a share of the records.
+     * @param gradient the gradient
+     * @param hessian the Hessian, row major
+     * @param logLikelihood the log-likelihood
+     */
+    private record Step(double[] gradient, double[] hessian, double logLikelihood) {
+        /**
+         * @param other the sums of another share
+         * @return the sums of both shares
+         */
+        Step plus(final Step other) {
+            final double[] g = this.gradient.clone();
+            final double[] h = this.hessian.clone();
+            for (int i = 0; i < g.length; i++) {
+                g[i] += other.gradient[i];
+            }
+            for (int i = 0; i < h.length; i++) {
+                h[i] += other.hessian[i];
+            }
+            return new Step(g, h, this.logLikelihood + other.logLikelihood);
+        }
+    }
+
+    /**
+     * fits the weights of a training file and writes them to a weights file
+     * @param in the training file
+     * @param out the weights file, overwritten
+     * @param iterations the maximal number of Newton steps
+     * @param threads the number of threads summing the gradient
+     * @throws IOException if a file can't be read or written
+     */
+    public static void run(final Path in, final Path out, final int iterations, final int threads) throws IOException {
+        final EvaluationWeights weights;
+        final long count;
+        try (TrainingDataReader reader = new TrainingDataReader(in)) {
+            count = reader.getCount();
+            weights = tune(reader, iterations, threads);
+        }
+        weights.save(out, "fitted on " + count + " positions of " + in.getFileName());
+        System.out.println("weights: " + weights);
+    }
+
+    /**
+     * fits the weights of a training file
+     * @param reader the training file
+     * @param iterations the maximal number of Newton steps
+     * @param threads the number of threads summing the gradient
+     * @return the weights, scaled to integers
+     */
+    public static EvaluationWeights tune(final TrainingDataReader reader, final int iterations, final int threads) {
+        final double[] theta = new double[PARAMETERS];
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int iteration = 1; iteration <= iterations; iteration++) {
+                final long start = System.nanoTime();
+                final Step step = sum(reader, theta, executor, threads);
+                final double[] delta = solve(regularized(step.hessian(), reader.getCount()), step.gradient());
+
+                double norm = 0;
+                for (int i = 0; i < PARAMETERS; i++) {
+                    theta[i] += delta[i];
+                    norm += delta[i] * delta[i];
+                }
+                System.out.printf(Locale.ROOT, "iteration %d: mean log-likelihood %.6f, %.0f positions/s%n",
+                        iteration, step.logLikelihood() / reader.getCount(),
+                        reader.getCount() / ((System.nanoTime() - start) / 1e9));
+                if (Math.sqrt(norm) < TOLERANCE) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("tuning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("tuning failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return toWeights(theta);
+    }
+
+    /**
+     * sums the gradient and the Hessian of all records in parallel
+     * @param reader the training file
+     * @param theta the current parameters
+     * @param executor the threads
+     * @param threads the number of threads
+     * @return the sums
+     * @throws InterruptedException if interrupted while waiting for the threads
+     * @throws ExecutionException if a thread failed
+     */
+    private static Step sum(final TrainingDataReader reader, final double[] theta, final ExecutorService executor,
+                            final int threads) throws InterruptedException, ExecutionException {
+        final long count = reader.getCount();
+        // more shares than threads, so that a slow thread doesn't hold up the step
+        final int shares = threads * 4;
+        final List<Future<Step>> parts = new ArrayList<>();
+        for (int i = 0; i < shares; i++) {
+            final long from = count * i / shares;
+            final long to = count * (i + 1) / shares;
+            parts.add(executor.submit(() -> sum(reader, theta, from, to)));
+        }
+
+        Step total = new Step(new double[PARAMETERS], new double[PARAMETERS * PARAMETERS], 0);
+        for (Future<Step> part : parts) {
+            total = total.plus(part.get());
+        }
+        return total;
+    }
+
+    /**
+     * sums the gradient and the Hessian of a range of records
+     * @param reader the training file
+     * @param theta the current parameters
+     * @param from the first record
+     * @param to the record after the last
+     * @return the sums
+     */
+    private static Step sum(final TrainingDataReader reader, final double[] theta, final long from, final long to) {
+        final TrainingData data = new TrainingData(reader.getSize());
+        final double[] x = new double[PARAMETERS];
+        final double[] features = new double[TrainingData.FEATURES];
+        final double[] gradient = new double[PARAMETERS];
+        final double[] hessian = new double[PARAMETERS * PARAMETERS];
+        double logLikelihood = 0;
+
+        x[0] = 1;
+        for (long index = from; index < to; index++) {
+            data.features(reader.getOwn(index), features);
+            System.arraycopy(features, 0, x, 1, TrainingData.FEATURES);
+            final int score = reader.getScore(index);
+            final double y = score > 0 ? 1 : score < 0 ? 0 : 0.5;
+
+            double z = 0;
+            for (int i = 0; i < PARAMETERS; i++) {
+                z += theta[i] * x[i];
+            }
+            final double p = 1 / (1 + Math.exp(-z));
+            final double w = p * (1 - p);
+
+            for (int i = 0; i < PARAMETERS; i++) {
+                gradient[i] += (y - p) * x[i];
+                for (int j = 0; j < PARAMETERS; j++) {
+                    hessian[i * PARAMETERS + j] += w * x[i] * x[j];
+                }
+            }
+            // log(1 + e^z) computed without overflow
+            final double softplus = z > 0 ? z + Math.log1p(Math.exp(-z)) : Math.log1p(Math.exp(z));
+            logLikelihood += y * z - softplus;
+        }
+        return new Step(gradient, hessian, logLikelihood);
+    }
+
+    /**
+     * @param hessian the negated Hessian of the log-likelihood, row major
+     * @param count the number of records
+     * @return the matrix with the ridge added to its diagonal
+     */
+    private static double[] regularized(final double[] hessian, final long count) {
+        final double[] h = hessian.clone();
+        for (int i = 0; i < PARAMETERS; i++) {
+            h[i * PARAMETERS + i] += RIDGE * count;
+        }
+        return h;
+    }
+
+    /**
+     * solves a small linear system by Gaussian elimination with partial pivoting
+     * @param matrix the matrix, row major, overwritten
+     * @param rhs the right hand side
+     * @return the solution
+     */
+    private static double[] solve(final double[] matrix, final double[] rhs) {
+        final int n = rhs.length;
+        final double[] b = rhs.clone();
+
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < n; row++) {
+                if (Math.abs(matrix[row * n + col]) > Math.abs(matrix[pivot * n + col])) {
+                    pivot = row;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                final double tmp = matrix[col * n + k];
+                matrix[col * n + k] = matrix[pivot * n + k];
+                matrix[pivot * n + k] = tmp;
+            }
+            final double tmp = b[col];
+            b[col] = b[pivot];
+            b[pivot] = tmp;
+
+            for (int row = col + 1; row < n; row++) {
+                final double factor = matrix[row * n + col] / matrix[col * n + col];
+                for (int k = col; k < n; k++) {
+                    matrix[row * n + k] -= factor * matrix[col * n + k];
+                }
+                b[row] -= factor * b[col];
+            }
+        }
+
+        final double[] solution = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = b[row];
+            for (int k = row + 1; k < n; k++) {
+                sum -= matrix[row * n + k] * solution[k];
+            }
+            solution[row] = sum / matrix[row * n + row];
+        }
+        return solution;
+    }
+
+    /**
+     * @param theta the fitted parameters, the intercept first
+     * @return the feature weights scaled to integers, the intercept dropped as it doesn't change any comparison
+     */
+    private static EvaluationWeights toWeights(final double[] theta) {
+        double largest = 0;
+        for (int i = 1; i < PARAMETERS; i++) {
+            largest = Math.max(largest, Math.abs(theta[i]));
+        }
+        if (largest == 0 || !Double.isFinite(largest)) {
+            throw new IllegalStateException("the features don't predict the outcomes of the training data");
+        }
+        final double scale = WEIGHT_SCALE / largest;
+        return new EvaluationWeights(
+                (int) Math.round(theta[1] * scale),
+                (int) Math.round(theta[2] * scale),
+                (int) Math.round(theta[3] * scale));
+    }
+}
@@ -0,0 +1,171 @@
+package org.reversi.cli;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The heuristic evaluation of {@link ReversiAgent}, a weighted sum of {@link EvaluationFeature}s.
+ * <p>
+ * Evaluators are immutable and thread safe as long as their features are, so agents may share one.
+ * A feature specification lists the terms by name, e.g. {@code DISKS=5,CORNERS=50,MOBILITY=10},
+ * see {@link StandardFeature} for the names.
+ */
+public final class WeightedEvaluator {
+    /**
+     * A weighted feature.
+     * @param feature the feature
+     * @param weight the weight of the feature
+     */
+    public record Term(EvaluationFeature feature, int weight) {}
+
+    /**
+     * the terms of the sum
+     */
+    private final List<Term> terms;
+
+    /**
+     * @param terms the terms of the sum
+     */
+    public WeightedEvaluator(final List<Term> terms) {
+        this.terms = List.copyOf(terms);
+    }
+
+    /**
+     * @param weights the weights of the disks, corners and full lines
+     * @return the original evaluation of the agent
+     */
+    public static WeightedEvaluator of(final EvaluationWeights weights) {
+        return new WeightedEvaluator(List.of(
+                new Term(StandardFeature.CORNERS, weights.corner()),
+                new Term(StandardFeature.DISKS, weights.disk()),
+                new Term(StandardFeature.FULL_LINES, weights.fullLine())));
+    }
+
+    /**
+     * parses a feature specification, e.g. {@code DISKS=5,CORNERS=50,MOBILITY=10}
+     * @param specification the comma separated terms, each a standard feature name and its weight
+     * @return the evaluator
+     * @throws IllegalArgumentException if a term is not a standard feature and an integer weight
+     */
+    public static WeightedEvaluator parse(final String specification) {
+        final List<Term> terms = new ArrayList<>();
+        for (String term : specification.split(",")) {
+            final String[] parts = term.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("expected FEATURE=weight, got " + term);
+            }
+            final StandardFeature feature =
+                    StandardFeature.valueOf(parts[0].strip().toUpperCase(Locale.ROOT));
+            terms.add(new Term(feature, Integer.parseInt(parts[1].strip())));
+        }
+        return new WeightedEvaluator(terms);
+    }
+
+    /**
+     * @param feature a feature
+     * @param weight the weight of the feature
+     * @return an evaluator with the feature added, or its weight replaced if it's already a term
+     */
+    public WeightedEvaluator with(final EvaluationFeature feature, final int weight) {
+        final List<Term> next = new ArrayList<>();
+        boolean replaced = false;
+        for (Term term : this.terms) {
+            if (term.feature().equals(feature)) {
+                next.add(new Term(feature, weight));
+                replaced = true;
+            } else {
+                next.add(term);
+            }
+        }
+        if (!replaced) {
+            next.add(new Term(feature, weight));
+        }
+        return new WeightedEvaluator(next);
+    }
+
+    /**
+     * @return an evaluator with the same terms, each feature timed by a {@link ProfiledFeature}
+     */
+    public WeightedEvaluator profiled() {
+        final List<Term> next = new ArrayList<>();
+        for (Term term : this.terms) {
+            final EvaluationFeature feature = term.feature() instanceof ProfiledFeature
+                    ? term.feature() : new ProfiledFeature(term.feature());
+            next.add(new Term(feature, term.weight()));
+        }
+        return new WeightedEvaluator(next);
+    }
+
+    /**
+     * evaluates a position, the features with a zero weight skipped
+     * @param state the position, left untouched
+     * @param player the player whose view is taken
+     * @return the weighted sum of the features, higher is better for the player
+     */
+    public int evaluate(final ReversiModel state, final int player) {
+        int score = 0;
+        for (Term term : this.terms) {
+            if (term.weight() != 0) {
+                score += term.weight() * term.feature().evaluate(state, player);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @return the weights of this evaluator if it only uses the features of {@link BatchEvaluator},
+     *         which then evaluates exactly as this evaluator, empty otherwise
+     */
+    public Optional<EvaluationWeights> toWeights() {
+        int disk = 0;
+        int corner = 0;
+        int fullLine = 0;
+        for (Term term : this.terms) {
+            if (term.feature() == StandardFeature.DISKS) {
+                disk += term.weight();
+            } else if (term.feature() == StandardFeature.CORNERS) {
+                corner += term.weight();
+            } else if (term.feature() == StandardFeature.FULL_LINES) {
+                fullLine += term.weight();
+            } else if (term.weight() != 0) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new EvaluationWeights(disk, corner, fullLine));
+    }
+
+    /**
+     * @return the profiles of the profiled features, in the order of the terms
+     * @see #profiled()
+     */
+    public List<ProfiledFeature.Profile> getProfiles() {
+        final List<ProfiledFeature.Profile> profiles = new ArrayList<>();
+        for (Term term : this.terms) {
+            if (term.feature() instanceof ProfiledFeature profiled) {
+                profiles.add(profiled.getProfile());
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * @return the terms of the sum
+     */
+    public List<Term> getTerms() {
+        return this.terms;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (Term term : this.terms) {
+            if (!builder.isEmpty()) {
+                builder.append(',');
+            }
+            builder.append(term.feature().name()).append('=').append(term.weight());
+        }
+        return builder.toString();
+    }
+}
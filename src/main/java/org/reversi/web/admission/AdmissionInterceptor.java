@@ -0,0 +1,116 @@
+package org.reversi.web.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.controller.dto.ErrorMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+
+/**
+ * Admits the HTTP game requests before any controller runs, answering {@code 429 Too Many Requests} otherwise.
+ * <p>
+ * Every client IP is rate limited, creating games more strictly than the rest. While the server is overloaded,
+ * see {@link LoadShedder}, new work is shed: only the moves and the resyncs of the games in progress are admitted.
+ * Rejections cost a bucket lookup and a small fixed response.
+ */
+@Component
+@Slf4j
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String GAME_PATH = "/game/";
+
+    private final ClientRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final ObjectMapper objectMapper;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    /**
+     * Instantiates a new Admission interceptor.
+     *
+     * @param rateLimiter   the client rate limiter
+     * @param loadShedder   the load shedder
+     * @param objectMapper  the object mapper
+     * @param meterRegistry the meter registry
+     */
+    public AdmissionInterceptor(ClientRateLimiter rateLimiter, LoadShedder loadShedder,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.objectMapper = objectMapper;
+        this.rateLimited = rejections(meterRegistry, "rate-limit");
+        this.shed = rejections(meterRegistry, "overload");
+    }
+
+    /**
+     * @param meterRegistry the meter registry
+     * @param reason        the reason of the rejections
+     * @return the counter of the rejections
+     */
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("reversi.requests.rejected")
+                .description("Requests answered with 429 Too Many Requests")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        final String path = request.getRequestURI().substring(request.getContextPath().length());
+        final String client = request.getRemoteAddr();
+        final ClientRateLimiter.Limit limit = path.startsWith(GAME_PATH + "start")
+                ? ClientRateLimiter.Limit.CREATE : ClientRateLimiter.Limit.REQUEST;
+
+        if (!rateLimiter.tryAcquire(limit, client)) {
+            rateLimited.increment();
+            reject(response, rateLimiter.retryAfterSeconds(limit, client), "Too many requests, slow down");
+            return false;
+        }
+        if (!isInProgressPlay(request, path) && loadShedder.isOverloaded()) {
+            shed.increment();
+            reject(response, 1, "The server is busy, try again");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param request the request
+     * @param path    the path of the request
+     * @return true iff the request is a move or the resync of a game, never shed
+     */
+    private static boolean isInProgressPlay(HttpServletRequest request, String path) {
+        if (path.equals(GAME_PATH + "move")) {
+            return true;
+        }
+        // GET /game/{gameId}
+        return HttpMethod.GET.matches(request.getMethod())
+                && path.startsWith(GAME_PATH) && path.indexOf('/', GAME_PATH.length()) < 0;
+    }
+
+    /**
+     * Answers 429 without reaching any controller.
+     *
+     * @param response          the response
+     * @param retryAfterSeconds the seconds until the client may retry
+     * @param message           the error message
+     * @throws IOException if writing the response fails
+     */
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(new ErrorMessage(message)));
+    }
+}
@@ -0,0 +1,108 @@
+package org.reversi.web.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token bucket rate limits per client, a client being a login, an IP address or a STOMP session.
+ * <p>
+ * Creating games has its own, much lower limit than the other requests. Idle buckets are evicted,
+ * so the clients that were once seen don't accumulate.
+ */
+@Component
+public class ClientRateLimiter {
+    /**
+     * The kind of request a bucket limits.
+     */
+    public enum Limit {
+        /**
+         * creating a game
+         */
+        CREATE,
+        /**
+         * any other request
+         */
+        REQUEST
+    }
+
+    /**
+     * false to admit every request, e.g. for load tests whose clients all share one address
+     */
+    private final boolean enabled;
+
+    private final Cache<String, TokenBucket> buckets;
+    private final double createCapacity;
+    private final double createPerSecond;
+    private final double requestCapacity;
+    private final double requestPerSecond;
+
+    /**
+     * Instantiates a new Client rate limiter.
+     *
+     * @param createCapacity   the burst of games a client may create
+     * @param createPerSecond  the games a client may create per second
+     * @param requestCapacity  the burst of other requests of a client
+     * @param requestPerSecond the other requests of a client per second
+     * @param maxClients       the number of clients tracked at once
+     * @param enabled          false to admit every request
+     * @param meterRegistry    the meter registry
+     */
+    public ClientRateLimiter(@Value("${ratelimit.create.capacity}") double createCapacity,
+                             @Value("${ratelimit.create.per-second}") double createPerSecond,
+                             @Value("${ratelimit.request.capacity}") double requestCapacity,
+                             @Value("${ratelimit.request.per-second}") double requestPerSecond,
+                             @Value("${ratelimit.max-clients}") long maxClients,
+                             @Value("${ratelimit.enabled:true}") boolean enabled,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.createCapacity = createCapacity;
+        this.createPerSecond = createPerSecond;
+        this.requestCapacity = requestCapacity;
+        this.requestPerSecond = requestPerSecond;
+        // a bucket idle for this long has refilled anyway
+        final Duration idle = Duration.ofSeconds((long) Math.ceil(Math.max(
+                createCapacity / createPerSecond, requestCapacity / requestPerSecond)) + 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idle)
+                .build();
+        meterRegistry.gaugeMapSize("reversi.ratelimit.clients", Tags.empty(), buckets.asMap());
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @param limit  the kind of request
+     * @param client the client
+     * @return true iff the request is within the client's limit
+     */
+    public boolean tryAcquire(Limit limit, String client) {
+        return !enabled || bucket(limit, client).tryAcquire(System.nanoTime());
+    }
+
+    /**
+     * @param limit  the kind of request
+     * @param client the client
+     * @return the seconds until the client may retry, for the Retry-After header
+     */
+    public long retryAfterSeconds(Limit limit, String client) {
+        return bucket(limit, client).secondsUntilToken();
+    }
+
+    /**
+     * @param limit  the kind of request
+     * @param client the client
+     * @return the bucket of the client, created full on first use
+     */
+    private TokenBucket bucket(Limit limit, String client) {
+        return buckets.get(limit.name() + ":" + client, key -> limit == Limit.CREATE
+                ? new TokenBucket(createCapacity, createPerSecond, System.nanoTime())
+                : new TokenBucket(requestCapacity, requestPerSecond, System.nanoTime()));
+    }
+}
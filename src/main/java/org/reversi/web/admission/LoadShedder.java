@@ -0,0 +1,87 @@
+package org.reversi.web.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Global admission control on the latency SLO of the moves.
+ * <p>
+ * The move latencies are counted in fixed windows. While more moves of the last window missed the SLO
+ * than the SLO percentile allows, the server is overloaded and new work is shed,
+ * keeping the threads for the moves of the games in progress.
+ */
+@Component
+public class LoadShedder {
+    /**
+     * fewer moves in a window don't tell an overload
+     */
+    private static final long MIN_SAMPLES = 20;
+
+    private final long sloNanos;
+    private final double allowedSlowFraction;
+    private final long windowNanos;
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder slowMoves = new LongAdder();
+
+    /**
+     * true iff the last window breached the SLO
+     */
+    private volatile boolean overloaded;
+
+    /**
+     * Instantiates a new Load shedder.
+     *
+     * @param sloMs        the move latency SLO in ms
+     * @param percentile   the percentile of the moves that must meet the SLO
+     * @param windowMs     the length of a window in ms
+     */
+    public LoadShedder(@Value("${admission.move-latency-slo-ms}") long sloMs,
+                       @Value("${admission.slo-percentile}") double percentile,
+                       @Value("${admission.window-ms}") long windowMs) {
+        this.sloNanos = TimeUnit.MILLISECONDS.toNanos(sloMs);
+        this.allowedSlowFraction = 1 - percentile / 100;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+    }
+
+    /**
+     * Records the latency of a move.
+     *
+     * @param nanos the latency
+     */
+    public void recordMove(long nanos) {
+        rotate(System.nanoTime());
+        moves.increment();
+        if (nanos > sloNanos) {
+            slowMoves.increment();
+        }
+    }
+
+    /**
+     * @return true iff new work should be shed
+     */
+    public boolean isOverloaded() {
+        rotate(System.nanoTime());
+        return overloaded;
+    }
+
+    /**
+     * Closes the current window once it's over, a window without moves ends the overload.
+     *
+     * @param now the current {@link System#nanoTime()}
+     */
+    private void rotate(long now) {
+        final long start = windowStart.get();
+        if (now - start < windowNanos || !windowStart.compareAndSet(start, now)) {
+            return;
+        }
+        final long total = moves.sumThenReset();
+        final long slow = slowMoves.sumThenReset();
+        overloaded = total >= MIN_SAMPLES && slow > allowedSlowFraction * total;
+    }
+}
@@ -0,0 +1,40 @@
+package org.reversi.web.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+/**
+ * Rate limits the messages STOMP sessions send to {@code /app/...}, dropping those beyond the session's limit.
+ */
+@Slf4j
+public class RateLimitChannelInterceptor implements ChannelInterceptor {
+    private final ClientRateLimiter rateLimiter;
+
+    /**
+     * Instantiates a new Rate limit channel interceptor.
+     *
+     * @param rateLimiter the client rate limiter
+     */
+    public RateLimitChannelInterceptor(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            // connects, subscriptions and heartbeats aren't limited
+            return message;
+        }
+        final String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null && !rateLimiter.tryAcquire(ClientRateLimiter.Limit.REQUEST, "session:" + sessionId)) {
+            log.debug("Dropping message of rate limited session {}", sessionId);
+            return null;
+        }
+        return message;
+    }
+}
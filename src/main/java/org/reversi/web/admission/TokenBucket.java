@@ -0,0 +1,52 @@
+package org.reversi.web.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket: bursts of up to {@code capacity} requests, refilled at a steady rate.
+ */
+final class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Instantiates a full bucket.
+     *
+     * @param capacity        the largest burst
+     * @param tokensPerSecond the refill rate
+     * @param now             the current {@link System#nanoTime()}
+     */
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes a token if one is left.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true iff a token was taken
+     */
+    synchronized boolean tryAcquire(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * @return the seconds until the next token, rounded up
+     */
+    synchronized long secondsUntilToken() {
+        final double nanos = Math.max(0, 1 - tokens) / tokensPerNano;
+        return Math.max(1, (long) Math.ceil(nanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+}
@@ -0,0 +1,318 @@
+package org.reversi.web.clock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel: timeouts to the nearest tick, for many timers that are mostly cancelled before they expire.
+ * <p>
+ * The wheel is a ring of buckets, one per tick, and a timeout goes in the bucket of its deadline modulo the ring,
+ * with the number of turns left before it's due. Scheduling and cancelling are O(1) and never take a lock:
+ * they're queued, and a single ticker thread moves them in and out of the buckets, which only it touches.
+ * Nothing is allocated per tick, and a timeout costs one small object, linked into its bucket.
+ * The tasks run on the ticker thread, so they must be short, and a task that is late delays the next ones.
+ */
+@Slf4j
+public final class TimingWheel implements AutoCloseable {
+    /**
+     * the timeouts moved into the buckets per tick at most, so that a burst of them can't stall the expirations
+     */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    private final long startTime;
+    private final Thread ticker;
+
+    /**
+     * timeouts scheduled, not in a bucket yet
+     */
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * timeouts cancelled, maybe still in a bucket
+     */
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * timeouts neither expired nor cancelled
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    /**
+     * the ticks elapsed since the start, written by the ticker only
+     */
+    private long tick;
+
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a wheel and starts its ticker thread.
+     *
+     * @param tick       the resolution, timeouts expire up to one tick late
+     * @param wheelSize  the number of buckets, rounded up to a power of two,
+     *                   timeouts further than a turn of the wheel wait for more turns
+     * @param threadName the name of the ticker thread
+     */
+    public TimingWheel(Duration tick, int wheelSize, String threadName) {
+        if (tick.toNanos() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tick and wheel size must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        final int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.buckets[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.ticker = Thread.ofPlatform().name(threadName).daemon().start(this::run);
+    }
+
+    /**
+     * Schedules a task.
+     *
+     * @param task  the task, run on the ticker thread
+     * @param delay the delay, rounded up to the next tick
+     * @param unit  the unit of the delay
+     * @return the timeout, to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (closed) {
+            throw new IllegalStateException("the timing wheel is closed");
+        }
+        final long deadline = System.nanoTime() - startTime + Math.max(0, unit.toNanos(delay));
+        final Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * @return the number of timeouts neither expired nor cancelled
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the ticker, the pending tasks never run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ticker.interrupt();
+    }
+
+    /**
+     * the ticker loop: waits for the end of each tick, then expires its bucket
+     */
+    private void run() {
+        while (!closed) {
+            final long deadline = (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = startTime + deadline - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (closed) {
+                return;
+            }
+            unlinkCancelled();
+            transferScheduled();
+            buckets[(int) (tick & mask)].expire(deadline);
+            tick++;
+        }
+    }
+
+    /**
+     * removes the cancelled timeouts from their buckets
+     */
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * moves the scheduled timeouts into their buckets
+     */
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            final Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state == Timeout.CANCELLED) {
+                continue;
+            }
+            // a deadline already past goes in the current bucket, expired at the end of this tick
+            final long due = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.rounds = (due - tick) / buckets.length;
+            buckets[(int) (due & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A scheduled task, cancelled with {@link Timeout#cancel()}.
+     */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final TimingWheel wheel;
+        private final Runnable task;
+
+        /**
+         * the deadline in ns since the start of the wheel
+         */
+        private final long deadline;
+
+        private volatile int state;
+
+        /**
+         * the turns of the wheel left before the timeout is due, and its links, owned by the ticker
+         */
+        private long rounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        /**
+         * @param wheel    the wheel
+         * @param task     the task
+         * @param deadline the deadline in ns since the start of the wheel
+         */
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task, unless it already ran or started running.
+         *
+         * @return true iff this call cancelled the task
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, WAITING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * @return true iff the task was cancelled
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * @return true iff the task ran or started running
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * runs the task unless it was cancelled
+         */
+        private void expire() {
+            if (!STATE.compareAndSet(this, WAITING, EXPIRED)) {
+                return;
+            }
+            wheel.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Timeout task failed", e);
+            }
+        }
+    }
+
+    /**
+     * The timeouts of a slot of the wheel, as a doubly linked list through the timeouts themselves.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        /**
+         * @param timeout a timeout in no bucket
+         */
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * @param timeout a timeout of this bucket
+         */
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            } else {
+                tail = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * runs the timeouts due on this turn of the wheel, and counts down the turns of the others
+         *
+         * @param deadline the end of the current tick, in ns since the start of the wheel
+         */
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                if (timeout.state == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else if (timeout.rounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
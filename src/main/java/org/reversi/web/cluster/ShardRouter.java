@@ -0,0 +1,87 @@
+package org.reversi.web.cluster;
+
+import org.reversi.web.exceptions.GameNotOwnedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shards the games by gameId over the instances listed in {@code reversi.cluster.instances}.
+ * <p>
+ * The owner of a game is derived from its id alone, so any instance routes a request without asking the others.
+ * New games get an id owned by the instance creating them. Only the owner plays a game, keeping its state in memory
+ * and its lock local. Without instances listed, the single instance owns every game.
+ */
+@Component
+public class ShardRouter {
+    /**
+     * the base urls of all instances, in the same order on every instance
+     */
+    private final List<String> instances;
+
+    /**
+     * the index of this instance in {@link ShardRouter#instances}
+     */
+    private final int self;
+
+    /**
+     * Instantiates a new Shard router.
+     *
+     * @param instances the base urls of all instances, empty for a single instance
+     * @param self      the index of this instance
+     */
+    public ShardRouter(@Value("${reversi.cluster.instances:}") List<String> instances,
+                       @Value("${reversi.cluster.self:0}") int self) {
+        if (!instances.isEmpty() && (self < 0 || self >= instances.size())) {
+            throw new IllegalArgumentException("reversi.cluster.self must index reversi.cluster.instances");
+        }
+        this.instances = instances.stream()
+                .map(String::trim)
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+        this.self = self;
+    }
+
+    /**
+     * @param gameId the game id
+     * @return true iff this instance owns the game
+     */
+    public boolean owns(String gameId) {
+        return instances.isEmpty() || ownerOf(gameId) == self;
+    }
+
+    /**
+     * Checks that this instance owns the game.
+     *
+     * @param gameId the game id
+     * @throws GameNotOwnedException if another instance owns the game
+     */
+    public void requireOwner(String gameId) throws GameNotOwnedException {
+        if (!owns(gameId)) {
+            throw new GameNotOwnedException(instances.get(ownerOf(gameId)));
+        }
+    }
+
+    /**
+     * Generates the id of a new game owned by this instance, taking as many tries as there are instances on average.
+     *
+     * @return the game id
+     */
+    public String newGameId() {
+        String gameId;
+        do {
+            gameId = UUID.randomUUID().toString();
+        } while (!owns(gameId));
+        return gameId;
+    }
+
+    /**
+     * @param gameId the game id
+     * @return the index of the owning instance, the string hash being the same on every JVM
+     */
+    private int ownerOf(String gameId) {
+        return Math.floorMod(gameId.hashCode(), instances.size());
+    }
+}
@@ -0,0 +1,29 @@
+package org.reversi.web.config;
+
+import org.reversi.web.admission.AdmissionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the admission control in front of the game and position endpoints.
+ * The page, static resources and actuator are always served.
+ */
+@Configuration
+public class AdmissionConfiguration implements WebMvcConfigurer {
+    private final AdmissionInterceptor admissionInterceptor;
+
+    /**
+     * Instantiates a new Admission configuration.
+     *
+     * @param admissionInterceptor the admission interceptor
+     */
+    public AdmissionConfiguration(AdmissionInterceptor admissionInterceptor) {
+        this.admissionInterceptor = admissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor).addPathPatterns("/game/**", "/positions/**");
+    }
+}
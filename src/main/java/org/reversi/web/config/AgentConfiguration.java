@@ -0,0 +1,103 @@
+package org.reversi.web.config;
+
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PerfectPlayTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The computer opponent configuration.
+ * <p>
+ * Agent searches are CPU bound, so they run on their own bounded pool instead of the request threads.
+ */
+@Configuration
+public class AgentConfiguration {
+    /**
+     * The evaluation weights of every search, those fitted by the weight tuner or the built-in ones.
+     *
+     * @param weightsFile the weights file, empty for the built-in weights
+     * @return the weights
+     * @throws IOException if the weights file can't be read
+     */
+    @Bean
+    public EvaluationWeights evaluationWeights(@Value("${agent.weights:}") String weightsFile) throws IOException {
+        return weightsFile.isBlank() ? EvaluationWeights.DEFAULT : EvaluationWeights.load(Path.of(weightsFile));
+    }
+
+    /**
+     * The table of perfect play on its board size, written by {@code --solve-table}, only if a table file is set.
+     *
+     * @param tableFile the table file
+     * @return the table
+     * @throws IOException if the table file can't be read
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression("!'${agent.perfect-play-table:}'.isBlank()")
+    public PerfectPlayTable perfectPlayTable(@Value("${agent.perfect-play-table}") String tableFile)
+            throws IOException {
+        return new PerfectPlayTable(Path.of(tableFile));
+    }
+
+    /**
+     * The executor running the computer opponent's searches.
+     *
+     * @param poolSize      the number of search threads
+     * @param queueCapacity the number of searches waiting for a thread
+     * @return the executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor agentExecutor(@Value("${agent.pool.size}") int poolSize,
+                                                @Value("${agent.queue.capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("agent-");
+        return executor;
+    }
+
+    /**
+     * The executor running the position analyses, apart from the computer opponent's searches.
+     *
+     * @param poolSize      the number of analysis threads
+     * @param queueCapacity the number of analyses waiting for a thread
+     * @return the executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analysisExecutor(@Value("${analysis.pool.size}") int poolSize,
+                                                   @Value("${analysis.queue.capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("analysis-");
+        return executor;
+    }
+
+    /**
+     * The executor running the searches of the batch evaluations.
+     * Its queue fits the positions in flight of all jobs, so the jobs never see a rejection.
+     *
+     * @param poolSize the number of batch threads
+     * @param maxJobs  the number of concurrently running jobs
+     * @param window   the number of positions in flight per job
+     * @return the executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchExecutor(@Value("${batch.pool.size}") int poolSize,
+                                                @Value("${batch.max-jobs}") int maxJobs,
+                                                @Value("${batch.window}") int window) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(maxJobs * window);
+        executor.setThreadNamePrefix("batch-");
+        return executor;
+    }
+}
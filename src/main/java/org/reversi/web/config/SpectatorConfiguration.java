@@ -0,0 +1,24 @@
+package org.reversi.web.config;
+
+import lombok.AllArgsConstructor;
+import org.reversi.web.services.SpectatorHub;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * The spectator WebSocket configuration.
+ * Spectators use a plain WebSocket instead of STOMP, so that every update is one pre-encoded frame for all of them.
+ */
+@Configuration
+@EnableWebSocket
+@AllArgsConstructor
+public class SpectatorConfiguration implements WebSocketConfigurer {
+    private final SpectatorHub spectatorHub;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(spectatorHub, "/spectate");
+    }
+}
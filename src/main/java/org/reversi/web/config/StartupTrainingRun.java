@@ -0,0 +1,65 @@
+package org.reversi.web.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/**
+ * The training run of the class data sharing archive, enabled by {@code reversi.startup.exit=true}.
+ * <p>
+ * Once started, the application serves a few requests to itself, so that the classes of the request path are
+ * loaded as well, and exits. Run with {@code -XX:ArchiveClassesAtExit}, the JVM then archives every class loaded,
+ * see the {@code fast-startup} maven profile.
+ */
+@Slf4j
+@Lazy(false)
+@Component
+@ConditionalOnProperty(name = "reversi.startup.exit", havingValue = "true")
+public class StartupTrainingRun {
+    /**
+     * the paths requested before exiting
+     */
+    private static final List<String> WARMUP_PATHS = List.of("/", "/actuator/health");
+
+    /**
+     * Warms the request path up and exits.
+     *
+     * @param event the application ready event
+     */
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        final ConfigurableApplicationContext context = event.getApplicationContext();
+        if (context instanceof WebServerApplicationContext webContext) {
+            final int port = webContext.getWebServer().getPort();
+            final HttpClient client = HttpClient.newHttpClient();
+            for (String path : WARMUP_PATHS) {
+                try {
+                    final HttpResponse<Void> response = client.send(
+                            HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    log.info("Startup training run: GET {} returned {}", path, response.statusCode());
+                } catch (IOException e) {
+                    log.warn("Startup training run: GET {} failed: {}", path, e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.info("Startup training run done, exiting");
+        System.exit(SpringApplication.exit(context));
+    }
+}
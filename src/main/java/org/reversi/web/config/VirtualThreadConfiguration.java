@@ -0,0 +1,29 @@
+package org.reversi.web.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+
+/**
+ * The opt-in virtual thread mode, enabled by {@code reversi.threads.virtual=true}.
+ * <p>
+ * Every servlet request runs on its own virtual thread instead of Tomcat's platform thread pool.
+ * The STOMP channels are switched over in {@link WebsocketConfiguration}.
+ * The agent pool stays on platform threads, as its searches are CPU bound and must stay bounded.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reversi.threads.virtual", havingValue = "true")
+public class VirtualThreadConfiguration {
+    /**
+     * Runs the Tomcat request handling on virtual threads.
+     *
+     * @return the tomcat protocol handler customizer
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
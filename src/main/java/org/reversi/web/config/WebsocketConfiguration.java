@@ -1,17 +1,135 @@
 package org.reversi.web.config;
 
+import org.reversi.web.admission.ClientRateLimiter;
+import org.reversi.web.admission.RateLimitChannelInterceptor;
+import org.reversi.web.session.SessionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 /**
  * The type Websocket configuration.
+ * <p>
+ * By default, the topics are served by the in-process simple broker. Several instances instead relay them
+ * to an external STOMP broker, e.g. RabbitMQ or ActiveMQ, so that every subscriber gets the updates of every game,
+ * whichever instance plays it and whichever instance the subscriber is connected to.
+ * <p>
+ * The sessions are sized for many mostly idle connections: the simple broker exchanges heartbeats with the clients,
+ * the {@link SessionRegistry} closes the silent ones, and each session's buffers are bounded.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer {
+    /**
+     * true iff the STOMP channels run on virtual threads
+     * @see VirtualThreadConfiguration
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * the number of virtual threads per STOMP channel
+     */
+    private final int virtualChannelThreads;
+
+    /**
+     * true iff the topics are relayed to an external STOMP broker
+     */
+    private final boolean brokerRelay;
+
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+
+    /**
+     * limits the messages of each STOMP session
+     */
+    private final ClientRateLimiter rateLimiter;
+
+    /**
+     * tracks the STOMP sessions and closes the silent ones
+     */
+    private final SessionRegistry sessionRegistry;
+
+    private final long heartbeatMs;
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    private final int timeToFirstMessageMs;
+    private final int containerBufferSize;
+
+    /**
+     * Instantiates a new Websocket configuration.
+     *
+     * @param virtualThreads        true iff the STOMP channels run on virtual threads
+     * @param virtualChannelThreads the number of virtual threads per STOMP channel
+     * @param brokerRelay           true iff the topics are relayed to an external STOMP broker
+     * @param relayHost             the host of the external broker
+     * @param relayPort             the STOMP port of the external broker
+     * @param relayLogin            the login on the external broker
+     * @param relayPasscode         the passcode on the external broker
+     * @param rateLimiter           the client rate limiter
+     * @param sessionRegistry       the STOMP session registry
+     * @param heartbeatMs           the interval of the heartbeats the broker sends and expects, 0 for none
+     * @param sendTimeLimitMs       the time a single send to a session may take before the session is closed
+     * @param sendBufferSizeLimit   the bytes buffered per session before it's closed
+     * @param messageSizeLimit      the largest STOMP message received
+     * @param timeToFirstMessageMs  the time a new connection has to send its first message
+     * @param containerBufferSize   the WebSocket read buffer of each connection, the largest frame received
+     */
+    public WebsocketConfiguration(@Value("${reversi.threads.virtual:false}") boolean virtualThreads,
+                                  @Value("${reversi.threads.virtual.channel-threads:1024}") int virtualChannelThreads,
+                                  @Value("${reversi.broker.relay.enabled:false}") boolean brokerRelay,
+                                  @Value("${reversi.broker.relay.host:localhost}") String relayHost,
+                                  @Value("${reversi.broker.relay.port:61613}") int relayPort,
+                                  @Value("${reversi.broker.relay.login:guest}") String relayLogin,
+                                  @Value("${reversi.broker.relay.passcode:guest}") String relayPasscode,
+                                  ClientRateLimiter rateLimiter,
+                                  SessionRegistry sessionRegistry,
+                                  @Value("${stomp.heartbeat-ms}") long heartbeatMs,
+                                  @Value("${stomp.send-time-limit-ms}") int sendTimeLimitMs,
+                                  @Value("${stomp.send-buffer-size-limit}") int sendBufferSizeLimit,
+                                  @Value("${stomp.message-size-limit}") int messageSizeLimit,
+                                  @Value("${stomp.time-to-first-message-ms}") int timeToFirstMessageMs,
+                                  @Value("${stomp.container-buffer-size}") int containerBufferSize) {
+        this.virtualThreads = virtualThreads;
+        this.virtualChannelThreads = virtualChannelThreads;
+        this.brokerRelay = brokerRelay;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.rateLimiter = rateLimiter;
+        this.sessionRegistry = sessionRegistry;
+        this.heartbeatMs = heartbeatMs;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.timeToFirstMessageMs = timeToFirstMessageMs;
+        this.containerBufferSize = containerBufferSize;
+    }
+
+    /**
+     * Sizes the read buffers of the WebSocket container, allocated for every connection.
+     *
+     * @return the container configuration
+     */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(containerBufferSize);
+        container.setMaxBinaryMessageBufferSize(containerBufferSize);
+        return container;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/move").withSockJS();
@@ -20,6 +138,60 @@ public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.setApplicationDestinationPrefixes("/app").enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+        if (!brokerRelay) {
+            registry.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[] {heartbeatMs, heartbeatMs})
+                    .setTaskScheduler(sessionRegistry.getScheduler());
+            return;
+        }
+        // the external broker exchanges the heartbeats with the clients
+        registry.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode)
+                // resolves the /user destinations of sessions connected to other instances
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionRegistry, new RateLimitChannelInterceptor(rateLimiter));
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadExecutor("stomp-inbound-")).corePoolSize(virtualChannelThreads);
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .setTimeToFirstMessage(timeToFirstMessageMs)
+                .addDecoratorFactory(sessionRegistry);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.taskExecutor(virtualThreadExecutor("stomp-outbound-")).corePoolSize(virtualChannelThreads);
+        }
+    }
+
+    /**
+     * Creates a channel executor backed by virtual threads.
+     * The channels only accept a {@link ThreadPoolTaskExecutor}, so the pool is kept and its threads made virtual.
+     *
+     * @param namePrefix the thread name prefix
+     * @return the executor
+     */
+    private static ThreadPoolTaskExecutor virtualThreadExecutor(String namePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name(namePrefix, 0).factory());
+        return executor;
     }
 }
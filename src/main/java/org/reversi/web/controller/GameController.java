@@ -2,15 +2,21 @@ package org.reversi.web.controller;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.controller.dto.ComputerGameRequest;
 import org.reversi.web.controller.dto.ConnectRequest;
 import org.reversi.web.exceptions.InvalidGameException;
 import org.reversi.web.exceptions.InvalidParamException;
+import org.reversi.web.exceptions.RateLimitedException;
 import org.reversi.web.controller.dto.Client;
-import org.reversi.web.model.ReversiGame;
+import org.reversi.web.model.AnalysisView;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameUpdate;
+import org.reversi.web.model.HistoryView;
+import org.reversi.web.model.PositionView;
 import org.reversi.web.controller.dto.Move;
+import org.reversi.web.services.AnalysisService;
 import org.reversi.web.services.GameService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -22,18 +28,35 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/game")
 public class GameController {
     private final GameService gameService;
-    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final AnalysisService analysisService;
 
     /**
      * Start response entity.
      *
      * @param client the client
      * @return the response entity
+     * @throws RateLimitedException if the client creates games too fast
      */
     @PostMapping("/start")
-    public ResponseEntity<ReversiGame> start(@RequestBody Client client) {
+    public ResponseEntity<GameSnapshot> start(@RequestBody Client client) throws RateLimitedException {
         log.info("Start game request: {}", client);
-        ReversiGame newGame = gameService.createGame(client);
+        GameSnapshot newGame = gameService.createGame(client);
+        return ResponseEntity.ok(newGame);
+    }
+
+    /**
+     * Start a game against the computer.
+     *
+     * @param request the computer game request
+     * @return the response entity
+     * @throws InvalidParamException the invalid param exception
+     * @throws RateLimitedException  if the client creates games too fast
+     */
+    @PostMapping("/start/computer")
+    public ResponseEntity<GameSnapshot> startComputer(@RequestBody ComputerGameRequest request)
+            throws InvalidParamException, RateLimitedException {
+        log.info("Start computer game request: {}", request);
+        GameSnapshot newGame = gameService.createComputerGame(request.client(), request.difficulty());
         return ResponseEntity.ok(newGame);
     }
 
@@ -46,13 +69,9 @@ public class GameController {
      * @throws InvalidGameException  the invalid game exception
      */
     @PostMapping("/connect")
-    public ResponseEntity<ReversiGame> connect(@RequestBody ConnectRequest connectRequest) throws InvalidParamException, InvalidGameException {
+    public ResponseEntity<GameSnapshot> connect(@RequestBody ConnectRequest connectRequest) throws InvalidParamException, InvalidGameException {
         log.info("Connect request: {}", connectRequest);
-        ReversiGame connectedGame = gameService.connectToGame(connectRequest.client(), connectRequest.gameId());
-
-        String payloadDestination = "/topic/game-progress/" + connectedGame.getGameId();
-        simpMessagingTemplate.convertAndSend(payloadDestination, connectedGame);
-
+        GameSnapshot connectedGame = gameService.connectToGame(connectRequest.client(), connectRequest.gameId());
         return ResponseEntity.ok(connectedGame);
     }
 
@@ -64,14 +83,68 @@ public class GameController {
      * @throws InvalidGameException the invalid game exception
      */
     @PostMapping("/connect/random")
-    public ResponseEntity<ReversiGame> connectRandom(@RequestBody Client client) throws InvalidGameException {
+    public ResponseEntity<GameSnapshot> connectRandom(@RequestBody Client client) throws InvalidGameException {
         log.info("random connect request {}", client);
-        ReversiGame connectedGame = gameService.connectToRandomGame(client);
+        GameSnapshot connectedGame = gameService.connectToRandomGame(client);
+        return ResponseEntity.ok(connectedGame);
+    }
 
-        String payloadDestination = "/topic/game-progress/" + connectedGame.getGameId();
-        simpMessagingTemplate.convertAndSend(payloadDestination, connectedGame);
+    /**
+     * Full game snapshot, fetched by clients that missed a delta update.
+     *
+     * @param gameId the game id
+     * @return the response entity
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    @GetMapping("/{gameId}")
+    public ResponseEntity<GameSnapshot> snapshot(@PathVariable String gameId) throws InvalidParamException, InvalidGameException {
+        log.info("snapshot request: {}", gameId);
+        return ResponseEntity.ok(gameService.getGame(gameId));
+    }
 
-        return ResponseEntity.ok(connectedGame);
+    /**
+     * The recorded moves of a game.
+     *
+     * @param gameId the game id
+     * @return the response entity
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    @GetMapping("/{gameId}/history")
+    public ResponseEntity<HistoryView> history(@PathVariable String gameId) throws InvalidParamException, InvalidGameException {
+        log.info("history request: {}", gameId);
+        return ResponseEntity.ok(gameService.getHistory(gameId));
+    }
+
+    /**
+     * The position of a game after the given number of plies.
+     *
+     * @param gameId the game id
+     * @param ply    the number of plies
+     * @return the response entity
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    @GetMapping("/{gameId}/position")
+    public ResponseEntity<PositionView> position(@PathVariable String gameId, @RequestParam int ply)
+            throws InvalidParamException, InvalidGameException {
+        log.info("position request: {} at ply {}", gameId, ply);
+        return ResponseEntity.ok(gameService.getPosition(gameId, ply));
+    }
+
+    /**
+     * The scores of all possible moves in the current position of a game.
+     *
+     * @param gameId the game id
+     * @return the response entity
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    @GetMapping("/{gameId}/analysis")
+    public ResponseEntity<AnalysisView> analysis(@PathVariable String gameId) throws InvalidParamException, InvalidGameException {
+        log.info("analysis request: {}", gameId);
+        return ResponseEntity.ok(analysisService.analyze(gameId));
     }
 
     /**
@@ -82,15 +155,11 @@ public class GameController {
      * @throws InvalidGameException the invalid game exception
      */
     @PostMapping("/move")
-    public ResponseEntity<ReversiGame> move(@RequestBody Move moveRequest) throws InvalidGameException {
+    public ResponseEntity<GameUpdate> move(@RequestBody Move moveRequest) throws InvalidGameException {
         log.info("move: {}", moveRequest);
-        ReversiGame gamePayload = gameService.move(moveRequest);
-
-        // we use web sockets to respond to the player making move, and notifying the opponent.
-        String payloadDestination = "/topic/game-progress/" + gamePayload.getGameId();
-        simpMessagingTemplate.convertAndSend(payloadDestination, gamePayload);
-
-        return ResponseEntity.ok(gamePayload);
+        // the service uses web sockets to respond to the player making move, and notifying the opponent.
+        // only the delta is sent, the full game is sent on connect or fetched on resync.
+        return ResponseEntity.ok(gameService.move(moveRequest));
     }
 }
 
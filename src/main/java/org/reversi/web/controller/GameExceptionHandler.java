@@ -0,0 +1,67 @@
+package org.reversi.web.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.controller.dto.ErrorMessage;
+import org.reversi.web.exceptions.GameNotOwnedException;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.exceptions.InvalidParamException;
+import org.reversi.web.exceptions.RateLimitedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.net.URI;
+
+/**
+ * Answers the HTTP requests rejected by the game services with their own status,
+ * routing the requests about games owned by other instances.
+ */
+@RestControllerAdvice
+@Slf4j
+public class GameExceptionHandler {
+    /**
+     * Redirects the request to the owner of the game.
+     * A temporary redirect makes the client repeat the request with the same method and body.
+     *
+     * @param e       the exception naming the owner
+     * @param request the request
+     * @return the redirect
+     */
+    @ExceptionHandler(GameNotOwnedException.class)
+    public ResponseEntity<Void> redirectToOwner(GameNotOwnedException e, HttpServletRequest request) {
+        final String query = request.getQueryString() == null ? "" : "?" + request.getQueryString();
+        log.debug("redirecting {} to {}", request.getRequestURI(), e.getOwnerUrl());
+        return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(URI.create(e.getOwnerUrl() + request.getRequestURI() + query))
+                .build();
+    }
+
+    /**
+     * Tells a client over its rate limit when to retry.
+     *
+     * @param e the exception
+     * @return the rejection
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ErrorMessage> tooManyRequests(RateLimitedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(new ErrorMessage(e.getMessage()));
+    }
+
+    /**
+     * Rejects an invalid request, e.g. a move out of turn. The exceptions carry no stack trace,
+     * so spammed invalid requests cost neither a stack walk nor an error log line.
+     *
+     * @param e the exception
+     * @return the rejection
+     */
+    @ExceptionHandler({InvalidGameException.class, InvalidParamException.class})
+    public ResponseEntity<ErrorMessage> badRequest(Exception e) {
+        log.debug("rejected request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(new ErrorMessage(e.getMessage()));
+    }
+}
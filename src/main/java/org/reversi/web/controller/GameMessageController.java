@@ -0,0 +1,87 @@
+package org.reversi.web.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.controller.dto.Client;
+import org.reversi.web.controller.dto.ConnectRequest;
+import org.reversi.web.controller.dto.ErrorMessage;
+import org.reversi.web.controller.dto.Move;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.exceptions.InvalidParamException;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameUpdate;
+import org.reversi.web.services.GameService;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+/**
+ * The STOMP counterpart of {@link GameController}, handling messages sent to {@code /app/...}
+ * over the connection the players already hold for the game progress.
+ * <p>
+ * Replies only go to the sending session: acks on {@code /user/queue/ack},
+ * joined games on {@code /user/queue/game} and errors on {@code /user/queue/errors}.
+ */
+@Controller
+@Slf4j
+@AllArgsConstructor
+public class GameMessageController {
+    private final GameService gameService;
+
+    /**
+     * Connect to a specific game.
+     *
+     * @param connectRequest the connect request
+     * @return the joined game
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    @MessageMapping("/connect")
+    @SendToUser(destinations = "/queue/game", broadcast = false)
+    public GameSnapshot connect(ConnectRequest connectRequest) throws InvalidParamException, InvalidGameException {
+        log.info("STOMP connect request: {}", connectRequest);
+        return gameService.connectToGame(connectRequest.client(), connectRequest.gameId());
+    }
+
+    /**
+     * Connect to a random game.
+     *
+     * @param client the client
+     * @return the joined game
+     * @throws InvalidGameException the invalid game exception
+     */
+    @MessageMapping("/connect/random")
+    @SendToUser(destinations = "/queue/game", broadcast = false)
+    public GameSnapshot connectRandom(Client client) throws InvalidGameException {
+        log.info("STOMP random connect request {}", client);
+        return gameService.connectToRandomGame(client);
+    }
+
+    /**
+     * Make a move, the delta is broadcast to both players and acknowledged to the mover.
+     *
+     * @param moveRequest the move request
+     * @return the delta of the move
+     * @throws InvalidGameException the invalid game exception
+     */
+    @MessageMapping("/move")
+    @SendToUser(destinations = "/queue/ack", broadcast = false)
+    public GameUpdate move(Move moveRequest) throws InvalidGameException {
+        log.info("STOMP move: {}", moveRequest);
+        return gameService.move(moveRequest);
+    }
+
+    /**
+     * Sends failed requests back to the session that made them.
+     *
+     * @param e the exception
+     * @return the error message
+     */
+    @MessageExceptionHandler({InvalidGameException.class, InvalidParamException.class})
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ErrorMessage handleError(Exception e) {
+        log.info("STOMP request failed: {}", e.getMessage());
+        return new ErrorMessage(e.getMessage());
+    }
+}
@@ -1,6 +1,8 @@
 package org.reversi.web.controller;
 
-import org.reversi.web.model.ReversiGame;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.GamePlayer;
+import org.reversi.web.model.GameSnapshot;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,8 +21,7 @@ public class IndexController {
     @GetMapping("/")
     public String index(Model model) {
         // Add the dummy game to the model
-        ReversiGame dummyGame = new ReversiGame();
-        dummyGame.setBoard(4);
+        GameSnapshot dummyGame = GameSnapshot.start("", 4, new GamePlayer("", Disk.WHITE));
 
         // allow thymeleaf access to the dummyGame
         model.addAttribute("game", dummyGame);
@@ -0,0 +1,43 @@
+package org.reversi.web.controller;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.services.BatchEvaluationService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+
+/**
+ * The Position controller, evaluating positions outside any game.
+ */
+@RestController
+@Slf4j
+@AllArgsConstructor
+@RequestMapping("/positions")
+public class PositionController {
+    private final BatchEvaluationService batchEvaluationService;
+
+    /**
+     * Evaluates a stream of positions, streaming back the results in input order while the positions are read.
+     *
+     * @param positions the request body, one position per line
+     * @return the response entity
+     * @throws InvalidGameException the invalid game exception
+     */
+    @PostMapping(value = "/evaluate",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> evaluate(InputStream positions) throws InvalidGameException {
+        log.info("batch evaluation request");
+        batchEvaluationService.requireCapacity();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> batchEvaluationService.evaluate(positions, out));
+    }
+}
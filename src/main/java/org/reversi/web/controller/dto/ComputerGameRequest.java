@@ -0,0 +1,9 @@
+package org.reversi.web.controller.dto;
+
+import org.reversi.web.model.Difficulty;
+
+/**
+ * Record wrapper for the request to play against the computer.
+ * @see org.reversi.web.controller.GameController
+ */
+public record ComputerGameRequest(Client client, Difficulty difficulty) { }
@@ -0,0 +1,7 @@
+package org.reversi.web.controller.dto;
+
+/**
+ * Record wrapper for the errors sent back on a player's STOMP session.
+ * @see org.reversi.web.controller.GameMessageController
+ */
+public record ErrorMessage(String message) { }
@@ -0,0 +1,17 @@
+package org.reversi.web.controller.dto;
+
+import org.reversi.web.model.Disk;
+
+/**
+ * Record wrapper for a single position of a batch evaluation, one per line of the request.
+ *
+ * @param id       the caller's id of the position, echoed in its result
+ * @param board    the board, encoded like {@link org.reversi.web.model.GameSnapshot#board()}
+ * @param toMove   the disk of the player to move
+ * @param position the board and the player to move in the notation of {@link org.reversi.cli.PositionCodec},
+ *                 instead of {@code board} and {@code toMove}
+ * @param depth    the search depth, null for the default depth
+ * @see org.reversi.web.controller.PositionController
+ */
+public record EvaluationRequest(String id, int[][] board, Disk toMove, String position,
+                                Integer depth) { }
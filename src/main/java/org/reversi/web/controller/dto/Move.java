@@ -1,8 +1,12 @@
 package org.reversi.web.controller.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import lombok.Data;
 import org.reversi.web.model.Coordinate;
 import org.reversi.web.model.Disk;
+import org.reversi.web.model.Premove;
+
+import java.util.List;
 
 /**
  * Wrapper for the Move config used in the Http requests.
@@ -13,4 +17,15 @@ public class Move {
     private Disk disk;
     private Coordinate coord;
     private String gameId;
+
+    /**
+     * the sequence of the game the move was chosen on, null to skip the check for a stale board
+     */
+    private Integer sequence;
+
+    /**
+     * the replies to the opponent's next move, made by the server as soon as it's played, null for none
+     */
+    @JsonDeserialize(using = PremovesDeserializer.class)
+    private List<Premove> premoves;
 }
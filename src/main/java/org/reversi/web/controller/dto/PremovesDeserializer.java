@@ -0,0 +1,115 @@
+package org.reversi.web.controller.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.Premove;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the premoves of a {@link Move}, counting them as they're read.
+ * <p>
+ * A tree of more than {@code premove.max-nodes} premoves is rejected as soon as its node past the limit is reached,
+ * before the rest of the request is turned into objects, so a deeply nested or huge tree costs neither stack
+ * nor memory. The mapper of the application, which reads the REST requests and the STOMP messages, creates it
+ * with the configured limit, other mappers with {@link #DEFAULT_MAX_NODES}.
+ */
+public class PremovesDeserializer extends StdDeserializer<List<Premove>> {
+    /**
+     * the limit of the mappers not configured by Spring
+     */
+    public static final int DEFAULT_MAX_NODES = 32;
+
+    private final int maxNodes;
+
+    /**
+     * Instantiates a new Premoves deserializer with the default limit.
+     */
+    public PremovesDeserializer() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Instantiates a new Premoves deserializer.
+     *
+     * @param maxNodes the most premoves of a move, in all
+     */
+    @Autowired
+    public PremovesDeserializer(@Value("${premove.max-nodes}") int maxNodes) {
+        super(List.class);
+        this.maxNodes = maxNodes;
+    }
+
+    @Override
+    public List<Premove> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        return readList(parser, context, new int[1]);
+    }
+
+    /**
+     * Reads a list of premoves, the parser being on its start.
+     *
+     * @param parser  the parser
+     * @param context the context
+     * @param count   the premoves read so far in the whole tree
+     * @return the premoves
+     * @throws IOException if the list is malformed or the tree too large
+     */
+    private List<Premove> readList(JsonParser parser, DeserializationContext context, int[] count)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return List.of();
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw JsonMappingException.from(parser, "Premoves must be a list");
+        }
+        final List<Premove> premoves = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (++count[0] > maxNodes) {
+                throw JsonMappingException.from(parser, "Too many premoves, at most " + maxNodes);
+            }
+            premoves.add(readPremove(parser, context, count));
+        }
+        return premoves;
+    }
+
+    /**
+     * Reads a premove, the parser being on its start.
+     *
+     * @param parser  the parser
+     * @param context the context
+     * @param count   the premoves read so far in the whole tree
+     * @return the premove
+     * @throws IOException if the premove is malformed or the tree too large
+     */
+    private Premove readPremove(JsonParser parser, DeserializationContext context, int[] count) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw JsonMappingException.from(parser, "A premove must be an object");
+        }
+        Coordinate opponent = null;
+        Coordinate reply = null;
+        List<Premove> then = List.of();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "opponent" -> opponent = context.readValue(parser, Coordinate.class);
+                case "reply" -> reply = context.readValue(parser, Coordinate.class);
+                case "then" -> then = readList(parser, context, count);
+                default -> parser.skipChildren();
+            }
+        }
+        try {
+            return new Premove(opponent, reply, then);
+        } catch (IllegalArgumentException e) {
+            throw JsonMappingException.from(parser, e.getMessage(), e);
+        }
+    }
+}
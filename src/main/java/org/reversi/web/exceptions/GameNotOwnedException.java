@@ -0,0 +1,25 @@
+package org.reversi.web.exceptions;
+
+import lombok.Getter;
+
+/**
+ * The exception for requests about a game owned by another instance.
+ * HTTP requests are redirected to the owner, STOMP senders get the owner in the error message.
+ */
+@Getter
+public class GameNotOwnedException extends InvalidGameException {
+    /**
+     * the base url of the owning instance
+     */
+    private final String ownerUrl;
+
+    /**
+     * Instantiates a new Game not owned exception.
+     *
+     * @param ownerUrl the base url of the owning instance
+     */
+    public GameNotOwnedException(String ownerUrl) {
+        super("The game is hosted on " + ownerUrl);
+        this.ownerUrl = ownerUrl;
+    }
+}
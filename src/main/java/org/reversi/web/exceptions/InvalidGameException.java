@@ -5,12 +5,13 @@ package org.reversi.web.exceptions;
  */
 public class InvalidGameException extends Exception {
     /**
-     * Instantiates a new Invalid game exception.
+     * Instantiates a new Invalid game exception, without a stack trace.
+     * These are rejections of client requests, thrown often and never debugged through their stack.
      *
      * @param msg the msg
      */
     public InvalidGameException(String msg) {
-        super(msg);
+        super(msg, null, false, false);
     }
 
     /**
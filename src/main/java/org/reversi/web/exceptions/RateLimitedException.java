@@ -0,0 +1,25 @@
+package org.reversi.web.exceptions;
+
+import lombok.Getter;
+
+/**
+ * The exception for clients over their rate limit, answered with {@code 429 Too Many Requests}.
+ */
+@Getter
+public class RateLimitedException extends InvalidGameException {
+    /**
+     * the seconds until the client may retry
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Instantiates a new Rate limited exception.
+     *
+     * @param msg               the msg
+     * @param retryAfterSeconds the seconds until the client may retry
+     */
+    public RateLimitedException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
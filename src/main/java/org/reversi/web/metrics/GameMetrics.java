@@ -0,0 +1,84 @@
+package org.reversi.web.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.session.SessionRegistry;
+import org.reversi.web.storage.GameStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Gauges of the game server, exported through the actuator endpoints.
+ * <p>
+ * All of them are read from counters, so scraping never scans the stored games or sessions.
+ */
+@Component
+public class GameMetrics implements MeterBinder {
+    /**
+     * the STOMP channel executors, by channel
+     */
+    private final Map<String, TaskExecutor> channelExecutors;
+
+    private final GameStorage gameStorage;
+    private final SessionRegistry sessionRegistry;
+
+    /**
+     * Instantiates the game metrics.
+     *
+     * @param inboundExecutor  the client inbound channel executor
+     * @param outboundExecutor the client outbound channel executor
+     * @param brokerExecutor   the broker channel executor, declared as a plain {@link TaskExecutor} so that it
+     *                         matches before it's created, with lazy initialization
+     * @param gameStorage      the game storage
+     * @param sessionRegistry  the STOMP session registry
+     */
+    public GameMetrics(@Qualifier("clientInboundChannelExecutor") TaskExecutor inboundExecutor,
+                       @Qualifier("clientOutboundChannelExecutor") TaskExecutor outboundExecutor,
+                       @Qualifier("brokerChannelExecutor") TaskExecutor brokerExecutor,
+                       GameStorage gameStorage, SessionRegistry sessionRegistry) {
+        this.gameStorage = gameStorage;
+        this.sessionRegistry = sessionRegistry;
+        this.channelExecutors = Map.of(
+                "inbound", inboundExecutor,
+                "outbound", outboundExecutor,
+                "broker", brokerExecutor
+        );
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (GameStatus status : GameStatus.values()) {
+            Gauge.builder("reversi.games", () -> gameStorage.countGames(status))
+                    .description("Stored games by status")
+                    .tag("status", status.name())
+                    .register(registry);
+        }
+
+        Gauge.builder("reversi.stomp.sessions", sessionRegistry, SessionRegistry::count)
+                .description("Open STOMP sessions")
+                .register(registry);
+
+        channelExecutors.forEach((channel, taskExecutor) -> {
+            if (!(taskExecutor instanceof ThreadPoolTaskExecutor executor)) {
+                // no pool to gauge
+                return;
+            }
+            Gauge.builder("reversi.stomp.channel.queued", executor,
+                            e -> e.getThreadPoolExecutor().getQueue().size())
+                    .description("Messages waiting for a STOMP channel thread, the backlog of the channel")
+                    .tag("channel", channel)
+                    .register(registry);
+            Gauge.builder("reversi.stomp.channel.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                    .description("STOMP channel threads handling a message")
+                    .tag("channel", channel)
+                    .register(registry);
+        });
+    }
+}
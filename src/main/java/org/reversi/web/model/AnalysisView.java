@@ -0,0 +1,13 @@
+package org.reversi.web.model;
+
+import java.util.List;
+
+/**
+ * The analysis of the current position of a {@link ReversiGame}.
+ *
+ * @param gameId the game id
+ * @param toMove the disk of the player to move
+ * @param depth  the search depth reached within the time budget
+ * @param moves  the scores of all possible moves, best first
+ */
+public record AnalysisView(String gameId, Disk toMove, int depth, List<MoveScore> moves) { }
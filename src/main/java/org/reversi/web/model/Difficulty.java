@@ -0,0 +1,29 @@
+package org.reversi.web.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Difficulty of the computer opponent in {@link ReversiGame}, mapped to the agent's search budget.
+ * The node budget bounds the CPU of a reply, and a level plays the same moves on any hardware as long as its
+ * searches complete within {@code agent.time-budget-ms}. That timeout is only a safety net for overloaded hosts,
+ * where it cuts searches short and play then depends on the hardware.
+ */
+@AllArgsConstructor
+@Getter
+public enum Difficulty {
+    /**
+     * Easy difficulty, a greedy one ply search.
+     */
+    EASY(1, 1_000),
+    /**
+     * Medium difficulty.
+     */
+    MEDIUM(3, 20_000),
+    /**
+     * Hard difficulty.
+     */
+    HARD(5, 200_000);
+    private final int depth;
+    private final long maxNodes;
+}
@@ -18,4 +18,19 @@ public enum Disk {
      */
     BLACK(2);
     private final int value;
+
+    /**
+     * Looks up the disk encoded by the given board value.
+     *
+     * @param value the board value
+     * @return the disk, or null for an empty tile
+     */
+    public static Disk fromValue(int value) {
+        for (Disk disk : values()) {
+            if (disk.value == value) {
+                return disk;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,28 @@
+package org.reversi.web.model;
+
+import java.util.List;
+
+/**
+ * The result of a single position of a batch evaluation, one per line of the response.
+ *
+ * @param id       the caller's id of the position
+ * @param toMove   the disk of the player to move after forced passes, null once the game is over
+ * @param bestMove the best move, null if there is none
+ * @param moves    the scores of the scored moves, best first
+ * @param depth    the search depth reached
+ * @param complete true iff the search reached its depth within the node budget
+ * @param error    the reason the position couldn't be evaluated, null on success
+ */
+public record EvaluationResult(String id, Disk toMove, Coordinate bestMove, List<MoveScore> moves,
+                               int depth, boolean complete, String error) {
+    /**
+     * Result of a position that couldn't be evaluated.
+     *
+     * @param id    the caller's id of the position
+     * @param error the reason
+     * @return the result
+     */
+    public static EvaluationResult failed(String id, String error) {
+        return new EvaluationResult(id, null, null, List.of(), 0, false, error);
+    }
+}
@@ -0,0 +1,78 @@
+package org.reversi.web.model;
+
+/**
+ * Chess clock of a {@link ReversiGame}, part of its {@link GameSnapshot}.
+ * <p>
+ * Only the player to move has a running clock, started at {@code turnStartedAt}: its time left is the stored time
+ * minus what elapsed since. Times are wall clock milliseconds, so that clients can count down on their own.
+ *
+ * @param incrementMs   the time added to a player's clock after each of their moves
+ * @param whiteMs       the time left to white, when the turn started if white is to move
+ * @param blackMs       the time left to black, when the turn started if black is to move
+ * @param turnStartedAt the {@link System#currentTimeMillis()} at which the player to move started thinking
+ */
+public record GameClock(long incrementMs, long whiteMs, long blackMs, long turnStartedAt) {
+    /**
+     * Builds a clock that isn't running yet.
+     *
+     * @param baseMs      the time of each player
+     * @param incrementMs the time added after each move
+     * @return the clock
+     */
+    public static GameClock of(long baseMs, long incrementMs) {
+        return new GameClock(incrementMs, baseMs, baseMs, 0);
+    }
+
+    /**
+     * Starts the clock of the player to move.
+     *
+     * @param now the current time in ms
+     * @return the running clock
+     */
+    public GameClock start(long now) {
+        return new GameClock(incrementMs, whiteMs, blackMs, now);
+    }
+
+    /**
+     * Stops the clock of the player who moved, adding the increment, and starts the next turn.
+     *
+     * @param mover the disk of the player who moved
+     * @param now   the current time in ms
+     * @return the next clock
+     */
+    public GameClock afterMove(Disk mover, long now) {
+        final long left = Math.max(0, remainingMs(mover, now)) + incrementMs;
+        return mover == Disk.WHITE
+                ? new GameClock(incrementMs, left, blackMs, now)
+                : new GameClock(incrementMs, whiteMs, left, now);
+    }
+
+    /**
+     * Empties the clock of the player to move, once their flag fell.
+     *
+     * @param toMove the disk of the player to move
+     * @return the next clock
+     */
+    public GameClock flagged(Disk toMove) {
+        return toMove == Disk.WHITE
+                ? new GameClock(incrementMs, 0, blackMs, turnStartedAt)
+                : new GameClock(incrementMs, whiteMs, 0, turnStartedAt);
+    }
+
+    /**
+     * @param toMove the disk of the player to move
+     * @param now    the current time in ms
+     * @return the time left to the player to move, negative once their flag fell
+     */
+    public long remainingMs(Disk toMove, long now) {
+        return deadline(toMove) - now;
+    }
+
+    /**
+     * @param toMove the disk of the player to move
+     * @return the time in ms at which the flag of the player to move falls
+     */
+    public long deadline(Disk toMove) {
+        return turnStartedAt + (toMove == Disk.WHITE ? whiteMs : blackMs);
+    }
+}
@@ -0,0 +1,358 @@
+package org.reversi.web.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.reversi.cli.GameHistory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable state of a {@link ReversiGame} at one version.
+ * <p>
+ * Every change produces a new snapshot, so a snapshot can be read and serialized without locks and
+ * is always consistent, while the game moves on. The board must never be modified once the snapshot is built.
+ *
+ * @param gameId            the game id
+ * @param sequence          the version of the game, the number of moves made so far
+ * @param status            the game status
+ * @param size              the board size
+ * @param board             the board, {@link Disk} values or {@link ReversiGame#EMPTY}
+ * @param gamePlayer1       the first player, playing white
+ * @param gamePlayer2       the second player, null until someone joins
+ * @param currentGamePlayer the player, whose turn it is to make a move
+ * @param possibleMoves     the possible moves of the current player
+ * @param winner            the winner once the game is over, {@link ReversiGame#DRAW} for a draw
+ * @param difficulty        difficulty of the computer opponent, null if both players are human
+ * @param lastMove          the last move made in the game
+ * @param clock             the chess clock, null for a game without time control
+ * @param lastFlipped       disks stolen by the last move, only sent as part of a {@link GameUpdate}
+ * @param history           the compact record of all moves made so far, of this snapshot alone
+ * @param premoves          the conditional replies of the player waiting for the opponent's move, see {@link Premove}
+ */
+public record GameSnapshot(String gameId, int sequence, GameStatus status, int size, int[][] board,
+                           GamePlayer gamePlayer1, GamePlayer gamePlayer2, GamePlayer currentGamePlayer,
+                           Set<Coordinate> possibleMoves, GamePlayer winner, Difficulty difficulty,
+                           Coordinate lastMove, GameClock clock,
+                           @JsonIgnore List<Coordinate> lastFlipped,
+                           @JsonIgnore GameHistory history,
+                           @JsonIgnore List<Premove> premoves) {
+    /**
+     * Builds the start position of a new game, waiting for its second player.
+     *
+     * @param gameId  the game id
+     * @param size    the board size
+     * @param player1 the first player, moving first
+     * @return the snapshot
+     */
+    public static GameSnapshot start(String gameId, int size, GamePlayer player1) {
+        final int[][] board = new int[size][size];
+        final int mid_lo = size / 2 - 1;
+        final int mid_hi = mid_lo + 1;
+
+        board[mid_lo][mid_lo] = Disk.WHITE.getValue();
+        board[mid_hi][mid_hi] = Disk.WHITE.getValue();
+        board[mid_lo][mid_hi] = Disk.BLACK.getValue();
+        board[mid_hi][mid_lo] = Disk.BLACK.getValue();
+
+        return new GameSnapshot(gameId, 0, GameStatus.NEW, size, board,
+                player1, null, player1, possibleMoves(board, player1.disk()), null, null,
+                null, null, List.of(), new GameHistory(size), List.of());
+    }
+
+    /**
+     * Starts the game with its second player, and the clock of the player to move.
+     *
+     * @param player2 the second player
+     * @param now     the current time in ms
+     * @return the next snapshot
+     */
+    public GameSnapshot withPlayer2(GamePlayer player2, long now) {
+        return new GameSnapshot(gameId, sequence, GameStatus.IN_PROGRESS, size, board,
+                gamePlayer1, player2, currentGamePlayer, possibleMoves, winner, difficulty,
+                lastMove, clock == null ? null : clock.start(now), lastFlipped, history, premoves);
+    }
+
+    /**
+     * Sets the time control, before the game starts.
+     *
+     * @param clock the clock, not running yet
+     * @return the next snapshot
+     */
+    public GameSnapshot withClock(GameClock clock) {
+        return new GameSnapshot(gameId, sequence, status, size, board,
+                gamePlayer1, gamePlayer2, currentGamePlayer, possibleMoves, winner, difficulty,
+                lastMove, clock, lastFlipped, history, premoves);
+    }
+
+    /**
+     * Sets the difficulty of the computer opponent.
+     *
+     * @param difficulty the difficulty
+     * @return the next snapshot
+     */
+    public GameSnapshot withDifficulty(Difficulty difficulty) {
+        return new GameSnapshot(gameId, sequence, status, size, board,
+                gamePlayer1, gamePlayer2, currentGamePlayer, possibleMoves, winner, difficulty,
+                lastMove, clock, lastFlipped, history, premoves);
+    }
+
+    /**
+     * Makes a move of the current player, passing the turn on unless the opponent has to pass.
+     *
+     * @param row 1st coordinate of the requested move to be made
+     * @param col 2nd coordinate of the requested move to be made
+     * @param now the current time in ms, charged to the clock of the player
+     * @return the next snapshot, empty iff the move is invalid
+     */
+    public Optional<GameSnapshot> play(final int row, final int col, final long now) {
+        if (!this.possibleMoves.contains(new Coordinate(row, col))) {
+            return Optional.empty();
+        }
+
+        final int[][] next = new int[size][];
+        for (int i = 0; i < size; i++) {
+            next[i] = board[i].clone();
+        }
+        final Disk disk = currentGamePlayer.disk();
+        final List<Coordinate> flipped = new ArrayList<>();
+
+        // mark move and steal all of opponent's disks
+        next[row][col] = disk.getValue();
+        for (int xDir = -1; xDir <= 1; xDir++) {
+            for (int yDir = -1; yDir <= 1; yDir++) {
+                if (xDir == 0 && yDir == 0) {continue;}
+
+                stealAll(next, row, col, xDir, yDir, disk, flipped);
+            }
+        }
+
+        final GameHistory nextHistory = history.copy();
+        nextHistory.recordMove(row, col);
+
+        final GamePlayer opponent = currentGamePlayer.equals(gamePlayer1) ? gamePlayer2 : gamePlayer1;
+        GamePlayer nextPlayer = opponent;
+        GameStatus nextStatus = status;
+        GamePlayer nextWinner = winner;
+        Set<Coordinate> nextPossibleMoves = possibleMoves(next, opponent.disk());
+        if (nextPossibleMoves.isEmpty()) {
+            nextPlayer = currentGamePlayer;
+            nextPossibleMoves = possibleMoves(next, disk);
+            if (nextPossibleMoves.isEmpty()) {
+                nextWinner = majorityPlayer(next, gamePlayer1, gamePlayer2);
+                nextStatus = GameStatus.FINISHED;
+                nextHistory.trimToSize();
+            } else {
+                nextHistory.recordPass();
+            }
+        }
+
+        return Optional.of(new GameSnapshot(gameId, sequence + 1, nextStatus, size, next,
+                gamePlayer1, gamePlayer2, nextPlayer, nextPossibleMoves, nextWinner, difficulty,
+                new Coordinate(row, col), clock == null ? null : clock.afterMove(disk, now),
+                List.copyOf(flipped), nextHistory, List.of()));
+    }
+
+    /**
+     * Sets the premoves of the player waiting for the opponent's move.
+     *
+     * @param premoves the premoves
+     * @return the next snapshot
+     */
+    public GameSnapshot withPremoves(List<Premove> premoves) {
+        return new GameSnapshot(gameId, sequence, status, size, board,
+                gamePlayer1, gamePlayer2, currentGamePlayer, possibleMoves, winner, difficulty,
+                lastMove, clock, lastFlipped, history, List.copyOf(premoves));
+    }
+
+    /**
+     * Ends the game on the flag fall of the player to move, who loses it.
+     *
+     * @return the next snapshot
+     */
+    public GameSnapshot timeout() {
+        final GamePlayer opponent = currentGamePlayer.equals(gamePlayer1) ? gamePlayer2 : gamePlayer1;
+        final GameHistory nextHistory = history.copy();
+        nextHistory.trimToSize();
+        return new GameSnapshot(gameId, sequence + 1, GameStatus.FINISHED, size, board,
+                gamePlayer1, gamePlayer2, currentGamePlayer, Set.of(), opponent, difficulty,
+                lastMove, clock.flagged(currentGamePlayer.disk()), List.of(), nextHistory, List.of());
+    }
+
+    /**
+     * checks if the player to move ran out of time
+     *
+     * @param now the current time in ms
+     * @return true iff the game is in progress with a clock, and the flag of the player to move fell
+     */
+    public boolean hasFlagFallen(long now) {
+        return this.clock != null && this.status == GameStatus.IN_PROGRESS
+                && this.clock.remainingMs(this.currentGamePlayer.disk(), now) <= 0;
+    }
+
+    /**
+     * checks if the game is played against the computer
+     *
+     * @return true iff the second player is the computer
+     */
+    @JsonIgnore
+    public boolean isComputerGame() {
+        return this.difficulty != null;
+    }
+
+    /**
+     * checks if the computer is the player to move
+     *
+     * @return true iff it's the computer's turn
+     */
+    @JsonIgnore
+    public boolean isComputerTurn() {
+        return isComputerGame() && this.currentGamePlayer.equals(this.gamePlayer2);
+    }
+
+    /**
+     * finds the player a move is made for, among the players of the game rather than from the client's word
+     *
+     * @param disk the disk the move is made for
+     * @return the player to move if the disk is theirs, empty if it's the opponent's turn or the computer's
+     */
+    public Optional<GamePlayer> moverOf(Disk disk) {
+        if (isComputerTurn()) {
+            return Optional.empty();
+        }
+        final GamePlayer player = disk == this.gamePlayer1.disk() ? this.gamePlayer1
+                : this.gamePlayer2 != null && disk == this.gamePlayer2.disk() ? this.gamePlayer2 : null;
+        return player != null && player.equals(this.currentGamePlayer) ? Optional.of(player) : Optional.empty();
+    }
+
+    /**
+     * method to check if the game is over
+     *
+     * @return true iff the game is over
+     */
+    @JsonIgnore
+    public boolean isGameOver() {
+        return this.status.equals(GameStatus.FINISHED);
+    }
+
+    /**
+     *
+     * @param board the board
+     * @param row row coordinate
+     * @param col column coordinate
+     * @return true iff (row, col) is a coordinate inside the board
+     */
+    private static boolean insideBoard(final int[][] board, final int row, final int col) {
+        return row >= 0 && row < board.length && col >= 0 && col < board.length;
+    }
+
+    /**
+     * @param board the board
+     * @param disk  the disk of the player to move
+     * @return all possible moves for the player on the board
+     */
+    private static Set<Coordinate> possibleMoves(final int[][] board, final Disk disk) {
+        final Set<Coordinate> possibleCoords = new HashSet<>();
+        final Disk opponentDisk = disk.equals(Disk.WHITE) ? Disk.BLACK : Disk.WHITE;
+
+        for (int i = 0; i < board.length; i++)
+            for (int j = 0; j < board.length; j++)
+                if (board[i][j] == disk.getValue())
+                    addPossibleMovesFrom(board, i, j, opponentDisk, possibleCoords);
+
+        return Set.copyOf(possibleCoords);
+    }
+
+    /**
+     * helper for adding all the possible moves from a given position in the board
+     * @param board the board
+     * @param row the row position of the current player
+     * @param col the column position of the current player
+     * @param opponentDisk the opponent in the current game state
+     * @param possibleCoords the set to add the new detected possible moves to
+     */
+    private static void addPossibleMovesFrom(final int[][] board, final int row, final int col,
+                                             final Disk opponentDisk, final Set<Coordinate> possibleCoords) {
+        for (int xDir = -1; xDir <= 1; xDir++) {
+            for (int yDir = -1; yDir <= 1; yDir++) {
+                if (xDir == 0 && yDir == 0) {continue;}
+                int x = row + xDir;
+                int y = col + yDir;
+
+                boolean separated = false;
+                while (insideBoard(board, x, y) && board[x][y] == opponentDisk.getValue()) {
+                    x += xDir;
+                    y += yDir;
+                    separated = true;
+                }
+
+                if (separated && insideBoard(board, x, y) && board[x][y] == ReversiGame.EMPTY) {
+                    possibleCoords.add(new Coordinate(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * once a move is made, this method finds the captured disks of the opponent
+     * and turns them to the current player's disks
+     * @param board the board, modified in place
+     * @param row the 1st coordinate of the move made by the current player
+     * @param col the 2nd coordinate of the move made by the current player
+     * @param xDir the x-direction for detecting the potentially captured disks of the opponent
+     * @param yDir the y-direction for detecting the potentially captured disks of the opponent
+     * @param disk the disk of the current player
+     * @param flipped collects the stolen disks
+     */
+    private static void stealAll(final int[][] board, final int row, final int col,
+                                 final int xDir, final int yDir,
+                                 final Disk disk, final List<Coordinate> flipped) {
+        int x = row + xDir;
+        int y = col + yDir;
+
+        while (insideBoard(board, x, y) && board[x][y] != ReversiGame.EMPTY && board[x][y] != disk.getValue()) {
+            x += xDir;
+            y += yDir;
+        }
+
+        // take all the opponent's disks in between, if the line is closed by a disk of the player
+        if (insideBoard(board, x, y) && board[x][y] == disk.getValue()) {
+            x -= xDir;
+            y -= yDir;
+            while (x != row || y != col) {
+                board[x][y] = disk.getValue();
+                flipped.add(new Coordinate(x, y));
+                x -= xDir;
+                y -= yDir;
+            }
+        }
+    }
+
+    /**
+     * @param board   the board
+     * @param player1 the first player, playing white
+     * @param player2 the second player, playing black
+     * @return the player who owns the majority of the disks on the board, {@link ReversiGame#DRAW} on a tie
+     */
+    private static GamePlayer majorityPlayer(final int[][] board, final GamePlayer player1, final GamePlayer player2) {
+        int white = 0;
+        int black = 0;
+
+        for (int[] row : board) {
+            for (int cell : row) {
+                if (cell == Disk.WHITE.getValue()) {
+                    white++;
+                } else if (cell == Disk.BLACK.getValue()) {
+                    black++;
+                }
+            }
+        }
+
+        if (white == black) {
+            return ReversiGame.DRAW;
+        }
+        return white > black ? player1 : player2;
+    }
+}
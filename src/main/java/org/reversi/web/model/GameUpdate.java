@@ -0,0 +1,87 @@
+package org.reversi.web.model;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compact delta broadcast after every move instead of the full {@link GameSnapshot}.
+ * <p>
+ * Cells are encoded as bit {@code x * size + y} of a mask split into 32-bit words,
+ * so that the client can decode them with plain JS bitwise operations.
+ *
+ * @param type          always {@link GameUpdate#TYPE}, lets clients tell deltas from snapshots
+ * @param gameId        the game id
+ * @param sequence      the move sequence number, a gap means the client must resync
+ * @param disk          the disk that was placed
+ * @param placed        the placed square
+ * @param flipped       bitmask of the disks stolen by the move
+ * @param possibleMoves bitmask of the legal moves of the next player
+ * @param currentDisk   the disk of the player to move next
+ * @param status        the game status after the move
+ * @param winner        the winner, only meaningful once the game is finished
+ * @param clock         the chess clock after the move, null for a game without time control
+ * @param reply         the delta of the premove played in reply to the move, null if there is none
+ */
+public record GameUpdate(String type, String gameId, int sequence,
+                         Disk disk, Coordinate placed, int[] flipped,
+                         int[] possibleMoves, Disk currentDisk,
+                         GameStatus status, GamePlayer winner, GameClock clock,
+                         GameUpdate reply) {
+    /**
+     * the type tag of delta updates
+     */
+    public static final String TYPE = "delta";
+
+    /**
+     * Builds the delta for the last move made in the game.
+     *
+     * @param game the game right after the move
+     * @return the game update
+     */
+    public static GameUpdate of(GameSnapshot game) {
+        return of(game, List.of());
+    }
+
+    /**
+     * Builds the delta of a move and of the premoves played in reply, in one message.
+     *
+     * @param game    the game right after the move
+     * @param replies the game right after each premove, in order
+     * @return the game update, each premove being the reply of the previous delta
+     */
+    public static GameUpdate of(GameSnapshot game, List<GameSnapshot> replies) {
+        final Coordinate placed = game.lastMove();
+        final int size = game.size();
+
+        return new GameUpdate(
+                TYPE,
+                game.gameId(),
+                game.sequence(),
+                Disk.fromValue(game.board()[placed.x()][placed.y()]),
+                placed,
+                toBitmask(game.lastFlipped(), size),
+                toBitmask(game.possibleMoves(), size),
+                game.currentGamePlayer().disk(),
+                game.status(),
+                game.winner(),
+                game.clock(),
+                replies.isEmpty() ? null : of(replies.get(0), replies.subList(1, replies.size()))
+        );
+    }
+
+    /**
+     * Encodes the given cells as a bitmask of 32-bit words.
+     *
+     * @param coords the cells to encode
+     * @param size   the board size
+     * @return the bitmask
+     */
+    public static int[] toBitmask(Collection<Coordinate> coords, int size) {
+        final int[] mask = new int[(size * size + 31) / 32];
+        for (Coordinate coord : coords) {
+            final int bit = coord.x() * size + coord.y();
+            mask[bit >>> 5] |= 1 << (bit & 31);
+        }
+        return mask;
+    }
+}
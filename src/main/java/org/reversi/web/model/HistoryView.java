@@ -0,0 +1,12 @@
+package org.reversi.web.model;
+
+import java.util.List;
+
+/**
+ * The recorded moves of a {@link ReversiGame}.
+ *
+ * @param gameId the game id
+ * @param size   the board size
+ * @param moves  the moves by ply, null for a pass
+ */
+public record HistoryView(String gameId, int size, List<Coordinate> moves) { }
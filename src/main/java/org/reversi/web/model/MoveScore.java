@@ -0,0 +1,9 @@
+package org.reversi.web.model;
+
+/**
+ * The score of a possible move, as searched by the computer opponent.
+ *
+ * @param move  the move
+ * @param score the score of the move, higher is better for the player to move
+ */
+public record MoveScore(Coordinate move, int score) { }
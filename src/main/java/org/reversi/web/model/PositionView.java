@@ -0,0 +1,12 @@
+package org.reversi.web.model;
+
+/**
+ * A position replayed from the history of a {@link ReversiGame}.
+ *
+ * @param gameId   the game id
+ * @param ply      the number of plies played to reach the position
+ * @param board    the board, encoded like {@link GameSnapshot#board()}
+ * @param toMove   the disk of the player to move, null once the game is over
+ * @param notation the position in the notation of {@link org.reversi.cli.PositionCodec}
+ */
+public record PositionView(String gameId, int ply, int[][] board, Disk toMove, String notation) { }
@@ -0,0 +1,39 @@
+package org.reversi.web.model;
+
+import java.util.List;
+
+/**
+ * A conditional reply of a player: if the opponent plays the expected move, the server plays the reply right away,
+ * without waiting for the player to see the opponent's move.
+ *
+ * @param opponent the expected move of the opponent
+ * @param reply    the reply, played iff it's a possible move once the opponent played
+ * @param then     the premoves kept after the reply, empty to stop there
+ */
+public record Premove(Coordinate opponent, Coordinate reply, List<Premove> then) {
+    /**
+     * Checks the moves, and copies the following premoves.
+     */
+    public Premove {
+        if (opponent == null || reply == null) {
+            throw new IllegalArgumentException("A premove needs the opponent's move and the reply");
+        }
+        then = then == null ? List.of() : List.copyOf(then);
+    }
+
+    /**
+     * Finds the premove expecting the given move.
+     *
+     * @param premoves the premoves
+     * @param move     the move of the opponent
+     * @return the first premove expecting it, null if there is none
+     */
+    public static Premove find(List<Premove> premoves, Coordinate move) {
+        for (Premove premove : premoves) {
+            if (premove.opponent().equals(move)) {
+                return premove;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,227 @@
+package org.reversi.web.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.cli.CancellationToken;
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PerfectPlayTable;
+import org.reversi.cli.ReversiAgent;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+import org.reversi.web.model.Difficulty;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.model.GameUpdate;
+import org.reversi.web.model.ReversiGame;
+import org.reversi.web.storage.GameStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Plays the computer opponent's turns on the bounded agent executor.
+ * <p>
+ * A search must be reserved before the human move it replies to is applied,
+ * so that a saturated pool rejects the move instead of leaving the game waiting for a reply.
+ * A search is bounded by the node budget of the difficulty, the best move found so far being played once it runs out.
+ * {@code agent.time-budget-ms} is a safety net well above the time of a full budget, cutting searches short only
+ * on an overloaded host, where the moves then depend on the hardware.
+ * On the board of the perfect play table, if one is set, the hard opponent looks its moves up instead.
+ */
+@Service
+@Slf4j
+public class AgentService {
+    private final ThreadPoolTaskExecutor agentExecutor;
+    private final GameNotifier gameNotifier;
+    private final GameStorage gameStorage;
+    private final GameClockService clockService;
+    private final Timer searchTimer;
+    private final Counter truncatedSearches;
+    private final Duration timeBudget;
+    private final EvaluationWeights weights;
+    private final Optional<PerfectPlayTable> perfectPlay;
+
+    /**
+     * the tokens of the running searches, cancelled on shutdown
+     */
+    private final Set<CancellationToken> runningSearches = ConcurrentHashMap.newKeySet();
+
+    /**
+     * one permit per search thread or queue slot
+     */
+    private final Semaphore searchSlots;
+
+    /**
+     * Instantiates a new Agent service.
+     *
+     * @param agentExecutor the agent executor
+     * @param gameNotifier  the game notifier
+     * @param gameStorage   the game storage
+     * @param clockService  the game clock service
+     * @param meterRegistry the meter registry
+     * @param weights       the evaluation weights
+     * @param perfectPlay   the perfect play table, if any
+     * @param poolSize      the number of search threads
+     * @param queueCapacity the number of searches waiting for a thread
+     * @param timeBudgetMs  the time in ms a search may take at most, a safety net beyond its node budget
+     */
+    public AgentService(@Qualifier("agentExecutor") ThreadPoolTaskExecutor agentExecutor,
+                        GameNotifier gameNotifier,
+                        GameStorage gameStorage,
+                        GameClockService clockService,
+                        MeterRegistry meterRegistry,
+                        EvaluationWeights weights,
+                        Optional<PerfectPlayTable> perfectPlay,
+                        @Value("${agent.pool.size}") int poolSize,
+                        @Value("${agent.queue.capacity}") int queueCapacity,
+                        @Value("${agent.time-budget-ms}") long timeBudgetMs) {
+        this.agentExecutor = agentExecutor;
+        this.gameNotifier = gameNotifier;
+        this.gameStorage = gameStorage;
+        this.clockService = clockService;
+        this.weights = weights;
+        this.perfectPlay = perfectPlay;
+        this.searchSlots = new Semaphore(poolSize + queueCapacity);
+        this.timeBudget = Duration.ofMillis(timeBudgetMs);
+        this.searchTimer = Timer.builder("reversi.agent.search")
+                .description("Duration of the computer opponent's searches")
+                .register(meterRegistry);
+        this.truncatedSearches = Counter.builder("reversi.agent.search.truncated")
+                .description("Searches of the computer opponent stopped by their budget before their depth")
+                .register(meterRegistry);
+        Gauge.builder("reversi.agent.slots.available", searchSlots, Semaphore::availablePermits)
+                .description("Free computer reply slots, zero once the agent pool is saturated")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves a slot for a computer reply.
+     *
+     * @return true iff a slot was free
+     */
+    public boolean tryReserve() {
+        return searchSlots.tryAcquire();
+    }
+
+    /**
+     * Releases a slot that won't be used by {@link AgentService#reply(ReversiGame)}.
+     */
+    public void release() {
+        searchSlots.release();
+    }
+
+    /**
+     * Plays the computer's turns in the background using a reserved slot,
+     * pushing each move over the game progress topic.
+     *
+     * @param game the game
+     */
+    public void reply(ReversiGame game) {
+        try {
+            agentExecutor.execute(() -> {
+                try {
+                    playComputerTurns(game);
+                } catch (RuntimeException e) {
+                    log.error("Computer move failed in game {}", game.getGameId(), e);
+                } finally {
+                    searchSlots.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            searchSlots.release();
+            log.error("Computer move rejected in game {}", game.getGameId(), e);
+        }
+    }
+
+    /**
+     * Plays until it's the human's turn, since the human might have to pass.
+     * The game is read once per search, and the move is dropped if the game changed during the search.
+     *
+     * @param game the game
+     */
+    private void playComputerTurns(ReversiGame game) {
+        while (true) {
+            final GameSnapshot current = game.getSnapshot();
+            if (current.status() != GameStatus.IN_PROGRESS || !current.isComputerTurn()) {
+                return;
+            }
+            final ReversiModel model = ModelConverter.toModel(current);
+
+            final org.reversi.cli.Coordinate bestMove = searchTimer.record(() -> search(model, current.difficulty()));
+            if (bestMove == null) {
+                // shutting down
+                return;
+            }
+
+            final long now = System.currentTimeMillis();
+            if (current.hasFlagFallen(now)) {
+                clockService.expire(game);
+                return;
+            }
+            final GameSnapshot next = current.play(bestMove.x(), bestMove.y(), now).orElseThrow();
+            if (!game.update(current, next)) {
+                log.warn("Computer move dropped in game {}, the game changed during the search", game.getGameId());
+                return;
+            }
+            gameStorage.addGame(game);
+            gameStorage.recordTransition(current.status(), next.status());
+            clockService.schedule(game, next);
+            gameNotifier.publishUpdate(GameUpdate.of(next));
+        }
+    }
+
+    /**
+     * Searches the computer's move within the budget of its difficulty.
+     *
+     * @param model      the position
+     * @param difficulty the difficulty
+     * @return the best move found, null if the search was cancelled
+     */
+    private org.reversi.cli.Coordinate search(ReversiModel model, Difficulty difficulty) {
+        if (difficulty == Difficulty.HARD) {
+            final Optional<SearchResult> perfect = perfectPlay.flatMap(table -> table.lookup(model));
+            if (perfect.isPresent()) {
+                return perfect.get().bestMove();
+            }
+        }
+        final CancellationToken token = new CancellationToken();
+        final SearchBudget budget = SearchBudget.ofNodes(difficulty.getMaxNodes())
+                .withTimeout(timeBudget)
+                .withToken(token);
+        runningSearches.add(token);
+        try {
+            final SearchResult result = new ReversiAgent(model, difficulty.getDepth(), model.getCurrentPlayer(), weights)
+                    .search(budget);
+            if (token.isCancelled()) {
+                return null;
+            }
+            if (!result.complete()) {
+                truncatedSearches.increment();
+            }
+            return result.bestMove();
+        } finally {
+            runningSearches.remove(token);
+        }
+    }
+
+    /**
+     * Stops the running searches, so that shutting down doesn't wait for them.
+     */
+    @PreDestroy
+    public void cancelSearches() {
+        runningSearches.forEach(CancellationToken::cancel);
+    }
+}
@@ -0,0 +1,170 @@
+package org.reversi.web.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PerfectPlayTable;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+import org.reversi.web.cluster.ShardRouter;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.exceptions.InvalidParamException;
+import org.reversi.web.model.*;
+import org.reversi.web.storage.GameStorage;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Scores every possible move of a game's current position, for the players' hints.
+ * <p>
+ * Analyses are cached process-wide by position, so a position reached in many games, typically an opening,
+ * is searched once and then served from memory. The cache is bounded in entries and evicts by
+ * Caffeine's W-TinyLFU policy, combining recency and frequency. Concurrent requests for the same position
+ * share a single search. Positions of the perfect play table, if one is set, are looked up instead,
+ * with their exact final scores.
+ */
+@Service
+@Slf4j
+public class AnalysisService {
+    private final ThreadPoolTaskExecutor analysisExecutor;
+    private final GameStorage gameStorage;
+    private final ShardRouter shardRouter;
+    private final AsyncCache<PositionKey, Analysis> cache;
+    private final Duration timeBudget;
+    private final EvaluationWeights weights;
+    private final Optional<PerfectPlayTable> perfectPlay;
+    private final int maxDepth;
+
+    /**
+     * The cached analysis of a position, independent of the game it was reached in.
+     *
+     * @param depth the search depth reached
+     * @param moves the scores of all possible moves, best first
+     */
+    private record Analysis(int depth, List<MoveScore> moves) { }
+
+    /**
+     * Instantiates a new Analysis service.
+     *
+     * @param analysisExecutor the analysis executor
+     * @param gameStorage      the game storage
+     * @param shardRouter      the shard router
+     * @param meterRegistry    the meter registry
+     * @param weights          the evaluation weights
+     * @param perfectPlay      the perfect play table, if any
+     * @param timeBudgetMs     the time in ms an analysis may take
+     * @param maxDepth         the deepest search of an analysis
+     * @param cacheSize        the number of cached positions
+     */
+    public AnalysisService(@Qualifier("analysisExecutor") ThreadPoolTaskExecutor analysisExecutor,
+                           GameStorage gameStorage,
+                           ShardRouter shardRouter,
+                           MeterRegistry meterRegistry,
+                           EvaluationWeights weights,
+                           Optional<PerfectPlayTable> perfectPlay,
+                           @Value("${analysis.time-budget-ms}") long timeBudgetMs,
+                           @Value("${analysis.max-depth}") int maxDepth,
+                           @Value("${analysis.cache.size}") long cacheSize) {
+        this.analysisExecutor = analysisExecutor;
+        this.gameStorage = gameStorage;
+        this.shardRouter = shardRouter;
+        this.weights = weights;
+        this.perfectPlay = perfectPlay;
+        this.timeBudget = Duration.ofMillis(timeBudgetMs);
+        this.maxDepth = maxDepth;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .buildAsync();
+        // cache.gets{result=hit|miss}, cache.evictions and cache.size, tagged with cache=analysis
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "analysis");
+    }
+
+    /**
+     * Analyzes the current position of a game.
+     *
+     * @param gameId the game id
+     * @return the scores of all possible moves
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    public AnalysisView analyze(String gameId) throws InvalidParamException, InvalidGameException {
+        shardRouter.requireOwner(gameId);
+        final ReversiGame game = gameStorage.getGame(gameId);
+        if (game == null) {
+            throw new InvalidParamException("The requested game doesn't exist");
+        }
+
+        final GameSnapshot snapshot = game.getSnapshot();
+        if (snapshot.status() != GameStatus.IN_PROGRESS) {
+            throw new InvalidGameException("Only games in progress can be analyzed");
+        }
+        final ReversiModel model = ModelConverter.toModel(snapshot);
+        final Disk toMove = Disk.fromValue(ModelConverter.toDiskValue(model.getCurrentPlayer()));
+
+        final Optional<SearchResult> perfect = perfectPlay.flatMap(table -> table.lookup(model));
+        if (perfect.isPresent()) {
+            return new AnalysisView(gameId, toMove, perfect.get().depth(), MoveScorer.toMoveScores(perfect.get()));
+        }
+
+        final Analysis analysis;
+        try {
+            analysis = cache.get(PositionKey.of(model), (key, executor) ->
+                    CompletableFuture.supplyAsync(() -> search(model), analysisExecutor)
+            ).join();
+        } catch (RejectedExecutionException e) {
+            throw new InvalidGameException("The analysis is busy, try again", e);
+        } catch (CompletionException e) {
+            log.error("Analysis failed in game {}", gameId, e.getCause());
+            throw new InvalidGameException("The analysis failed", e.getCause());
+        }
+
+        return new AnalysisView(gameId, toMove, analysis.depth(), analysis.moves());
+    }
+
+    /**
+     * Scores the possible moves by iterative deepening, until the time budget or the end of the game is reached.
+     * The search in progress at the deadline is abandoned, only fully searched depths are kept.
+     *
+     * @param model the position
+     * @return the analysis of the position
+     */
+    private Analysis search(ReversiModel model) {
+        final int depth = Math.min(maxDepth, countEmpties(model));
+        final SearchResult result = MoveScorer.search(model, depth, SearchBudget.ofTime(timeBudget), weights);
+        if (result.depth() == 0) {
+            // not even one ply within the budget, which the scores of the first moves can't stand for
+            return new Analysis(1, MoveScorer.toMoveScores(MoveScorer.search(model, 1, SearchBudget.UNLIMITED, weights)));
+        }
+        return new Analysis(result.depth(), MoveScorer.toMoveScores(result));
+    }
+
+    /**
+     * @param model the position
+     * @return the number of empty cells, no search needs to be deeper
+     */
+    private static int countEmpties(ReversiModel model) {
+        int empties = 0;
+        for (int[] row : model.getBoard()) {
+            for (int cell : row) {
+                if (cell == ReversiModel.EMPTY) {
+                    empties++;
+                }
+            }
+        }
+        return empties;
+    }
+}
@@ -0,0 +1,284 @@
+package org.reversi.web.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.cli.CancellationToken;
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PositionCodec;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+import org.reversi.web.controller.dto.EvaluationRequest;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.EvaluationResult;
+import org.reversi.web.model.MoveScore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Evaluates streams of positions, one JSON object per line in and out.
+ * <p>
+ * Each job reads a position only once fewer than {@code batch.window} positions are in flight,
+ * and writes the results in input order as soon as they're done. A job thus holds at most a window of
+ * positions and results, whatever the size of its input, and a slow reader of the results slows down
+ * the reading of the positions. The positions of all jobs are searched on the bounded batch executor.
+ * Each search is bounded by {@code batch.max-nodes}, so a position costs at most as much CPU whatever its depth,
+ * and the searches of a job are cancelled once its client went away. A job holds its slot until its positions
+ * left the executor queue, so the queue never holds more than the windows of {@code batch.max-jobs} jobs.
+ */
+@Service
+@Slf4j
+public class BatchEvaluationService {
+    /**
+     * largest board accepted, as for {@link org.reversi.cli.GameHistory}
+     */
+    private static final int MAX_SIZE = 15;
+
+    private static final String BUSY = "Too many batch evaluations running, try again";
+
+    private final ThreadPoolTaskExecutor batchExecutor;
+    private final ObjectReader requestReader;
+    private final ObjectMapper objectMapper;
+    private final Counter positions;
+    private final int window;
+    private final int defaultDepth;
+    private final int maxDepth;
+    private final long maxNodes;
+    private final EvaluationWeights weights;
+
+    /**
+     * one permit per concurrently running job
+     */
+    private final Semaphore jobs;
+
+    /**
+     * Instantiates a new Batch evaluation service.
+     *
+     * @param batchExecutor the batch executor
+     * @param objectMapper  the object mapper
+     * @param meterRegistry the meter registry
+     * @param weights       the evaluation weights
+     * @param maxJobs       the number of concurrently running jobs
+     * @param window        the number of positions in flight per job
+     * @param defaultDepth  the search depth of positions without one
+     * @param maxDepth      the deepest search allowed
+     * @param maxNodes      the nodes a position may search
+     */
+    public BatchEvaluationService(@Qualifier("batchExecutor") ThreadPoolTaskExecutor batchExecutor,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  EvaluationWeights weights,
+                                  @Value("${batch.max-jobs}") int maxJobs,
+                                  @Value("${batch.window}") int window,
+                                  @Value("${batch.depth}") int defaultDepth,
+                                  @Value("${batch.max-depth}") int maxDepth,
+                                  @Value("${batch.max-nodes}") long maxNodes) {
+        this.batchExecutor = batchExecutor;
+        this.objectMapper = objectMapper;
+        this.weights = weights;
+        this.requestReader = objectMapper.readerFor(EvaluationRequest.class);
+        this.jobs = new Semaphore(maxJobs);
+        this.window = window;
+        this.defaultDepth = defaultDepth;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.positions = Counter.builder("reversi.batch.positions")
+                .description("Positions evaluated by batch jobs")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks that a job may run, so that a busy server rejects most requests before their response starts streaming.
+     * The job only takes its slot once it runs, see {@link #evaluate(InputStream, OutputStream)}.
+     *
+     * @throws InvalidGameException if the maximum of concurrent jobs is running
+     */
+    public void requireCapacity() throws InvalidGameException {
+        if (jobs.availablePermits() == 0) {
+            throw new InvalidGameException(BUSY);
+        }
+    }
+
+    /**
+     * Runs a job. The job takes its slot here and releases it once done, so a response that never streams
+     * holds no slot; a job that finds no slot left answers a single failed line.
+     *
+     * @param in  the positions, one {@link EvaluationRequest} per line
+     * @param out the results, one {@link EvaluationResult} per line in input order
+     * @throws IOException if reading the positions or writing the results fails
+     */
+    public void evaluate(InputStream in, OutputStream out) throws IOException {
+        if (!jobs.tryAcquire()) {
+            write(EvaluationResult.failed(null, BUSY), out);
+            out.flush();
+            return;
+        }
+        final ArrayDeque<CompletableFuture<EvaluationResult>> inFlight = new ArrayDeque<>(window);
+        final SearchBudget budget = SearchBudget.ofNodes(maxNodes).withToken(new CancellationToken());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (inFlight.size() == window) {
+                    // backpressure: wait for the oldest position before reading the next
+                    out.flush();
+                    write(inFlight.poll().join(), out);
+                }
+                inFlight.add(submit(line, budget));
+                while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                    write(inFlight.poll().join(), out);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll().join(), out);
+            }
+            out.flush();
+        } finally {
+            // the client went away, don't search positions nobody reads: the queued ones return at once.
+            // the job is released once they left the queue, which only fits the windows of the running jobs
+            budget.token().cancel();
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                    .whenComplete((results, e) -> jobs.release());
+        }
+    }
+
+    /**
+     * Parses a position and submits its search.
+     *
+     * @param line   the position
+     * @param budget the budget of each search of the job
+     * @return the future result
+     */
+    private CompletableFuture<EvaluationResult> submit(String line, SearchBudget budget) {
+        EvaluationRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(EvaluationResult.failed(null, "Malformed position"));
+        }
+        if (request.position() != null) {
+            try {
+                request = decode(request);
+            } catch (IllegalArgumentException e) {
+                return CompletableFuture.completedFuture(
+                        EvaluationResult.failed(request.id(), "Invalid position: " + e.getMessage()));
+            }
+        }
+        final String error = validate(request);
+        if (error != null) {
+            return CompletableFuture.completedFuture(EvaluationResult.failed(request.id(), error));
+        }
+        final EvaluationRequest valid = request;
+        // the queue of the executor fits the windows of all jobs, so submitting doesn't block, nor fail in principle
+        try {
+            return CompletableFuture.supplyAsync(() -> evaluate(valid, budget), batchExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(EvaluationResult.failed(request.id(), "Server busy, try again"));
+        }
+    }
+
+    /**
+     * Reads the notation of a position into its board and player to move.
+     *
+     * @param request the position, in notation
+     * @return the same position, as a board and a player to move
+     * @throws IllegalArgumentException if the notation is invalid
+     */
+    private static EvaluationRequest decode(EvaluationRequest request) {
+        final ReversiModel model = PositionCodec.parse(request.position());
+        final Disk toMove = Disk.fromValue(ModelConverter.toDiskValue(model.getCurrentPlayer()));
+        return new EvaluationRequest(request.id(), ModelConverter.toBoard(model), toMove, null, request.depth());
+    }
+
+    /**
+     * @param request the position
+     * @return the reason the position is invalid, null if it's valid
+     */
+    private String validate(EvaluationRequest request) {
+        final int[][] board = request.board();
+        if (board == null || board.length < 2 || board.length > MAX_SIZE) {
+            return "Board size must be between 2 and " + MAX_SIZE;
+        }
+        for (int[] row : board) {
+            if (row == null || row.length != board.length) {
+                return "Board must be square";
+            }
+            for (int cell : row) {
+                if (cell != Disk.WHITE.getValue() && cell != Disk.BLACK.getValue() && cell != 0) {
+                    return "Invalid cell value " + cell;
+                }
+            }
+        }
+        if (request.toMove() == null) {
+            return "Player to move missing";
+        }
+        if (request.depth() != null && (request.depth() < 1 || request.depth() > maxDepth)) {
+            return "Depth must be between 1 and " + maxDepth;
+        }
+        return null;
+    }
+
+    /**
+     * Searches a valid position.
+     *
+     * @param request the position
+     * @param budget  the budget of the search
+     * @return the result
+     */
+    private EvaluationResult evaluate(EvaluationRequest request, SearchBudget budget) {
+        if (budget.token().isCancelled()) {
+            return EvaluationResult.failed(request.id(), "Job cancelled");
+        }
+        try {
+            final ReversiModel model = ModelConverter.toModel(request.board(), request.toMove());
+            if (model.isGameOver()) {
+                return new EvaluationResult(request.id(), null, null, List.of(), 0, true, null);
+            }
+            final int depth = request.depth() == null ? defaultDepth : request.depth();
+            final SearchResult result = MoveScorer.search(model, depth, budget, weights);
+            final List<MoveScore> moves = MoveScorer.toMoveScores(result);
+            final Disk toMove = Disk.fromValue(ModelConverter.toDiskValue(model.getCurrentPlayer()));
+            final Coordinate bestMove = new Coordinate(result.bestMove().x(), result.bestMove().y());
+            return new EvaluationResult(request.id(), toMove, bestMove, moves, result.depth(), result.complete(), null);
+        } catch (RuntimeException e) {
+            log.debug("Evaluation of position {} failed", request.id(), e);
+            return EvaluationResult.failed(request.id(), "Evaluation failed");
+        } finally {
+            positions.increment();
+        }
+    }
+
+    /**
+     * Writes a result as a single line.
+     *
+     * @param result the result
+     * @param out    the response
+     * @throws IOException if writing fails
+     */
+    private void write(EvaluationResult result, OutputStream out) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(result));
+        out.write('\n');
+    }
+}
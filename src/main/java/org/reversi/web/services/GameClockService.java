@@ -0,0 +1,153 @@
+package org.reversi.web.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.reversi.web.clock.TimingWheel;
+import org.reversi.web.model.GameClock;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.model.ReversiGame;
+import org.reversi.web.storage.GameStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces the time control of the games: the player to move loses the game once their flag falls.
+ * <p>
+ * Each game in progress has a single timeout on a {@link TimingWheel}, at the deadline of the player to move,
+ * rescheduled after every move. An expired timeout checks the game again, so that a timeout left behind
+ * by a move can't end the game. A move made after the deadline, before the timeout ran, ends the game as well.
+ */
+@Service
+public class GameClockService {
+    private final GameStorage gameStorage;
+    private final GameNotifier gameNotifier;
+    private final TimingWheel wheel;
+    private final Counter flagFalls;
+    private final long baseMs;
+    private final long incrementMs;
+
+    /**
+     * the timeout of each game in progress, with the version of the game it was scheduled for
+     */
+    private final Map<String, Scheduled> timeouts = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Game clock service.
+     *
+     * @param gameStorage   the game storage
+     * @param gameNotifier  the game notifier
+     * @param meterRegistry the meter registry
+     * @param baseMs        the time of each player, 0 for games without time control
+     * @param incrementMs   the time added to a player's clock after each of their moves
+     * @param tickMs        the resolution of the timeouts
+     * @param wheelSize     the number of ticks in a turn of the timing wheel
+     */
+    public GameClockService(GameStorage gameStorage, GameNotifier gameNotifier, MeterRegistry meterRegistry,
+                            @Value("${clock.base-ms}") long baseMs,
+                            @Value("${clock.increment-ms}") long incrementMs,
+                            @Value("${clock.tick-ms}") long tickMs,
+                            @Value("${clock.wheel-size}") int wheelSize) {
+        this.gameStorage = gameStorage;
+        this.gameNotifier = gameNotifier;
+        this.baseMs = baseMs;
+        this.incrementMs = incrementMs;
+        this.wheel = new TimingWheel(Duration.ofMillis(tickMs), wheelSize, "game-clock");
+        this.flagFalls = Counter.builder("reversi.clock.flag-falls")
+                .description("Games lost on time")
+                .register(meterRegistry);
+        Gauge.builder("reversi.clock.pending", wheel, TimingWheel::pending)
+                .description("Running game clocks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the clock of a new game.
+     *
+     * @return the clock, not running yet, null if time control is disabled
+     */
+    public GameClock newClock() {
+        return baseMs > 0 ? GameClock.of(baseMs, incrementMs) : null;
+    }
+
+    /**
+     * Schedules the flag fall of the player to move, replacing the timeout of an older version of the game.
+     * Once the game is over, its timeout is cancelled instead.
+     *
+     * @param game     the game
+     * @param snapshot the state of the game just swapped in
+     */
+    public void schedule(ReversiGame game, GameSnapshot snapshot) {
+        if (snapshot.clock() == null) {
+            return;
+        }
+        final String gameId = snapshot.gameId();
+        if (snapshot.status() != GameStatus.IN_PROGRESS) {
+            final Scheduled removed = timeouts.remove(gameId);
+            if (removed != null) {
+                removed.timeout().cancel();
+            }
+            return;
+        }
+
+        final long delay = snapshot.clock().deadline(snapshot.currentGamePlayer().disk()) - System.currentTimeMillis();
+        timeouts.compute(gameId, (id, scheduled) -> {
+            if (scheduled != null && scheduled.sequence() > snapshot.sequence()) {
+                // a newer version is already scheduled
+                return scheduled;
+            }
+            if (scheduled != null) {
+                scheduled.timeout().cancel();
+            }
+            return new Scheduled(snapshot.sequence(),
+                    wheel.schedule(() -> expire(game), delay, TimeUnit.MILLISECONDS));
+        });
+    }
+
+    /**
+     * Ends the game if the player to move ran out of time, otherwise schedules the flag fall again.
+     *
+     * @param game the game
+     */
+    public void expire(ReversiGame game) {
+        while (true) {
+            final GameSnapshot current = game.getSnapshot();
+            if (!current.hasFlagFallen(System.currentTimeMillis())) {
+                schedule(game, current);
+                return;
+            }
+            final GameSnapshot next = current.timeout();
+            if (game.update(current, next)) {
+                gameStorage.addGame(game);
+                gameStorage.recordTransition(current.status(), next.status());
+                schedule(game, next);
+                flagFalls.increment();
+                gameNotifier.publishSnapshot(next);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stops the timing wheel.
+     */
+    @PreDestroy
+    public void stop() {
+        wheel.close();
+    }
+
+    /**
+     * A timeout of a game.
+     *
+     * @param sequence the version of the game it was scheduled for
+     * @param timeout  the timeout
+     */
+    private record Scheduled(int sequence, TimingWheel.Timeout timeout) { }
+}
@@ -0,0 +1,97 @@
+package org.reversi.web.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.reversi.web.model.GameUpdate;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.session.SessionRegistry;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Publishes game progress to the players subscribed to {@code /topic/game-progress/{gameId}}
+ * and to the spectators of the game.
+ * <p>
+ * Each payload is serialized to JSON once, and the same bytes are handed to the broker and the {@link SpectatorHub}.
+ * Once a game is over, the {@link SessionRegistry} drops the subscriptions to its topic and the {@link SpectatorHub}
+ * closes its spectators.
+ */
+@Service
+@AllArgsConstructor
+public class GameNotifier {
+    /**
+     * the prefix of the topic of each game
+     */
+    public static final String GAME_PROGRESS_TOPIC = "/topic/game-progress/";
+
+    private final SimpMessagingTemplate simpMessagingTemplate;
+    private final SpectatorHub spectatorHub;
+    private final ObjectMapper objectMapper;
+    private final SessionRegistry sessionRegistry;
+
+    /**
+     * Publishes the full game, sent when a player joins.
+     *
+     * @param game the game
+     */
+    public void publishSnapshot(GameSnapshot game) {
+        publish(game.gameId(), game);
+        if (game.isGameOver()) {
+            gameFinished(game.gameId());
+        }
+    }
+
+    /**
+     * Publishes the delta of a move.
+     *
+     * @param update the game update
+     */
+    public void publishUpdate(GameUpdate update) {
+        publish(update.gameId(), update);
+        GameUpdate last = update;
+        while (last.reply() != null) {
+            last = last.reply();
+        }
+        if (last.status() == GameStatus.FINISHED) {
+            gameFinished(update.gameId());
+        }
+    }
+
+    /**
+     * Lets go of the players and spectators of a game whose final update was published.
+     *
+     * @param gameId the game id
+     */
+    private void gameFinished(String gameId) {
+        sessionRegistry.gameFinished(gameId);
+        spectatorHub.gameFinished(gameId);
+    }
+
+    /**
+     * Serializes the payload once and sends it to the players and spectators of the game.
+     *
+     * @param gameId  the game id
+     * @param payload the payload
+     */
+    private void publish(String gameId, Object payload) {
+        final byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        simpMessagingTemplate.send(GAME_PROGRESS_TOPIC + gameId, MessageBuilder.withPayload(json)
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build());
+        spectatorHub.broadcast(gameId, new TextMessage(json));
+    }
+}
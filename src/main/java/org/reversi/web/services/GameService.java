@@ -1,45 +1,171 @@
 package org.reversi.web.services;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reversi.cli.GameHistory;
+import org.reversi.cli.PositionCodec;
+import org.reversi.cli.ReversiModel;
+import org.reversi.web.admission.ClientRateLimiter;
+import org.reversi.web.admission.LoadShedder;
+import org.reversi.web.cluster.ShardRouter;
 import org.reversi.web.controller.dto.Client;
 import org.reversi.web.controller.dto.Move;
+import org.reversi.web.exceptions.GameNotOwnedException;
 import org.reversi.web.exceptions.InvalidGameException;
 import org.reversi.web.exceptions.InvalidParamException;
+import org.reversi.web.exceptions.RateLimitedException;
 import org.reversi.web.model.*;
 import org.reversi.web.storage.GameStorage;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Game service class effectuating the requests made by {@link org.reversi.web.controller.GameController}.
  */
 @Service
-@AllArgsConstructor
 public class GameService {
+    private final GameNotifier gameNotifier;
+    private final AgentService agentService;
+    private final MeterRegistry meterRegistry;
+    private final GameStorage gameStorage;
+    private final ShardRouter shardRouter;
+    private final ClientRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final GameClockService clockService;
+
+    private final Timer createTimer;
+    private final Timer connectTimer;
+    private final Timer moveTimer;
+    private final Counter premovesPlayed;
+    private final Counter premovesMissed;
+
+    /**
+     * Instantiates a new Game service.
+     *
+     * @param gameNotifier  the game notifier
+     * @param agentService  the agent service
+     * @param meterRegistry the meter registry
+     * @param gameStorage   the game storage
+     * @param shardRouter   the shard router
+     * @param rateLimiter   the client rate limiter
+     * @param loadShedder   the load shedder, fed with the move latencies
+     * @param clockService  the game clock service
+     */
+    public GameService(GameNotifier gameNotifier, AgentService agentService, MeterRegistry meterRegistry,
+                       GameStorage gameStorage, ShardRouter shardRouter,
+                       ClientRateLimiter rateLimiter, LoadShedder loadShedder, GameClockService clockService) {
+        this.gameNotifier = gameNotifier;
+        this.agentService = agentService;
+        this.meterRegistry = meterRegistry;
+        this.gameStorage = gameStorage;
+        this.shardRouter = shardRouter;
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.clockService = clockService;
+        this.createTimer = operationTimer("create");
+        this.connectTimer = operationTimer("connect");
+        this.moveTimer = operationTimer("move");
+        this.premovesPlayed = premoveCounter("played");
+        this.premovesMissed = premoveCounter("missed");
+    }
+
+    /**
+     * Builds the counter of the premoves resolved with an outcome.
+     *
+     * @param outcome played, or missed when the opponent's move wasn't expected or the reply wasn't possible
+     * @return the counter
+     */
+    private Counter premoveCounter(String outcome) {
+        return Counter.builder("reversi.game.premoves")
+                .description("Premoves resolved after the opponent's move")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Builds the timer of a game operation.
+     *
+     * @param operation the operation
+     * @return the timer
+     */
+    private Timer operationTimer(String operation) {
+        return Timer.builder("reversi.game.operation")
+                .description("Latency of the game service operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     /**
      * Create game reversi game.
      *
      * @param client the client
      * @return the reversi game
+     * @throws RateLimitedException if the client creates games too fast
      */
-    public ReversiGame createGame(Client client) {
-        ReversiGame game = new ReversiGame();
-        game.setStatus(GameStatus.NEW);
-        game.setGameId(UUID.randomUUID().toString());
+    public GameSnapshot createGame(Client client) throws RateLimitedException {
+        requireCreateToken(client);
+        return createTimer.record(() -> newGame(client, null));
+    }
 
+    /**
+     * Limits the games a login creates, whichever address or instance it creates them from.
+     *
+     * @param client the client
+     * @throws RateLimitedException if the client creates games too fast
+     */
+    private void requireCreateToken(Client client) throws RateLimitedException {
+        final String login = "login:" + client.login();
+        if (!rateLimiter.tryAcquire(ClientRateLimiter.Limit.CREATE, login)) {
+            throw new RateLimitedException("Too many new games, slow down",
+                    rateLimiter.retryAfterSeconds(ClientRateLimiter.Limit.CREATE, login));
+        }
+    }
+
+    /**
+     * Creates and stores a new game.
+     *
+     * @param client     the client
+     * @param difficulty the difficulty of the computer opponent, null to wait for a second player
+     * @return the reversi game
+     */
+    private GameSnapshot newGame(Client client, Difficulty difficulty) {
         // feature: allow client to pick size
         GamePlayer gamePlayer = new GamePlayer(client.login(), Disk.WHITE);
-        game.setBoard(4);
-        game.setGamePlayer1(gamePlayer);
-        game.setPossibleMovesFor(gamePlayer);
-        game.setCurrentGamePlayer(gamePlayer);
+        GameSnapshot snapshot = GameSnapshot.start(shardRouter.newGameId(), 4, gamePlayer)
+                .withClock(clockService.newClock());
+        if (difficulty != null) {
+            snapshot = snapshot.withDifficulty(difficulty)
+                    .withPlayer2(new GamePlayer(ReversiGame.COMPUTER_LOGIN, Disk.BLACK), System.currentTimeMillis());
+        }
 
+        final ReversiGame game = new ReversiGame(snapshot);
+        gameStorage.addGame(game);
+        clockService.schedule(game, snapshot);
 
-        GameStorage.getInstance().addGame(game);
+        return snapshot;
+    }
 
-        return game;
+    /**
+     * Create a reversi game against the computer, the client plays white and moves first.
+     *
+     * @param client     the client
+     * @param difficulty the difficulty of the computer opponent
+     * @return the reversi game
+     * @throws InvalidParamException the invalid param exception
+     * @throws RateLimitedException  if the client creates games too fast
+     */
+    public GameSnapshot createComputerGame(Client client, Difficulty difficulty)
+            throws InvalidParamException, RateLimitedException {
+        if (difficulty == null) {
+            throw new InvalidParamException("Difficulty missing");
+        }
+        requireCreateToken(client);
+        return createTimer.record(() -> newGame(client, difficulty));
     }
 
     /**
@@ -51,20 +177,31 @@ public class GameService {
      * @throws InvalidParamException the invalid param exception
      * @throws InvalidGameException  the invalid game exception
      */
-    public ReversiGame connectToGame(Client client2, String gameId) throws InvalidParamException, InvalidGameException {
-        if (!GameStorage.getInstance().getGames().containsKey(gameId)) {
-            throw new InvalidParamException("");
+    public GameSnapshot connectToGame(Client client2, String gameId) throws InvalidParamException, InvalidGameException {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinGame(client2, gameId);
+        } finally {
+            sample.stop(connectTimer);
         }
-        ReversiGame game = GameStorage.getInstance().getGames().get(gameId);
-        if (game.getGamePlayer2() != null) {
-            throw new InvalidGameException("Game is busy");
-        }
-        GamePlayer gamePlayer2 = new GamePlayer(client2.login(), Disk.BLACK);
-        game.setGamePlayer2(gamePlayer2);
-        game.setStatus(GameStatus.IN_PROGRESS);
+    }
 
-        GameStorage.getInstance().addGame(game);
-        return game;
+    /**
+     * Joins the game specified by the gameId as its second player.
+     *
+     * @param client2 the client 2
+     * @param gameId  the game id
+     * @return the reversi game
+     * @throws InvalidParamException the invalid param exception
+     * @throws InvalidGameException  the invalid game exception
+     */
+    private GameSnapshot joinGame(Client client2, String gameId) throws InvalidParamException, InvalidGameException {
+        shardRouter.requireOwner(gameId);
+        ReversiGame game = gameStorage.getGame(gameId);
+        if (game == null) {
+            throw new InvalidParamException("");
+        }
+        return join(game, client2);
     }
 
     /**
@@ -74,51 +211,265 @@ public class GameService {
      * @return the reversi game
      * @throws InvalidGameException the invalid game exception
      */
-    public ReversiGame connectToRandomGame(Client client2) throws InvalidGameException {
-        Optional<ReversiGame> optionalGame = GameStorage.getInstance().getGames().values().stream()
-                .filter(game -> game.getStatus().equals(GameStatus.NEW)).findFirst();
+    public GameSnapshot connectToRandomGame(Client client2) throws InvalidGameException {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return joinRandomGame(client2);
+        } finally {
+            sample.stop(connectTimer);
+        }
+    }
+
+    /**
+     * Joins a random new game as its second player.
+     *
+     * @param client2 the client 2
+     * @return the reversi game
+     * @throws InvalidGameException the invalid game exception
+     */
+    private GameSnapshot joinRandomGame(Client client2) throws InvalidGameException {
+        Optional<ReversiGame> optionalGame = gameStorage.findGame(
+                GameStatus.NEW, game -> shardRouter.owns(game.getGameId())
+        );
         if (optionalGame.isEmpty()) {
+            // redirects to the owner of a new game, which then joins one of its own
+            final Optional<ReversiGame> remoteGame = gameStorage.findGame(GameStatus.NEW, game -> true);
+            if (remoteGame.isPresent()) {
+                shardRouter.requireOwner(remoteGame.get().getGameId());
+            }
             throw new InvalidGameException("No game available");
         }
-        ReversiGame game = optionalGame.get();
+        return join(optionalGame.get(), client2);
+    }
 
-        GamePlayer gamePlayer2 = new GamePlayer(client2.login(), Disk.BLACK);
-        game.setGamePlayer2(gamePlayer2);
-        game.setStatus(GameStatus.IN_PROGRESS);
+    /**
+     * Swaps in the joined state of a new game and broadcasts it.
+     *
+     * @param game    the game
+     * @param client2 the client 2
+     * @return the joined game
+     * @throws InvalidGameException if the game already has a second player
+     */
+    private GameSnapshot join(ReversiGame game, Client client2) throws InvalidGameException {
+        final GameSnapshot current = game.getSnapshot();
+        if (current.gamePlayer2() != null) {
+            throw new InvalidGameException("Game is busy");
+        }
+        final GameSnapshot joined = current.withPlayer2(new GamePlayer(client2.login(), Disk.BLACK),
+                System.currentTimeMillis());
+        if (!game.update(current, joined)) {
+            // someone else joined first
+            throw new InvalidGameException("Game is busy");
+        }
 
-        GameStorage.getInstance().addGame(game);
+        gameStorage.addGame(game);
+        gameStorage.recordTransition(GameStatus.NEW, GameStatus.IN_PROGRESS);
+        clockService.schedule(game, joined);
+        gameNotifier.publishSnapshot(joined);
+        return joined;
+    }
 
-        return game;
+    /**
+     * Gets the current state of a reversi game, used by clients to resync.
+     *
+     * @param gameId the game id
+     * @return the reversi game
+     * @throws InvalidParamException the invalid param exception
+     * @throws GameNotOwnedException  if another instance owns the game
+     */
+    public GameSnapshot getGame(String gameId) throws InvalidParamException, GameNotOwnedException {
+        shardRouter.requireOwner(gameId);
+        ReversiGame game = gameStorage.getGame(gameId);
+        if (game == null) {
+            throw new InvalidParamException("The requested game doesn't exist");
+        }
+        return game.getSnapshot();
     }
 
     /**
-     * Make the given move in the game.
+     * Gets the recorded moves of a reversi game.
+     *
+     * @param gameId the game id
+     * @return the history of the game
+     * @throws InvalidParamException the invalid param exception
+     * @throws GameNotOwnedException  if another instance owns the game
+     */
+    public HistoryView getHistory(String gameId) throws InvalidParamException, GameNotOwnedException {
+        final GameHistory history = getGame(gameId).history();
+        final List<Coordinate> moves = new ArrayList<>();
+        for (int ply = 0; ply < history.getLength(); ply++) {
+            final org.reversi.cli.Coordinate move = history.getMove(ply);
+            moves.add(move == null ? null : new Coordinate(move.x(), move.y()));
+        }
+        return new HistoryView(gameId, history.getSize(), moves);
+    }
+
+    /**
+     * Replays the position of a reversi game after the given number of plies.
+     *
+     * @param gameId the game id
+     * @param ply    the number of plies
+     * @return the position
+     * @throws InvalidParamException the invalid param exception
+     * @throws GameNotOwnedException  if another instance owns the game
+     */
+    public PositionView getPosition(String gameId, int ply) throws InvalidParamException, GameNotOwnedException {
+        final GameHistory history = getGame(gameId).history();
+        if (ply < 0 || ply > history.getLength()) {
+            throw new InvalidParamException("ply must be between 0 and " + history.getLength());
+        }
+        final ReversiModel position = history.positionAt(ply);
+        final Disk toMove = position.isGameOver()
+                ? null : Disk.fromValue(ModelConverter.toDiskValue(position.getCurrentPlayer()));
+        return new PositionView(gameId, ply, ModelConverter.toBoard(position), toMove,
+                PositionCodec.format(position));
+    }
+
+    /**
+     * Make the given move in the game and broadcast its delta.
+     * Against the computer, its reply is searched for in the background and broadcast once found.
+     * Between two players, the opponent's premove answering the move is played right away,
+     * and both deltas are broadcast in one update.
      *
      * @param move the move
-     * @return the reversi game
+     * @return the delta of the move
      * @throws InvalidGameException the invalid game exception
      */
-    public ReversiGame move(Move move) throws InvalidGameException {
-        if (!GameStorage.getInstance().getGames().containsKey(move.getGameId())) {
+    public GameUpdate move(Move move) throws InvalidGameException {
+        final Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return makeMove(move);
+        } finally {
+            loadShedder.recordMove(sample.stop(moveTimer));
+        }
+    }
+
+    /**
+     * Applies the given move, see {@link GameService#move(Move)}.
+     *
+     * @param move the move
+     * @return the delta of the move
+     * @throws InvalidGameException the invalid game exception
+     */
+    private GameUpdate makeMove(Move move) throws InvalidGameException {
+        shardRouter.requireOwner(move.getGameId());
+        ReversiGame game = gameStorage.getGame(move.getGameId());
+        if (game == null) {
             throw new InvalidGameException("The game for the given move doesn't exist");
         }
 
+        final GameSnapshot current = game.getSnapshot();
+        // reserve the reply before touching the game, so a busy computer rejects the move as a whole
+        if (current.isComputerGame() && !agentService.tryReserve()) {
+            throw new InvalidGameException("The computer opponent is busy, try again");
+        }
+
+        final GameSnapshot next;
+        final PremoveChain chain;
+        boolean computerReplies = false;
+        try {
+            switch (current.status()) {
+                case NEW ->
+                    throw new InvalidGameException("Game hasn't started yet");
+                case FINISHED ->
+                    throw new InvalidGameException("Game is already over");
+            }
+            if (move.getSequence() != null && move.getSequence() != current.sequence()) {
+                throw new InvalidGameException("The move was made on an outdated board");
+            }
+            if (current.isComputerTurn()) {
+                throw new InvalidGameException("It's the computer's turn");
+            }
+            final GamePlayer mover = current.moverOf(move.getDisk())
+                    .orElseThrow(() -> new InvalidGameException("It's not your turn"));
+            final List<Premove> premoves = move.getPremoves() == null ? List.of() : move.getPremoves();
+            if (!premoves.isEmpty() && current.isComputerGame()) {
+                throw new InvalidGameException("Premoves are only for games between two players");
+            }
+            final long now = System.currentTimeMillis();
+            if (current.hasFlagFallen(now)) {
+                // the timeout may not have run yet
+                clockService.expire(game);
+                throw new InvalidGameException("Time is up");
+            }
+            // also checks and sets winner when game over
+            next = current.play(move.getCoord().x(), move.getCoord().y(), now)
+                    .orElseThrow(() -> new InvalidGameException("invalid move request"));
+            chain = playPremoves(mover, current, next, premoves, now);
+            final GameSnapshot last = chain.last();
+            if (!game.update(current, last)) {
+                throw new InvalidGameException("The move was made on an outdated board");
+            }
+            premovesPlayed.increment(chain.replies().size());
+            if (chain.missed()) {
+                premovesMissed.increment();
+            }
 
-        ReversiGame game = GameStorage.getInstance().getGames().get(move.getGameId());
-        switch (game.getStatus()) {
-            case NEW ->
-                throw new InvalidGameException("Game hasn't started yet");
-            case IN_PROGRESS -> {
-                // also checks and sets winner when game over
-                if (!game.makeMove(move.getCoord().x(), move.getCoord().y())) {
-                    throw new InvalidGameException("invalid move request");
-                }
+            gameStorage.addGame(game);
+            gameStorage.recordTransition(current.status(), last.status());
+            clockService.schedule(game, last);
+            computerReplies = last.isComputerTurn() && !last.isGameOver();
+        } finally {
+            if (current.isComputerGame() && !computerReplies) {
+                agentService.release();
             }
-            case FINISHED ->
-                throw new InvalidGameException("Game is already over");
         }
 
-        GameStorage.getInstance().addGame(game);
-        return game;
+        // published without a lock: an update overtaken by the next one is a sequence gap, on which clients resync
+        final GameUpdate update = GameUpdate.of(next, chain.replies());
+        gameNotifier.publishUpdate(update);
+        if (computerReplies) {
+            agentService.reply(game);
+        }
+        return update;
     }
+
+    /**
+     * Plays the premoves answering a move: those of the opponent, then those of the mover answering the opponent's
+     * premove, and so on, each validated against the possible moves, for as long as they expect the last move.
+     *
+     * @param mover    the player who made the move
+     * @param current  the game before the move
+     * @param next     the game right after the move
+     * @param premoves the premoves sent with the move
+     * @param now      the current time in ms
+     * @return the premoves played
+     */
+    private PremoveChain playPremoves(GamePlayer mover, GameSnapshot current, GameSnapshot next,
+                                      List<Premove> premoves, long now) {
+        final List<GameSnapshot> replies = new ArrayList<>();
+        boolean missed = false;
+        GameSnapshot last = next;
+        List<Premove> moverPremoves = premoves;
+        List<Premove> toMovePremoves = current.premoves();
+        while (!last.isGameOver() && !last.currentGamePlayer().equals(mover) && !toMovePremoves.isEmpty()) {
+            final Premove premove = Premove.find(toMovePremoves, last.lastMove());
+            final Optional<GameSnapshot> reply = premove == null
+                    ? Optional.empty() : last.play(premove.reply().x(), premove.reply().y(), now);
+            if (reply.isEmpty()) {
+                missed = true;
+                break;
+            }
+            replies.add(reply.get());
+            mover = last.currentGamePlayer();
+            toMovePremoves = moverPremoves;
+            moverPremoves = premove.then();
+            last = reply.get();
+        }
+        if (!moverPremoves.isEmpty() && !last.isGameOver() && !last.currentGamePlayer().equals(mover)) {
+            // premoves are kept only while the other player is to move
+            last = last.withPremoves(moverPremoves);
+        }
+        return new PremoveChain(last, replies, missed);
+    }
+
+    /**
+     * The premoves played in reply to a move.
+     *
+     * @param last    the game to swap in, holding the premoves of the player waiting for the other one's move
+     * @param replies the game right after each premove played, in order
+     * @param missed  true iff the premoves of the player to move didn't expect the last move,
+     *                or their reply wasn't possible
+     */
+    private record PremoveChain(GameSnapshot last, List<GameSnapshot> replies, boolean missed) { }
 }
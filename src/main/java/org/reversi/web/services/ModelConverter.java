@@ -0,0 +1,85 @@
+package org.reversi.web.services;
+
+import org.reversi.cli.PositionCodec;
+import org.reversi.cli.ReversiModel;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.GameSnapshot;
+
+/**
+ * Converts between the web game and the model of {@link org.reversi.cli}, which the agent and the history play on.
+ * White moves first in both, so white is {@link ReversiModel#PLAYER1}, and the disk values are the cell codes
+ * of {@link PositionCodec}.
+ */
+public final class ModelConverter {
+    /**
+     * Forbidden constructor as ModelConverter is a utility class
+     */
+    private ModelConverter() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * Converts the web game into a model.
+     *
+     * @param game the game
+     * @return the model of the game
+     */
+    public static ReversiModel toModel(GameSnapshot game) {
+        return toModel(game.board(), game.currentGamePlayer().disk());
+    }
+
+    /**
+     * Converts a board of disk values into a model.
+     *
+     * @param disks  the board of disk values
+     * @param toMove the disk of the player to move
+     * @return the model of the position
+     */
+    public static ReversiModel toModel(int[][] disks, Disk toMove) {
+        final int size = disks.length;
+        final int[][] board = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                board[i][j] = toPlayer(disks[i][j]);
+            }
+        }
+        return ReversiModel.fromBoard(board, toPlayer(toMove.getValue()));
+    }
+
+    /**
+     * Converts the board of a model into disk values.
+     *
+     * @param model the model
+     * @return the board of disk values
+     */
+    public static int[][] toBoard(ReversiModel model) {
+        final int[][] board = model.getBoard();
+        final int[][] disks = new int[board.length][board.length];
+        for (int i = 0; i < board.length; i++) {
+            for (int j = 0; j < board.length; j++) {
+                disks[i][j] = toDiskValue(board[i][j]);
+            }
+        }
+        return disks;
+    }
+
+    /**
+     * Maps disk values to the model's player encoding.
+     *
+     * @param diskValue the disk value
+     * @return the player
+     */
+    public static int toPlayer(int diskValue) {
+        return PositionCodec.toPlayer(diskValue);
+    }
+
+    /**
+     * Maps the model's player encoding to disk values.
+     *
+     * @param player the player
+     * @return the disk value
+     */
+    public static int toDiskValue(int player) {
+        return PositionCodec.toCode(player);
+    }
+}
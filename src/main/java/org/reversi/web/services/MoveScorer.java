@@ -0,0 +1,53 @@
+package org.reversi.web.services;
+
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.ReversiAgent;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.MoveScore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores the possible moves of a position with the computer opponent's search.
+ */
+final class MoveScorer {
+    /**
+     * Forbidden constructor as MoveScorer is a utility class
+     */
+    private MoveScorer() {
+        throw new RuntimeException("Utility class can't be initialized.");
+    }
+
+    /**
+     * Scores every possible move of the player to move, within a budget.
+     *
+     * @param model  the position
+     * @param depth  the search depth
+     * @param budget the budget of the search
+     * @param weights the evaluation weights
+     * @return the result of the search
+     */
+    static SearchResult search(ReversiModel model, int depth, SearchBudget budget, EvaluationWeights weights) {
+        return new ReversiAgent(model, depth, model.getCurrentPlayer(), weights).search(budget);
+    }
+
+    /**
+     * @param result the result of a search
+     * @return the scores of the scored moves, best first
+     */
+    static List<MoveScore> toMoveScores(SearchResult result) {
+        final List<MoveScore> scores = new ArrayList<>();
+        for (Map.Entry<org.reversi.cli.Coordinate, Integer> entry : result.scores().entrySet()) {
+            final org.reversi.cli.Coordinate move = entry.getKey();
+            scores.add(new MoveScore(new Coordinate(move.x(), move.y()), entry.getValue()));
+        }
+        scores.sort(Comparator.comparingInt(MoveScore::score).reversed());
+        return List.copyOf(scores);
+    }
+}
@@ -0,0 +1,51 @@
+package org.reversi.web.services;
+
+import org.reversi.cli.PositionCodec;
+import org.reversi.cli.ReversiModel;
+
+import java.util.Arrays;
+
+/**
+ * Cache key of a position: the binary form of {@link PositionCodec}, the board plus the player to move.
+ * Equal positions reached through different games or move orders share the same key.
+ */
+public final class PositionKey {
+    private final int size;
+    private final byte[] bytes;
+    private final int hash;
+
+    /**
+     * Instantiates a new Position key.
+     *
+     * @param size  the board size
+     * @param bytes the binary form of the position
+     */
+    private PositionKey(int size, byte[] bytes) {
+        this.size = size;
+        this.bytes = bytes;
+        this.hash = 31 * size + Arrays.hashCode(bytes);
+    }
+
+    /**
+     * Packs the position of a model.
+     *
+     * @param model the model
+     * @return the key of the position
+     */
+    public static PositionKey of(ReversiModel model) {
+        return new PositionKey(model.getBoard().length, PositionCodec.encode(model));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof PositionKey other && size == other.size && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,166 @@
+package org.reversi.web.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.cluster.ShardRouter;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.ReversiGame;
+import org.reversi.web.storage.GameStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only WebSocket fan-out of the game progress to spectators, joining through {@code /spectate?gameId=...}.
+ * <p>
+ * Every update is serialized once by {@link GameNotifier} and the same frame is sent to every spectator.
+ * Each spectator gets a bounded send buffer: a slow spectator drops the buffered updates instead of
+ * growing the buffer, and resyncs from the full game once it notices the gap in the sequence numbers.
+ * Once the final update of a game went out, its spectators are closed normally and the game forgotten.
+ */
+@Service
+@Slf4j
+public class SpectatorHub extends TextWebSocketHandler {
+    private static final String GAME_ID_ATTRIBUTE = "gameId";
+    private static final CloseStatus GAME_OVER = CloseStatus.NORMAL.withReason("The game is over");
+
+    private final ObjectMapper objectMapper;
+    private final GameStorage gameStorage;
+    private final ShardRouter shardRouter;
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+
+    /**
+     * the spectators by game id
+     */
+    private final Map<String, Set<WebSocketSession>> spectators = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Spectator hub.
+     *
+     * @param objectMapper    the object mapper
+     * @param gameStorage     the game storage
+     * @param shardRouter     the shard router
+     * @param sendTimeLimit   the time in ms a single send to a spectator may take
+     * @param bufferSizeLimit the bytes buffered per spectator before dropping updates
+     */
+    public SpectatorHub(ObjectMapper objectMapper,
+                        GameStorage gameStorage,
+                        ShardRouter shardRouter,
+                        @Value("${spectator.send-time-limit-ms}") int sendTimeLimit,
+                        @Value("${spectator.buffer-size-limit}") int bufferSizeLimit) {
+        this.objectMapper = objectMapper;
+        this.gameStorage = gameStorage;
+        this.shardRouter = shardRouter;
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    @Override
+    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+        final String gameId = session.getUri() == null ? null : UriComponentsBuilder.fromUri(session.getUri())
+                .build().getQueryParams().getFirst(GAME_ID_ATTRIBUTE);
+        if (gameId != null && !shardRouter.owns(gameId)) {
+            // only the owner publishes the updates of a game
+            session.close(CloseStatus.POLICY_VIOLATION.withReason("The game is hosted on another instance"));
+            return;
+        }
+        final ReversiGame game = gameId == null ? null : gameStorage.getGame(gameId);
+        if (game == null) {
+            session.close(CloseStatus.BAD_DATA.withReason("The requested game doesn't exist"));
+            return;
+        }
+
+        final WebSocketSession spectator = new ConcurrentWebSocketSessionDecorator(
+                session, sendTimeLimit, bufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP
+        );
+        session.getAttributes().put(GAME_ID_ATTRIBUTE, gameId);
+
+        // register before taking the snapshot, so no update can fall in between
+        spectators.compute(gameId, (id, sessions) -> {
+            final Set<WebSocketSession> gameSpectators = sessions == null ? ConcurrentHashMap.newKeySet() : sessions;
+            gameSpectators.add(spectator);
+            return gameSpectators;
+        });
+        final GameSnapshot snapshot = game.getSnapshot();
+        spectator.sendMessage(new TextMessage(objectMapper.writeValueAsBytes(snapshot)));
+        if (snapshot.isGameOver()) {
+            // the game may have finished before the spectator was registered, nothing more will be sent
+            spectator.close(GAME_OVER);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+        final Object gameId = session.getAttributes().get(GAME_ID_ATTRIBUTE);
+        if (gameId == null) {
+            return;
+        }
+        spectators.computeIfPresent((String) gameId, (id, sessions) -> {
+            sessions.removeIf(spectator -> spectator.getId().equals(session.getId()));
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    @Override
+    protected void handleTextMessage(@NonNull WebSocketSession session, @NonNull TextMessage message) {
+        // spectators are read-only
+    }
+
+    /**
+     * Sends an already serialized update to all spectators of the game.
+     *
+     * @param gameId the game id
+     * @param frame  the serialized update
+     */
+    public void broadcast(String gameId, TextMessage frame) {
+        final Set<WebSocketSession> sessions = spectators.get(gameId);
+        if (sessions == null) {
+            return;
+        }
+        boolean dropped = false;
+        for (WebSocketSession spectator : sessions) {
+            try {
+                spectator.sendMessage(frame);
+            } catch (IOException | RuntimeException e) {
+                // the decorator closes spectators exceeding the send time limit
+                log.debug("Dropping spectator {} of game {}", spectator.getId(), gameId, e);
+                sessions.remove(spectator);
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            spectators.computeIfPresent(gameId, (id, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    /**
+     * Closes the spectators of a game whose final update was broadcast, and forgets the game.
+     *
+     * @param gameId the game id
+     */
+    public void gameFinished(String gameId) {
+        final Set<WebSocketSession> sessions = spectators.remove(gameId);
+        if (sessions == null) {
+            return;
+        }
+        for (WebSocketSession spectator : sessions) {
+            try {
+                spectator.close(GAME_OVER);
+            } catch (IOException | RuntimeException e) {
+                log.debug("Closing spectator {} of game {} failed", spectator.getId(), gameId, e);
+            }
+        }
+    }
+}
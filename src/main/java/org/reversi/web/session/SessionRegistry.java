@@ -0,0 +1,299 @@
+package org.reversi.web.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.reversi.web.services.GameNotifier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the STOMP sessions, closes those gone silent and drops the subscriptions to finished games.
+ * <p>
+ * Every session is registered by decorating the WebSocket handler, whatever its SockJS transport, and every frame
+ * it sends through the client inbound channel, heartbeats included, marks it active. A session silent for longer
+ * than the idle timeout, e.g. a suspended browser tab or a connection dropped without a close, is closed by
+ * a periodic scan, which also covers the clients that negotiated no heartbeats. The subscriptions to
+ * {@code /topic/game-progress/{gameId}} are unsubscribed a little after the game is over, once its last update
+ * had time to be delivered, so a session left open on a finished game holds no subscription.
+ * A session costs a small entry, and an entry per game it follows.
+ */
+@Component
+@Slf4j
+public class SessionRegistry implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+    private final MessageChannel clientInboundChannel;
+    private final ThreadPoolTaskScheduler scheduler;
+    private final Counter reaped;
+    private final long idleTimeoutMs;
+    private final long finishedGameLingerMs;
+
+    /**
+     * the open sessions, by session id
+     */
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * the subscription ids to each game progress topic, by game id then session id
+     */
+    private final Map<String, Map<String, String>> gameSubscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Session registry.
+     *
+     * @param clientInboundChannel the client inbound channel, which unsubscribes sessions from the broker
+     * @param meterRegistry        the meter registry
+     * @param idleTimeoutMs        the time a session may stay silent before it's closed
+     * @param reapIntervalMs       the interval between two scans for silent sessions
+     * @param finishedGameLingerMs the time the subscriptions to a finished game are kept
+     */
+    public SessionRegistry(@Lazy @Qualifier("clientInboundChannel") MessageChannel clientInboundChannel,
+                           MeterRegistry meterRegistry,
+                           @Value("${stomp.idle-timeout-ms}") long idleTimeoutMs,
+                           @Value("${stomp.reap-interval-ms}") long reapIntervalMs,
+                           @Value("${stomp.finished-game-linger-ms}") long finishedGameLingerMs) {
+        this.clientInboundChannel = clientInboundChannel;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.finishedGameLingerMs = finishedGameLingerMs;
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.setThreadNamePrefix("stomp-sessions-");
+        this.scheduler.setDaemon(true);
+        this.scheduler.initialize();
+        this.scheduler.scheduleWithFixedDelay(this::reap, Duration.ofMillis(reapIntervalMs));
+
+        this.reaped = Counter.builder("reversi.stomp.sessions.reaped")
+                .description("STOMP sessions closed after staying silent")
+                .register(meterRegistry);
+        Gauge.builder("reversi.stomp.game-subscriptions", gameSubscriptions, Map::size)
+                .description("Games followed by at least one STOMP session")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The scheduler of the broker heartbeats and of the registry.
+     *
+     * @return the scheduler
+     */
+    public TaskScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Counts the open sessions.
+     *
+     * @return the number of open sessions
+     */
+    public int count() {
+        return sessions.size();
+    }
+
+    @Override
+    @NonNull
+    public WebSocketHandler decorate(@NonNull WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new Session(session));
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus closeStatus)
+                    throws Exception {
+                unregister(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        final String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        final Session session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null) {
+            return message;
+        }
+        final SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        final String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        if (type == SimpMessageType.UNSUBSCRIBE) {
+            // not an activity, the registry itself unsubscribes from finished games
+            final Map<String, String> games = session.games;
+            final String gameId = games == null || subscriptionId == null ? null : games.remove(subscriptionId);
+            if (gameId != null) {
+                removeSubscription(gameId, sessionId);
+            }
+            return message;
+        }
+        session.lastActive = System.currentTimeMillis();
+        if (type == SimpMessageType.SUBSCRIBE) {
+            final String gameId = gameIdOf(SimpMessageHeaderAccessor.getDestination(message.getHeaders()));
+            if (gameId != null && subscriptionId != null) {
+                gameSubscriptions.computeIfAbsent(gameId, id -> new ConcurrentHashMap<>(4))
+                        .put(sessionId, subscriptionId);
+                session.games().put(subscriptionId, gameId);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Unsubscribes all sessions from the progress of a finished game, once its last update had time to be delivered.
+     *
+     * @param gameId the game id
+     */
+    public void gameFinished(String gameId) {
+        scheduler.schedule(() -> unsubscribeAll(gameId), Instant.now().plusMillis(finishedGameLingerMs));
+    }
+
+    /**
+     * Unsubscribes all sessions from the progress of a game.
+     *
+     * @param gameId the game id
+     */
+    private void unsubscribeAll(String gameId) {
+        final Map<String, String> subscriptions = gameSubscriptions.remove(gameId);
+        if (subscriptions == null) {
+            return;
+        }
+        subscriptions.forEach((sessionId, subscriptionId) -> {
+            final StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+            accessor.setSessionId(sessionId);
+            accessor.setSubscriptionId(subscriptionId);
+            clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        });
+        log.debug("Unsubscribed {} sessions from the finished game {}", subscriptions.size(), gameId);
+    }
+
+    /**
+     * Closes the sessions silent for longer than the idle timeout.
+     */
+    private void reap() {
+        final long deadline = System.currentTimeMillis() - idleTimeoutMs;
+        sessions.values().forEach(session -> {
+            if (session.lastActive >= deadline) {
+                return;
+            }
+            try {
+                // the close callback unregisters the session
+                session.webSocketSession.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("Idle session"));
+            } catch (IOException e) {
+                log.debug("Closing the idle session {} failed", session.webSocketSession.getId(), e);
+            }
+            unregister(session.webSocketSession.getId());
+            reaped.increment();
+        });
+    }
+
+    /**
+     * Forgets a closed session and its subscription.
+     *
+     * @param sessionId the session id
+     */
+    private void unregister(String sessionId) {
+        final Session session = sessions.remove(sessionId);
+        if (session != null && session.games != null) {
+            session.games.values().forEach(gameId -> removeSubscription(gameId, sessionId));
+        }
+    }
+
+    /**
+     * Forgets the subscription of a session to a game.
+     *
+     * @param gameId    the game id
+     * @param sessionId the session id
+     */
+    private void removeSubscription(String gameId, String sessionId) {
+        gameSubscriptions.computeIfPresent(gameId, (id, subscriptions) -> {
+            subscriptions.remove(sessionId);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+
+    /**
+     * @param destination a subscribed destination
+     * @return the game id of a game progress topic, null for any other destination
+     */
+    private static String gameIdOf(String destination) {
+        if (destination == null || !destination.startsWith(GameNotifier.GAME_PROGRESS_TOPIC)) {
+            return null;
+        }
+        return destination.substring(GameNotifier.GAME_PROGRESS_TOPIC.length());
+    }
+
+    /**
+     * Stops the scans and the heartbeats.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * An open session.
+     */
+    private static final class Session {
+        private final WebSocketSession webSocketSession;
+
+        /**
+         * the time in ms of the last frame received
+         */
+        private volatile long lastActive = System.currentTimeMillis();
+
+        /**
+         * the games whose progress the session follows, by subscription id, null until it follows one
+         */
+        private volatile Map<String, String> games;
+
+        /**
+         * Instantiates a new Session.
+         *
+         * @param webSocketSession the underlying session
+         */
+        private Session(WebSocketSession webSocketSession) {
+            this.webSocketSession = webSocketSession;
+        }
+
+        /**
+         * @return the games followed by the session, by subscription id
+         */
+        private Map<String, String> games() {
+            Map<String, String> games = this.games;
+            if (games == null) {
+                synchronized (this) {
+                    games = this.games;
+                    if (games == null) {
+                        games = new ConcurrentHashMap<>(2);
+                        this.games = games;
+                    }
+                }
+            }
+            return games;
+        }
+    }
+}
@@ -1,42 +1,58 @@
 package org.reversi.web.storage;
 
+import org.reversi.web.model.GameStatus;
 import org.reversi.web.model.ReversiGame;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
- * Singleton wrapper for the game database.
+ * The game database, selected by the {@code reversi.storage} property.
+ * <p>
+ * A game is only ever modified by the instance owning it, see {@link org.reversi.web.cluster.ShardRouter},
+ * so a backend shared by several instances needs no locking beyond the owner's own.
+ *
+ * @see InMemoryGameStorage
+ * @see SharedGameStorage
  */
-public class GameStorage {
-    private final static Map<String, ReversiGame> GAMES = new HashMap<>();
-    private final static GameStorage INSTANCE = new GameStorage();
-    private GameStorage() {}
+public interface GameStorage {
+    /**
+     * getter for a stored game
+     *
+     * @param gameId the game id
+     * @return the game, null if it isn't stored
+     */
+    ReversiGame getGame(String gameId);
 
     /**
-     * getter for the singleton storage.
+     * adds game to the storage, or stores its new state if it was already added
      *
-     * @return the instance
+     * @param game the game
      */
-    public static synchronized GameStorage getInstance() {
-        return INSTANCE;
-    }
+    void addGame(ReversiGame game);
 
     /**
-     * getter for the stored games
+     * finds any stored game with the given status
      *
-     * @return the games
+     * @param status the status
+     * @param filter the condition on the game
+     * @return a matching game, empty if there is none
      */
-    public Map<String, ReversiGame> getGames() {
-        return GAMES;
-    }
+    Optional<ReversiGame> findGame(GameStatus status, Predicate<ReversiGame> filter);
 
     /**
-     * adds game to the storage
+     * records the status transition of a stored game
      *
-     * @param game the game
+     * @param from the status before the transition
+     * @param to   the status after the transition
+     */
+    void recordTransition(GameStatus from, GameStatus to);
+
+    /**
+     * getter for the number of stored games with the given status
+     *
+     * @param status the status
+     * @return the number of games
      */
-    public void addGame(ReversiGame game) {
-        GAMES.put(game.getGameId(), game);
-    }
+    long countGames(GameStatus status);
 }
@@ -0,0 +1,60 @@
+package org.reversi.web.storage;
+
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.model.ReversiGame;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * The game database of a single instance, the default storage.
+ */
+@Component
+@ConditionalOnProperty(name = "reversi.storage", havingValue = "memory", matchIfMissing = true)
+public class InMemoryGameStorage implements GameStorage {
+    private final Map<String, ReversiGame> games = new ConcurrentHashMap<>();
+
+    /**
+     * number of stored games per status, indexed by the status ordinal.
+     * maintained on transitions, so that reading them never scans the games.
+     */
+    private final AtomicLongArray statusCounts = new AtomicLongArray(GameStatus.values().length);
+
+    @Override
+    public ReversiGame getGame(String gameId) {
+        return games.get(gameId);
+    }
+
+    @Override
+    public void addGame(ReversiGame game) {
+        if (games.put(game.getGameId(), game) == null) {
+            statusCounts.incrementAndGet(game.getSnapshot().status().ordinal());
+        }
+    }
+
+    @Override
+    public Optional<ReversiGame> findGame(GameStatus status, Predicate<ReversiGame> filter) {
+        return games.values().stream()
+                .filter(game -> game.getSnapshot().status() == status)
+                .filter(filter)
+                .findFirst();
+    }
+
+    @Override
+    public void recordTransition(GameStatus from, GameStatus to) {
+        if (from != to) {
+            statusCounts.decrementAndGet(from.ordinal());
+            statusCounts.incrementAndGet(to.ordinal());
+        }
+    }
+
+    @Override
+    public long countGames(GameStatus status) {
+        return statusCounts.get(status.ordinal());
+    }
+}
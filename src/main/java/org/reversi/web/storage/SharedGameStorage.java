@@ -0,0 +1,64 @@
+package org.reversi.web.storage;
+
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.model.ReversiGame;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Stand-in for a game database shared by several instances, e.g. Redis or Hazelcast.
+ * <p>
+ * All instances started in the same JVM with the same {@code reversi.storage.shared.name} share their games,
+ * so a cluster can be run and tested on a single machine. As with a real shared backend,
+ * the counts by status are those of the whole cluster.
+ */
+@Component
+@ConditionalOnProperty(name = "reversi.storage", havingValue = "shared")
+public class SharedGameStorage implements GameStorage {
+    /**
+     * the shared stores, by cluster name
+     */
+    private static final Map<String, InMemoryGameStorage> CLUSTERS = new ConcurrentHashMap<>();
+
+    private final InMemoryGameStorage store;
+
+    /**
+     * Instantiates a new Shared game storage.
+     *
+     * @param clusterName the name of the cluster sharing the games
+     */
+    public SharedGameStorage(@Value("${reversi.storage.shared.name:reversi}") String clusterName) {
+        this.store = CLUSTERS.computeIfAbsent(clusterName, name -> new InMemoryGameStorage());
+    }
+
+    @Override
+    public ReversiGame getGame(String gameId) {
+        return store.getGame(gameId);
+    }
+
+    @Override
+    public void addGame(ReversiGame game) {
+        store.addGame(game);
+    }
+
+    @Override
+    public Optional<ReversiGame> findGame(GameStatus status, Predicate<ReversiGame> filter) {
+        return store.findGame(status, filter);
+    }
+
+    @Override
+    public void recordTransition(GameStatus from, GameStatus to) {
+        store.recordTransition(from, to);
+    }
+
+    @Override
+    public long countGames(GameStatus status) {
+        return store.countGames(status);
+    }
+}
@@ -8,6 +8,7 @@ const DISK_DIV_CLASS = {
     BLACK: "black-disk"
 };
 const SESSION_PLAYER_KEY = "player";
+let CLOCK = null;
 
 
 /**
@@ -25,16 +26,28 @@ function flipDisk(board, currentDisk) {
     const row = currentDisk.getAttribute("data-row");
     const col = currentDisk.getAttribute("data-col");
 
+    flipDiskTo(board[row][col], currentDisk);
+}
+
+/**
+ * The flipDiskTo function animates a single disk div and colors it with the given disk value.
+ *
+ * @param diskValue the new value of the tile, see DISK
+ * @param currentDisk disk div
+ *
+ * @return nothing really
+ */
+function flipDiskTo(diskValue, currentDisk) {
     currentDisk.classList.add("flip-animation");
 
     setTimeout(() => {
         // Remove flip animation class
         currentDisk.classList.remove("flip-animation");
 
-        if (board[row][col] === DISK.WHITE) {
+        if (diskValue === DISK.WHITE) {
             currentDisk.classList.add(DISK_DIV_CLASS.WHITE);
             currentDisk.classList.remove(DISK_DIV_CLASS.BLACK);
-        } else if (board[row][col] === DISK.BLACK) {
+        } else if (diskValue === DISK.BLACK) {
             currentDisk.classList.add(DISK_DIV_CLASS.BLACK);
             currentDisk.classList.remove(DISK_DIV_CLASS.WHITE);
         } else {
@@ -43,6 +56,41 @@ function flipDisk(board, currentDisk) {
     }, 500);
 }
 
+/**
+ * The getDiskCell function looks up the disk div of the given board coordinate.
+ *
+ * @param x the row of the cell
+ * @param y the column of the cell
+ *
+ * @return the disk div
+ */
+function getDiskCell(x, y) {
+    return document.querySelector(
+        `div.disk-container[data-row="${x}"][data-col="${y}"]`
+    );
+}
+
+/**
+ * The forEachMaskedCell function decodes a cell bitmask sent in a delta update,
+ * where cell (x, y) is the bit x * size + y split into 32-bit words.
+ *
+ * @param mask the bitmask as an array of 32-bit words
+ * @param callback called with the x and y of every set cell
+ *
+ * @return nothing really
+ */
+function forEachMaskedCell(mask, callback) {
+    const size = document.querySelectorAll("table#gameBoard tr").length;
+    mask.forEach((word, wordIndex) => {
+        for (let bit = 0; bit < 32; bit++) {
+            if ((word >>> bit) & 1) {
+                const cell = wordIndex * 32 + bit;
+                callback(Math.floor(cell / size), cell % size);
+            }
+        }
+    });
+}
+
 /**
  * The restorePossibleMoveCells function removes the &quot;possible-move-cell&quot; class from all cells in the game board.
  * This function is called when a player clicks on a disk cell, or when a player clicks on an empty cell that is not
@@ -57,9 +105,27 @@ function restorePossibleMoveCells() {
     document.querySelectorAll("div.possible-move-cell")
         .forEach(diskCell => {
             diskCell.classList.remove("possible-move-cell");
+            diskCell.textContent = "";
         });
 }
 
+/**
+ * The showMoveScores function writes the analysed score of each possible move into its cell,
+ * the scores are cleared with the highlighting of the possible moves.
+ *
+ * @param analysis the analysis of the current position
+ *
+ * @return nothing really
+ */
+function showMoveScores(analysis) {
+    analysis.moves.forEach(({move, score}) => {
+        const diskCell = getDiskCell(move.x, move.y);
+        if (diskCell.classList.contains("possible-move-cell")) {
+            diskCell.textContent = score;
+        }
+    });
+}
+
 
 
 /**
@@ -81,10 +147,29 @@ function updateGameBoard(data) {
     if (data.status === "IN_PROGRESS" && data.currentGamePlayer.disk === sessionStorage.getItem(SESSION_PLAYER_KEY)) {
         const possibleMoves = data.possibleMoves;
         possibleMoves.forEach(({x, y}) => {
-            const diskCell = document.querySelector(
-                `div.disk-container[data-row="${x}"][data-col="${y}"]`
-            );
-            diskCell.classList.add("possible-move-cell");
+            getDiskCell(x, y).classList.add("possible-move-cell");
+        });
+    }
+}
+
+/**
+ * The applyGameUpdate function applies a delta update to the game board,
+ * only flipping the placed and the stolen disks.
+ *
+ * @param update the delta update
+ *
+ * @return nothing really
+ */
+function applyGameUpdate(update) {
+    restorePossibleMoveCells();
+
+    const diskValue = DISK[update.disk];
+    flipDiskTo(diskValue, getDiskCell(update.placed.x, update.placed.y));
+    forEachMaskedCell(update.flipped, (x, y) => flipDiskTo(diskValue, getDiskCell(x, y)));
+
+    if (update.status === "IN_PROGRESS" && update.currentDisk === sessionStorage.getItem(SESSION_PLAYER_KEY)) {
+        forEachMaskedCell(update.possibleMoves, (x, y) => {
+            getDiskCell(x, y).classList.add("possible-move-cell");
         });
     }
 }
@@ -156,9 +241,47 @@ function updateFooterBothPlayers(data) {
     footer.innerHTML =
         `<div style="display: inline-block">${data.gamePlayer1.login}
             <div class="white-disk disk-container"></div>
+            <div id="clock-WHITE"></div>
         </div>
         <div style="display: inline-block">${data.gamePlayer2.login}
             <div class="black-disk disk-container"></div>
+            <div id="clock-BLACK"></div>
         </div>
         `
-}
\ No newline at end of file
+}
+
+/**
+ * The updateClock function keeps the latest clock of the game, counted down by renderClock.
+ *
+ * @param clock the clock sent with the game state, null without time control
+ * @param status the game status
+ * @param diskToMove the disk of the player to move
+ *
+ * @return nothing really
+ */
+function updateClock(clock, status, diskToMove) {
+    CLOCK = clock == null ? null : {...clock, running: status === "IN_PROGRESS", diskToMove};
+    renderClock();
+}
+
+/**
+ * The renderClock function shows the time left to each player below their name.
+ *
+ * @return nothing really
+ */
+function renderClock() {
+    if (CLOCK === null) {
+        return;
+    }
+    const elapsed = CLOCK.running ? Math.max(0, Date.now() - CLOCK.turnStartedAt) : 0;
+    [["WHITE", CLOCK.whiteMs], ["BLACK", CLOCK.blackMs]].forEach(([disk, ms]) => {
+        const element = document.getElementById(`clock-${disk}`);
+        if (element !== null) {
+            const left = Math.max(0, disk === CLOCK.diskToMove ? ms - elapsed : ms);
+            const seconds = Math.ceil(left / 1000);
+            element.textContent = `${Math.floor(seconds / 60)}:${String(seconds % 60).padStart(2, "0")}`;
+        }
+    });
+}
+
+setInterval(renderClock, 250);
\ No newline at end of file
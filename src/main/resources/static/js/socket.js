@@ -6,54 +6,171 @@ const pathJoin = (...parts) =>
 
 const STOMP_ENDPOINT = "/move";
 const MSG_BROKER_DEST_PREFIX = `/topic/game-progress`;
+const USER_QUEUE_ACK = "/user/queue/ack";
+const USER_QUEUE_GAME = "/user/queue/game";
+const USER_QUEUE_ERRORS = "/user/queue/errors";
 
 let STOMP_CLIENT;
 let GAME_ID;
 let GAME_STARTED = false;
+let LAST_SEQUENCE = 0;
 
 
 /**
- * The connectToSocket function connects to the socket endpoint and subscribes to a topic.
+ * The announceResult function adds the winner announcement below the main heading once the game is over.
  *
- * @param gameId Identifies the game that is being played
+ * @param winner the winning player, null for a draw
  *
  * @return nothing really
  */
-function connectToSocket(gameId) {
+function announceResult(winner) {
+    const heading = document.getElementById("main-heading");
+    const winnerAnnouncement = document.createElement("h2");
+    if (winner === null) {
+        winnerAnnouncement.innerText = "Game Drawn.";
+    } else {
+        winnerAnnouncement.innerText = `Game over: Winner = ${winner.login}`;
+    }
+    heading.after(winnerAnnouncement);
+}
+
+/**
+ * The applySnapshot function renders a full game state, sent on join or fetched on resync.
+ *
+ * @param data game state
+ *
+ * @return nothing really
+ */
+function applySnapshot(data) {
+    if (!GAME_STARTED && data.gamePlayer2 !== null) {
+        // alert player1 that player 2 joined
+        if (sessionStorage.getItem(SESSION_PLAYER_KEY) === "WHITE") {
+            alert(`Game started`);
+        }
+        GAME_STARTED = true;
+
+        updateFooterBothPlayers(data);
+        if (sessionStorage.getItem(SESSION_PLAYER_KEY) !== "SPECTATOR") {
+            document.getElementById("hintButton").style.display = "block";
+        }
+    }
+    LAST_SEQUENCE = data.sequence;
+    updateGameBoard(data);
+    updateClock(data.clock, data.status, data.currentGamePlayer.disk);
+    if (data.status === "FINISHED") {
+        announceResult(data.winner);
+    }
+}
+
+/**
+ * The resync function fetches the full game state after a missed delta update.
+ *
+ * @return a void promise, essentially nothing, given the function is async
+ */
+async function resync() {
+    try {
+        const response = await fetch(pathJoin("/game", GAME_ID), {
+            headers: {"Accept": "application/json"}
+        });
+        if (response.ok) {
+            applySnapshot(await response.json());
+        }
+    } catch (err) {
+        console.log(`Error resyncing game: ${err}`);
+    }
+}
+
+/**
+ * The applyGameMessage function handles a message broadcast on the game progress topic,
+ * either a full snapshot or a delta update, followed by the deltas of the premoves played in reply.
+ *
+ * @param data the message body
+ *
+ * @return nothing really
+ */
+function applyGameMessage(data) {
+    if (data.type !== "delta") {
+        applySnapshot(data);
+        return;
+    }
+    if (data.sequence <= LAST_SEQUENCE) {
+        // already applied, e.g. by a resync, unlike maybe the premoves played in reply
+        if (data.reply !== null && data.reply !== undefined) {
+            applyGameMessage(data.reply);
+        }
+        return;
+    }
+    if (data.sequence !== LAST_SEQUENCE + 1) {
+        resync();
+        return;
+    }
+
+    LAST_SEQUENCE = data.sequence;
+    applyGameUpdate(data);
+    updateClock(data.clock, data.status, data.currentDisk);
+    if (data.status === "FINISHED") {
+        announceResult(data.winner);
+    }
+    if (data.reply !== null && data.reply !== undefined) {
+        // the premove played in reply, broadcast along with the move
+        applyGameMessage(data.reply);
+    }
+}
+
+/**
+ * The openSocket function connects to the socket endpoint and subscribes to the session's private queues,
+ * which carry the replies to the requests sent over the socket.
+ *
+ * @param onConnected called once the connection is established
+ *
+ * @return nothing really
+ */
+function openSocket(onConnected) {
     const socket = new SockJS(STOMP_ENDPOINT);
     STOMP_CLIENT = Stomp.over(socket)
+    // matches stomp.heartbeat-ms, the server closes sessions silent for longer than stomp.idle-timeout-ms
+    STOMP_CLIENT.heartbeat.outgoing = 20000;
+    STOMP_CLIENT.heartbeat.incoming = 20000;
     STOMP_CLIENT.connect({}, (frame) => {
         console.log(`connected to the frame: ${frame}`);
-        const msgBrokerDest = pathJoin(MSG_BROKER_DEST_PREFIX, gameId)
-        STOMP_CLIENT.subscribe('/topic/game-progress/' + gameId, (response) => {
-            const data = JSON.parse(response.body);
-
-            if (!GAME_STARTED && data.gamePlayer2 !== null) {
-                // alert player1 that player 2 joined
-                if (sessionStorage.getItem(SESSION_PLAYER_KEY) === "WHITE") {
-                    alert(`Game started`);
-                }
-                GAME_STARTED = true;
-
-                updateFooterBothPlayers(data);
-            }
-            // TODO: flip only stolen disks
-            updateGameBoard(data);
-            if (data.status === "FINISHED") {
-                console.log(data);
-                const heading = document.getElementById("main-heading");
-                const winnerAnnouncement = document.createElement("h2");
-                if (data.winner === null) {
-                    winnerAnnouncement.innerText = "Game Drawn.";
-                } else {
-                    winnerAnnouncement.innerText = `Game over: Winner = ${data.winner.login}`;
-                }
-                heading.after(winnerAnnouncement);
-            }
+        STOMP_CLIENT.subscribe(USER_QUEUE_ERRORS, (response) => {
+            const error = JSON.parse(response.body);
+            console.log(`Request failed: ${error.message}`);
+            alert(error.message);
+        });
+        STOMP_CLIENT.subscribe(USER_QUEUE_ACK, (response) => {
+            // the board is updated by the broadcast on the game progress topic
+            console.log(`move acknowledged: ${JSON.parse(response.body).sequence}`);
         });
+        onConnected();
     });
 }
 
+/**
+ * The subscribeToGame function subscribes to the game progress topic of the game.
+ *
+ * @param gameId Identifies the game that is being played
+ *
+ * @return nothing really
+ */
+function subscribeToGame(gameId) {
+    const msgBrokerDest = pathJoin(MSG_BROKER_DEST_PREFIX, gameId)
+    STOMP_CLIENT.subscribe(msgBrokerDest, (response) => {
+        applyGameMessage(JSON.parse(response.body));
+    });
+}
+
+/**
+ * The connectToSocket function connects to the socket endpoint and subscribes to a topic.
+ *
+ * @param gameId Identifies the game that is being played
+ *
+ * @return nothing really
+ */
+function connectToSocket(gameId) {
+    openSocket(() => subscribeToGame(gameId));
+}
+
 
 /**
  * The function sends a POST request to /game/start with a JSON body containing the login of
@@ -83,6 +200,7 @@ async function createGame() {
                 GAME_ID = data.gameId;
                 // the java enums return a string in the response
                 sessionStorage.setItem(SESSION_PLAYER_KEY, "WHITE");
+                LAST_SEQUENCE = data.sequence;
                 connectToSocket(data.gameId);
                 alert(`You created a game with game ID: ${data.gameId}`);
                 softHideGameConfigPrompts();
@@ -127,6 +245,7 @@ async function specificConnect(gameId) {
                 sessionStorage.setItem(SESSION_PLAYER_KEY, "BLACK");
 
                 GAME_ID = data.gameId;
+                LAST_SEQUENCE = data.sequence;
                 connectToSocket(data.gameId);
                 alert(`Connected to the game with ${data.gamePlayer1.login}`);
                 softHideGameConfigPrompts();
@@ -141,22 +260,56 @@ async function specificConnect(gameId) {
 
 /**
  * The randomConnect function is called when the user clicks on the &quot;Random Connect&quot; button.
- * It sends a POST request to /game/connect/random with the login of the current player.
- * If successful, it will connect to a socket and update all game elements accordingly.
+ * It opens the socket connection and sends the connect request for a random game over it.
+ * The joined game is sent back on the session's game queue, after which it subscribes to the game progress
+ * and updates all game elements accordingly.
+ *
  *
+ * @return nothing really
+ */
+function randomConnect() {
+    const login = document.getElementById("loginInput").value;
+    if (login === null || login === '') {
+        alert("login missing. Enter your login.");
+        return;
+    }
+    openSocket(() => {
+        const joined = STOMP_CLIENT.subscribe(USER_QUEUE_GAME, (response) => {
+            joined.unsubscribe();
+            const data = JSON.parse(response.body);
+            // the java enums return a string in the response
+            sessionStorage.setItem(SESSION_PLAYER_KEY, "BLACK");
+
+            GAME_ID = data.gameId;
+            LAST_SEQUENCE = data.sequence;
+            subscribeToGame(data.gameId);
+            alert(`Connected to the game with ${data.gamePlayer1.login}`);
+            softHideGameConfigPrompts();
+            updateGameBoard(data);
+            updateFooterBothPlayers(data);
+        });
+        STOMP_CLIENT.send("/app/connect/random", {}, JSON.stringify({"login": login}));
+    });
+}
+
+/**
+ * The computerGame function sends a POST request to /game/start/computer to play against the computer
+ * at the selected difficulty. The player plays white and the computer's replies arrive on the socket connection.
  *
  * @return a void promise, essentially nothing, given the function is async
  */
-async function randomConnect() {
+async function computerGame() {
     const login = document.getElementById("loginInput").value;
+    const difficulty = document.getElementById("difficultySelect").value;
     if (login === null || login === '') {
         alert("login missing. Enter your login.");
     } else {
         try {
-            const response = await fetch("/game/connect/random", {
+            const response = await fetch("/game/start/computer", {
                 method: "POST",
                 body: JSON.stringify({
-                    "login": login
+                    "client": {"login": login},
+                    "difficulty": difficulty
                 }),
                 headers: {
                     "Content-Type": "application/json",
@@ -167,27 +320,53 @@ async function randomConnect() {
             if (response.ok) {
                 const data = await response.json();
                 // the java enums return a string in the response
-                sessionStorage.setItem(SESSION_PLAYER_KEY, "BLACK");
+                sessionStorage.setItem(SESSION_PLAYER_KEY, "WHITE");
 
                 GAME_ID = data.gameId;
+                GAME_STARTED = true;
+                LAST_SEQUENCE = data.sequence;
                 connectToSocket(data.gameId);
-                alert(`Connected to the game with ${data.gamePlayer1.login}`);
                 softHideGameConfigPrompts();
                 updateGameBoard(data);
                 updateFooterBothPlayers(data);
             }
         } catch (err) {
-            console.log(`Error connecting to game: ${err}`);
+            console.log(`Error starting computer game: ${err}`);
         }
     }
 }
 
+/**
+ * The spectate function follows a game read-only over a plain WebSocket.
+ * The first message is the full game, followed by the same delta updates the players receive.
+ *
+ * @param gameId the game to spectate
+ *
+ * @return nothing really
+ */
+function spectate(gameId) {
+    const scheme = location.protocol === "https:" ? "wss://" : "ws://";
+    const socket = new WebSocket(`${scheme}${location.host}/spectate?gameId=${encodeURIComponent(gameId)}`);
+    // spectators never get possible moves highlighted
+    sessionStorage.setItem(SESSION_PLAYER_KEY, "SPECTATOR");
+    GAME_ID = gameId;
+
+    socket.onopen = () => softHideGameConfigPrompts();
+    socket.onmessage = (event) => applyGameMessage(JSON.parse(event.data));
+    socket.onclose = (event) => {
+        if (event.reason) {
+            alert(event.reason);
+        }
+    };
+}
+
 /**
  * The makeMove function is called when a player clicks on a cell in the board.
- * It sends an HTTP POST request to the server with information about which disk was played,
+ * It sends the move over the socket connection to /app/move, with information about which disk was played,
  * where it was played, and what game it belongs to. The server then updates its state of the game
  * and broadcasts that update to all connected clients (including this one). This client's socket connection will receive
  * that broadcasted message from the server and update its own state of the game accordingly.
+ * Until the socket is connected, the move is sent as an HTTP POST request to /game/move instead.
  *
  * @param xCoordinate represents the row of the board to place a disk in
  * @param yCoordinate represents the column of the board to place a disk in
@@ -195,37 +374,61 @@ async function randomConnect() {
  * @return a void promise, essentially nothing, given the function is async
  */
 async function makeMove(xCoordinate, yCoordinate) {
-    const diskContainer = document.querySelector(
-        `div.disk-container[data-row="${xCoordinate}"][data-col="${yCoordinate}"]`
-    );
-    if (!diskContainer.classList.contains("possible-move-cell")) {
+    if (!getDiskCell(xCoordinate, yCoordinate).classList.contains("possible-move-cell")) {
+        return;
+    }
+    const move = JSON.stringify({
+        "disk": sessionStorage.getItem(SESSION_PLAYER_KEY),
+        "coord": {
+            "x": xCoordinate,
+            "y": yCoordinate
+        },
+        "gameId": GAME_ID,
+        // lets the server reject a move chosen on an outdated board
+        "sequence": LAST_SEQUENCE
+    });
+
+    if (STOMP_CLIENT !== undefined && STOMP_CLIENT.connected) {
+        // acknowledged on the session's ack queue, errors arrive on its error queue
+        STOMP_CLIENT.send("/app/move", {}, move);
         return;
     }
+
     try {
         const response = await fetch("/game/move", {
             method: "POST",
-            body: JSON.stringify({
-                "disk": sessionStorage.getItem(SESSION_PLAYER_KEY),
-                "coord": {
-                    "x": xCoordinate,
-                    "y": yCoordinate
-                },
-                "gameId": GAME_ID
-            }),
+            body: move,
             headers: {
                 "Content-Type": "application/json",
                 "Accept": "application/json"
             }
         });
         if (response.ok) {
-            const data = await response.json();
-            // board is updated by the socket connection
+            // board is updated by the delta broadcast on the socket connection
         }
     } catch (error) {
         console.log(`Error making a move: ${error}`)
     }
 }
 
+/**
+ * The showHint function fetches the analysis of the current position and shows the score of each possible move.
+ *
+ * @return a void promise, essentially nothing, given the function is async
+ */
+async function showHint() {
+    try {
+        const response = await fetch(pathJoin("/game", GAME_ID, "analysis"), {
+            headers: {"Accept": "application/json"}
+        });
+        if (response.ok) {
+            showMoveScores(await response.json());
+        }
+    } catch (error) {
+        console.log(`Error analysing the game: ${error}`)
+    }
+}
+
 /**
  * The parseGameConfigAndConnect function is called when the user clicks the &quot;Play&quot; button.
  * It parses the game configuration from the HTML form and then connects to a game based on that configuration.
@@ -237,7 +440,11 @@ async function parseGameConfigAndConnect() {
     if (gamePreference === "create") {
         await createGame();
     } else if (gamePreference === "joinRandom") {
-        await randomConnect();
+        randomConnect();
+    } else if (gamePreference === "computer") {
+        await computerGame();
+    } else if (gamePreference === "spectate") {
+        spectate(document.getElementById("gameIdInput").value);
     } else if (gamePreference === "joinSpecific") {
         const gameId = document.getElementById("gameIdInput").value;
         await specificConnect(gameId);
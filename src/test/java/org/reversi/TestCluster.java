@@ -0,0 +1,123 @@
+package org.reversi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reversi.web.ReversiApplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for two web app instances sharing their games
+ */
+public class TestCluster {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int INSTANCES = 2;
+
+    private final ConfigurableApplicationContext[] contexts = new ConfigurableApplicationContext[INSTANCES];
+    private final String[] urls = new String[INSTANCES];
+
+    /**
+     * empty constructor
+     */
+    TestCluster() {}
+
+    @BeforeEach
+    void startInstances() throws IOException {
+        for (int i = 0; i < INSTANCES; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                urls[i] = "http://localhost:" + socket.getLocalPort();
+            }
+        }
+        final String cluster = UUID.randomUUID().toString();
+        for (int i = 0; i < INSTANCES; i++) {
+            contexts[i] = SpringApplication.run(ReversiApplication.class,
+                    "--server.port=" + URI.create(urls[i]).getPort(),
+                    "--reversi.storage=shared",
+                    "--reversi.storage.shared.name=" + cluster,
+                    "--reversi.cluster.instances=" + String.join(",", urls),
+                    "--reversi.cluster.self=" + i);
+        }
+    }
+
+    @AfterEach
+    void stopInstances() {
+        for (ConfigurableApplicationContext context : contexts) {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * requests about a game are redirected to the instance owning it
+     */
+    @Test
+    public void testRouting() throws Exception {
+        final HttpClient noRedirects = HttpClient.newHttpClient();
+        final HttpClient redirects = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+
+        final JsonNode game = MAPPER.readTree(post(noRedirects, urls[1] + "/game/start",
+                "{\"login\": \"player1\"}").body());
+        final String gameId = game.get("gameId").asText();
+
+        final HttpResponse<String> redirect = post(noRedirects, urls[0] + "/game/connect",
+                "{\"client\": {\"login\": \"player2\"}, \"gameId\": \"" + gameId + "\"}");
+        assertEquals(307, redirect.statusCode());
+        assertTrue(redirect.headers().firstValue("Location").orElseThrow().startsWith(urls[1]));
+
+        final HttpResponse<String> connected = post(redirects, urls[0] + "/game/connect",
+                "{\"client\": {\"login\": \"player2\"}, \"gameId\": \"" + gameId + "\"}");
+        assertEquals(200, connected.statusCode());
+        assertEquals("IN_PROGRESS", MAPPER.readTree(connected.body()).get("status").asText());
+
+        final HttpResponse<String> move = post(redirects, urls[0] + "/game/move",
+                "{\"disk\": \"WHITE\", \"coord\": {\"x\": 0, \"y\": 2}, \"gameId\": \"" + gameId + "\"}");
+        assertEquals(200, move.statusCode());
+
+        for (String url : urls) {
+            final HttpResponse<String> snapshot = redirects.send(
+                    HttpRequest.newBuilder(URI.create(url + "/game/" + gameId)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(1, MAPPER.readTree(snapshot.body()).get("sequence").asInt());
+        }
+    }
+
+    /**
+     * a random connect finds the new games of the other instances
+     */
+    @Test
+    public void testRandomConnect() throws Exception {
+        final HttpClient redirects = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+
+        final JsonNode game = MAPPER.readTree(post(redirects, urls[1] + "/game/start",
+                "{\"login\": \"player1\"}").body());
+        final HttpResponse<String> connected = post(redirects, urls[0] + "/game/connect/random",
+                "{\"login\": \"player2\"}");
+
+        assertEquals(200, connected.statusCode());
+        assertEquals(game.get("gameId").asText(), MAPPER.readTree(connected.body()).get("gameId").asText());
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, String body) throws Exception {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
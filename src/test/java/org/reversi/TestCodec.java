@@ -0,0 +1,93 @@
+package org.reversi;
+
+import org.reversi.cli.Coordinate;
+import org.reversi.cli.PositionCodec;
+import org.reversi.cli.ReversiModel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the binary and text forms of a position
+ */
+public class TestCodec {
+    /**
+     * empty constructor
+     */
+    TestCodec() {}
+
+    /**
+     * every position of random games reads back from both forms, several of them side by side in a buffer
+     */
+    @Test
+    public void testRoundTrip() {
+        final Random random = new Random(11);
+        for (int size : new int[] {4, 6, 8}) {
+            final int length = PositionCodec.binaryLength(size);
+            final byte[] buffer = new byte[3 * length];
+            final int[][] board = new int[size][size];
+            final StringBuilder text = new StringBuilder();
+            final ReversiModel model = new ReversiModel(size);
+            while (!model.isGameOver()) {
+                final int offset = random.nextInt(3) * length;
+                assertEquals(length, PositionCodec.write(model.getBoard(), model.getCurrentPlayer(), buffer, offset));
+                assertEquals(model.getCurrentPlayer(), PositionCodec.read(buffer, offset, board));
+                assertTrue(Arrays.deepEquals(model.getBoard(), board));
+
+                text.setLength(0);
+                PositionCodec.format(model.getBoard(), model.getCurrentPlayer(), text);
+                assertEquals(size * size + 2, text.length());
+                assertEquals(model.getCurrentPlayer(), PositionCodec.parse(text, board));
+                assertTrue(Arrays.deepEquals(model.getBoard(), board));
+                assertEquals(text.toString(), PositionCodec.format(PositionCodec.parse(text)));
+
+                final List<Coordinate> moves = new ArrayList<>(model.getPossibleMoves());
+                final Coordinate move = moves.get(random.nextInt(moves.size()));
+                model.makeMove(move.x(), move.y());
+            }
+        }
+    }
+
+    /**
+     * the 8 x 8 form is two bitboards and a byte, the smaller boards pack 2 bits per square
+     */
+    @Test
+    public void testLength() {
+        assertEquals(17, PositionCodec.binaryLength(8));
+        assertEquals(10, PositionCodec.binaryLength(6));
+        assertEquals(5, PositionCodec.binaryLength(4));
+
+        final byte[] start = PositionCodec.encode(new ReversiModel(8));
+        assertEquals(17, start.length);
+        assertEquals(PositionCodec.PLAYER1_CODE, start[16]);
+    }
+
+    /**
+     * the FFO characters are read as well, and invalid notations are rejected
+     */
+    @Test
+    public void testNotation() {
+        final String start = PositionCodec.format(new ReversiModel(8));
+        assertEquals("---------------------------XO------OX--------------------------- X", start);
+        final String ffo = start.replace('X', '*').replace('-', '.').replace(" *", ";Black to move");
+        assertEquals(start, PositionCodec.format(PositionCodec.parse(ffo)));
+
+        for (String invalid : new String[] {"", "------OX", "-----OX--XO----- ", "-----OX--XO----- Z",
+                "-----OX--XQ----- X", "---------------------------OX------XO------------------------- X"}) {
+            boolean rejected = false;
+            try {
+                PositionCodec.parse(invalid);
+            } catch (IllegalArgumentException e) {
+                rejected = true;
+            }
+            assertTrue(rejected);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.reversi;
+
+import org.reversi.cli.Coordinate;
+import org.reversi.cli.EndgameSolver;
+import org.reversi.cli.PerfectPlaySolver;
+import org.reversi.cli.PerfectPlayTable;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchResult;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the exact endgame solver
+ */
+public class TestEndgame {
+    /**
+     * empty constructor
+     */
+    TestEndgame() {}
+
+    /**
+     * 4 x 4 reversi is lost by 10 disks for the first player, counting the empty squares left
+     */
+    @Test
+    public void testPerfectPlay() {
+        final EndgameSolver.Result result = new EndgameSolver().solve(new ReversiModel(4));
+
+        assertEquals(-10, result.score());
+        assertNotNull(result.bestMove());
+    }
+
+    /**
+     * a finished game is scored without any move, the empty squares going to the winner
+     */
+    @Test
+    public void testGameOver() {
+        final int x = ReversiModel.PLAYER1;
+        final int o = ReversiModel.PLAYER2;
+        final int[][] board = {
+                {x, x, x, x},
+                {x, x, x, 0},
+                {0, 0, 0, 0},
+                {0, 0, 0, o},
+        };
+        final EndgameSolver.Result result = new EndgameSolver().solve(ReversiModel.fromBoard(board, o));
+
+        assertEquals(-14, result.score());
+        assertNull(result.bestMove());
+    }
+
+    /**
+     * the table holds every position of random 4 x 4 games, with the scores of the exact solver,
+     * and its best moves reach the score
+     */
+    @Test
+    public void testPerfectPlayTable(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("4x4.table");
+        PerfectPlaySolver.run(file, 4);
+
+        try (PerfectPlayTable table = new PerfectPlayTable(file)) {
+            assertEquals(-10, table.lookup(new ReversiModel(4)).orElseThrow().score());
+
+            final Random random = new Random(7);
+            for (int game = 0; game < 20; game++) {
+                final ReversiModel model = new ReversiModel(4);
+                while (!model.isGameOver()) {
+                    final SearchResult result = table.lookup(model).orElseThrow();
+                    final EndgameSolver.Result exact = new EndgameSolver().solve(model);
+                    assertEquals(exact.score(), result.score());
+                    assertEquals(exact.score(), (int) result.scores().get(result.bestMove()));
+                    assertEquals(model.getPossibleMoves(), result.scores().keySet());
+                    assertTrue(result.complete());
+
+                    final List<Coordinate> moves = new ArrayList<>(model.getPossibleMoves());
+                    final Coordinate move = moves.get(random.nextInt(moves.size()));
+                    model.makeMove(move.x(), move.y());
+                }
+                assertTrue(table.lookup(model).isEmpty());
+            }
+            assertTrue(table.lookup(new ReversiModel(6)).isEmpty());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.reversi;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reversi.web.ReversiApplication;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the rejection of invalid HTTP requests
+ */
+public class TestErrors {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+    private ConfigurableApplicationContext context;
+    private String url;
+
+    /**
+     * empty constructor
+     */
+    TestErrors() {}
+
+    @BeforeEach
+    void startInstance() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            url = "http://localhost:" + socket.getLocalPort();
+        }
+        context = SpringApplication.run(ReversiApplication.class, "--server.port=" + URI.create(url).getPort());
+        logs.start();
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).addAppender(logs);
+    }
+
+    @AfterEach
+    void stopInstance() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).detachAppender(logs);
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * invalid moves are answered with a 400 and their reason, and logged at most at debug level
+     */
+    @Test
+    public void testInvalidMove() throws Exception {
+        final HttpClient client = HttpClient.newHttpClient();
+        final String gameId = MAPPER.readTree(post(client, "/game/start", "{\"login\": \"player1\"}").body())
+                .get("gameId").asText();
+
+        final HttpResponse<String> notStarted = post(client, "/game/move",
+                "{\"disk\": \"WHITE\", \"coord\": {\"x\": 0, \"y\": 2}, \"gameId\": \"" + gameId + "\"}");
+        assertEquals(400, notStarted.statusCode());
+        assertEquals("Game hasn't started yet", MAPPER.readTree(notStarted.body()).get("message").asText());
+
+        final HttpResponse<String> unknown = post(client, "/game/move",
+                "{\"disk\": \"WHITE\", \"coord\": {\"x\": 0, \"y\": 2}, \"gameId\": \"unknown\"}");
+        assertEquals(400, unknown.statusCode());
+
+        assertTrue(logs.list.stream().noneMatch(event -> event.getLevel().isGreaterOrEqual(Level.ERROR)),
+                () -> "logged " + logs.list.stream().filter(event -> event.getLevel().isGreaterOrEqual(Level.ERROR))
+                        .map(ILoggingEvent::getFormattedMessage).toList());
+    }
+
+    private HttpResponse<String> post(HttpClient client, String path, String body) throws Exception {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(url + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,118 @@
+package org.reversi;
+
+import org.reversi.cli.BatchEvaluator;
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PositionBatch;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.ScalarBatchEvaluator;
+import org.reversi.cli.StandardFeature;
+import org.reversi.cli.VectorBatchEvaluator;
+import org.reversi.cli.WeightedEvaluator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Testing class for the batch evaluators
+ */
+public class TestEvaluation {
+    private static final int X = ReversiModel.PLAYER1;
+    private static final int O = ReversiModel.PLAYER2;
+
+    /**
+     * empty constructor
+     */
+    TestEvaluation() {}
+
+    /**
+     * the features of a hand made board
+     */
+    @Test
+    public void testScalar() {
+        final PositionBatch batch = new PositionBatch(4, 1);
+        batch.add(new int[][] {
+                {X, X, X, X},
+                {X, O, 0, 0},
+                {X, 0, 0, 0},
+                {X, 0, 0, O},
+        });
+        final int[] scores = new int[batch.getCapacity()];
+        new ScalarBatchEvaluator(EvaluationWeights.DEFAULT).evaluate(batch, X, scores);
+
+        // 7 disks, 3 corners, 1 full row and 1 full column
+        assertEquals(7 * 5 + 3 * 50 + 2 * 100, scores[0]);
+    }
+
+    /**
+     * the SIMD evaluator scores random boards as the scalar one
+     */
+    @Test
+    public void testVectorMatchesScalar() {
+        assumeTrue(BatchEvaluator.VECTOR_API_AVAILABLE);
+        final Random random = new Random(7);
+
+        for (int size : new int[] {4, 6, 8}) {
+            final int positions = 100;
+            final PositionBatch batch = new PositionBatch(size, positions);
+            for (int i = 0; i < positions; i++) {
+                final int[][] board = new int[size][size];
+                for (int[] row : board) {
+                    for (int col = 0; col < size; col++) {
+                        // mostly X, so that full lines occur
+                        row[col] = random.nextInt(4) > 0 ? X : random.nextInt(2) == 0 ? O : 0;
+                    }
+                }
+                batch.add(board);
+            }
+            final int[] scalar = new int[batch.getCapacity()];
+            final int[] vector = new int[batch.getCapacity()];
+            new ScalarBatchEvaluator(EvaluationWeights.DEFAULT).evaluate(batch, X, scalar);
+            new VectorBatchEvaluator(EvaluationWeights.DEFAULT).evaluate(batch, X, vector);
+
+            assertArrayEquals(Arrays.copyOf(scalar, positions), Arrays.copyOf(vector, positions));
+        }
+    }
+
+    /**
+     * the standard features of a hand made board, and the weighted sum of the original ones
+     */
+    @Test
+    public void testFeatures() {
+        final ReversiModel model = ReversiModel.fromBoard(new int[][] {
+                {X, X, X, X},
+                {X, O, 0, 0},
+                {X, 0, 0, 0},
+                {X, 0, 0, O},
+        }, O);
+
+        assertEquals(7 * 5 + 3 * 50 + 2 * 100, WeightedEvaluator.of(EvaluationWeights.DEFAULT).evaluate(model, X));
+        assertEquals(2, StandardFeature.FULL_LINES.evaluate(model, X));
+        // O has no move, X moves on (1,2), (2,1) and (2,2)
+        assertEquals(3, StandardFeature.MOBILITY.evaluate(model, X));
+        assertEquals(-3, StandardFeature.MOBILITY.evaluate(model, O));
+        // so X moves with 7 empty squares left, and moves last
+        assertEquals(1, StandardFeature.PARITY.evaluate(model, X));
+        assertEquals(-1, StandardFeature.PARITY.evaluate(model, O));
+        // the only empty corner is taken, so no X or C square gives one away
+        assertEquals(0, StandardFeature.X_C_SQUARES.evaluate(model, X));
+    }
+
+    /**
+     * an X square next to an empty corner counts against its owner
+     */
+    @Test
+    public void testXSquare() {
+        final ReversiModel model = new ReversiModel(8);
+        model.getBoard()[1][1] = X;
+
+        assertEquals(-1, StandardFeature.X_C_SQUARES.evaluate(model, X));
+        assertEquals(1, StandardFeature.X_C_SQUARES.evaluate(model, O));
+        assertEquals(0, StandardFeature.MOBILITY.evaluate(new ReversiModel(8), X));
+    }
+}
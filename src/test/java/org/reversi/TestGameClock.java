@@ -0,0 +1,152 @@
+package org.reversi;
+
+import org.reversi.web.ReversiApplication;
+import org.reversi.web.controller.dto.Client;
+import org.reversi.web.controller.dto.Move;
+import org.reversi.web.exceptions.InvalidGameException;
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameStatus;
+import org.reversi.web.model.ReversiGame;
+import org.reversi.web.services.GameClockService;
+import org.reversi.web.services.GameService;
+import org.reversi.web.storage.GameStorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Testing class for the chess clocks of the web games, on an instance with a short base time
+ */
+public class TestGameClock {
+    private ConfigurableApplicationContext context;
+    private GameService gameService;
+
+    /**
+     * empty constructor
+     */
+    TestGameClock() {}
+
+    @AfterEach
+    void stopInstance() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * the player to move loses on time once their flag falls, without anyone moving
+     */
+    @Test
+    public void testFlagFall() throws Exception {
+        start("--clock.base-ms=300", "--clock.increment-ms=0");
+        final String gameId = startGame();
+
+        final GameSnapshot game = awaitFinished(gameId, 10_000);
+        assertEquals(GameStatus.FINISHED, game.status());
+        assertEquals(Disk.BLACK, game.winner().disk());
+        assertEquals(0, game.clock().whiteMs());
+    }
+
+    /**
+     * the timeout of an older version of the game, scheduled late or expiring after the moves,
+     * leaves the game alone while the player to move still has time
+     */
+    @Test
+    public void testStaleTimeout() throws Exception {
+        start("--clock.base-ms=1000", "--clock.increment-ms=2000");
+        final GameClockService clockService = context.getBean(GameClockService.class);
+        final String gameId = startGame();
+        final ReversiGame game = context.getBean(GameStorage.class).getGame(gameId);
+        final GameSnapshot stale = game.getSnapshot();
+
+        play(gameId, Disk.WHITE);
+        play(gameId, Disk.BLACK);
+        // the timeout of the first version falls due once white's first turn is over
+        clockService.schedule(game, stale);
+        Thread.sleep(Math.max(0, stale.clock().deadline(Disk.WHITE) + 300 - System.currentTimeMillis()));
+        clockService.expire(game);
+
+        final GameSnapshot current = gameService.getGame(gameId);
+        assertEquals(GameStatus.IN_PROGRESS, current.status());
+        assertEquals(2, current.sequence());
+        assertEquals(Disk.WHITE, current.currentGamePlayer().disk());
+    }
+
+    /**
+     * a move made after the deadline is rejected and ends the game, even before the timeout ran
+     */
+    @Test
+    public void testMoveAfterDeadline() throws Exception {
+        // the timeouts only run once a minute, long after the move
+        start("--clock.base-ms=300", "--clock.increment-ms=0", "--clock.tick-ms=60000");
+        final String gameId = startGame();
+        Thread.sleep(500);
+
+        final InvalidGameException e = assertThrows(InvalidGameException.class, () -> play(gameId, Disk.WHITE));
+        assertEquals("Time is up", e.getMessage());
+        final GameSnapshot game = gameService.getGame(gameId);
+        assertEquals(GameStatus.FINISHED, game.status());
+        assertEquals(Disk.BLACK, game.winner().disk());
+        assertEquals(1, game.sequence());
+    }
+
+    /**
+     * @param args the settings of the instance
+     */
+    private void start(String... args) {
+        final String[] all = new String[args.length + 1];
+        all[0] = "--server.port=0";
+        System.arraycopy(args, 0, all, 1, args.length);
+        context = SpringApplication.run(ReversiApplication.class, all);
+        gameService = context.getBean(GameService.class);
+    }
+
+    /**
+     * @return a new game between two players, its clock running for white
+     */
+    private String startGame() throws Exception {
+        final GameSnapshot game = gameService.createGame(new Client("white"));
+        gameService.connectToGame(new Client("black"), game.gameId());
+        return game.gameId();
+    }
+
+    /**
+     * Plays the first possible move of the given player.
+     *
+     * @param gameId the game id
+     * @param disk   the disk of the player to move
+     */
+    private void play(String gameId, Disk disk) throws Exception {
+        final Move move = new Move();
+        move.setGameId(gameId);
+        move.setDisk(disk);
+        move.setCoord(gameService.getGame(gameId).possibleMoves().stream()
+                .min(Comparator.comparingInt(Coordinate::x).thenComparingInt(Coordinate::y))
+                .orElseThrow());
+        gameService.move(move);
+    }
+
+    /**
+     * @param gameId    the game id
+     * @param timeoutMs the time to wait at most
+     * @return the game once it's over, or as it is after the time
+     */
+    private GameSnapshot awaitFinished(String gameId, long timeoutMs) throws Exception {
+        final long deadline = System.currentTimeMillis() + timeoutMs;
+        GameSnapshot game = gameService.getGame(gameId);
+        while (game.status() != GameStatus.FINISHED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            game = gameService.getGame(gameId);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,97 @@
+package org.reversi;
+
+import org.reversi.cli.Coordinate;
+import org.reversi.cli.GameHistory;
+import org.reversi.cli.ReversiModel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Testing class for the game history
+ */
+public class TestHistory {
+    /**
+     * the hardwired game of {@link TestModel}
+     */
+    private static final int[][] MOVES = {
+            {0, 2}, {0, 3}, {3, 1}, {1, 0}, {0, 0}, {0, 1},
+            {1, 3}, {3, 0}, {2, 0}, {3, 2}, {2, 3}, {3, 3}
+    };
+
+    /**
+     * empty constructor
+     */
+    TestHistory() {}
+
+    /**
+     * replays every ply of a recorded game, including its passes
+     */
+    @Test
+    public void testReplay() {
+        final ReversiModel model = new ReversiModel(4);
+        final GameHistory history = new GameHistory(4);
+        final List<int[][]> positions = new ArrayList<>();
+        final List<Integer> players = new ArrayList<>();
+
+        positions.add(copyOf(model.getBoard()));
+        players.add(model.getCurrentPlayer());
+        for (int[] move : MOVES) {
+            final int player = model.getCurrentPlayer();
+            model.makeMove(move[0], move[1]);
+            history.recordMove(move[0], move[1]);
+            positions.add(copyOf(model.getBoard()));
+            players.add(model.getCurrentPlayer());
+
+            if (!model.isGameOver() && model.getCurrentPlayer() == player) {
+                history.recordPass();
+                positions.add(copyOf(model.getBoard()));
+                players.add(model.getCurrentPlayer());
+            }
+        }
+
+        assertEquals(positions.size() - 1, history.getLength());
+        // replay backwards, so later positions are rebuilt from the cached snapshots
+        for (int ply = history.getLength(); ply >= 0; ply--) {
+            final ReversiModel replayed = history.positionAt(ply);
+            assertArrayEquals(positions.get(ply), replayed.getBoard());
+            assertEquals(players.get(ply), replayed.getCurrentPlayer());
+        }
+        assertEquals(model.getWinner(), history.positionAt(history.getLength()).getWinner());
+
+        // a trimmed copy keeps the snapshots of the original
+        final GameHistory copy = history.copy();
+        copy.trimToSize();
+        for (int ply = copy.getLength(); ply >= 0; ply--) {
+            assertArrayEquals(positions.get(ply), copy.positionAt(ply).getBoard());
+        }
+    }
+
+    /**
+     * passes are recorded without a coordinate
+     */
+    @Test
+    public void testPass() {
+        final GameHistory history = new GameHistory(4);
+        history.recordMove(0, 2);
+        history.recordPass();
+
+        assertEquals(new Coordinate(0, 2), history.getMove(0));
+        assertNull(history.getMove(1));
+        assertEquals(2, history.copy().getLength());
+    }
+
+    private static int[][] copyOf(int[][] board) {
+        final int[][] copy = new int[board.length][];
+        for (int i = 0; i < board.length; i++) {
+            copy[i] = board[i].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,123 @@
+package org.reversi;
+
+import org.reversi.cli.CancellationToken;
+import org.reversi.cli.Coordinate;
+import org.reversi.cli.EndgameSolver;
+import org.reversi.cli.MctsAgent;
+import org.reversi.cli.MctsConfig;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the Monte Carlo tree search agent
+ */
+public class TestMcts {
+    /**
+     * empty constructor
+     */
+    TestMcts() {}
+
+    /**
+     * on small boards, the agent picks a winning move whenever the exact solver finds one, and never a losing one
+     * when a draw is possible
+     */
+    @Test
+    public void testWinningMoves() {
+        final Random random = new Random(11);
+
+        for (int game = 0; game < 20; game++) {
+            final ReversiModel model = new ReversiModel(4);
+            final int plies = 1 + random.nextInt(5);
+            for (int ply = 0; ply < plies && !model.isGameOver(); ply++) {
+                final List<Coordinate> moves = new ArrayList<>(model.getPossibleMoves());
+                final Coordinate move = moves.get(random.nextInt(moves.size()));
+                model.makeMove(move.x(), move.y());
+            }
+            if (model.isGameOver()) {
+                continue;
+            }
+
+            final int best = new EndgameSolver().solve(model).score();
+            final Coordinate move = new MctsAgent(model, model.getCurrentPlayer(),
+                    MctsConfig.DEFAULT.withPlayouts(20_000)).findBestMove();
+            assertEquals(Integer.signum(best), Integer.signum(scoreOf(model, move)));
+        }
+    }
+
+    /**
+     * a playout budget is spent exactly, on one thread or several, and one thread is reproducible
+     */
+    @Test
+    public void testBudget() {
+        final ReversiModel model = new ReversiModel(8);
+
+        final SearchResult first = new MctsAgent(model, ReversiModel.PLAYER1, MctsConfig.DEFAULT)
+                .search(SearchBudget.ofNodes(500));
+        final SearchResult second = new MctsAgent(model, ReversiModel.PLAYER1, MctsConfig.DEFAULT)
+                .search(SearchBudget.ofNodes(500));
+        assertEquals(500, first.nodes());
+        assertEquals(first.scores(), second.scores());
+        assertTrue(model.getPossibleMoves().contains(first.bestMove()));
+
+        final SearchResult parallel = new MctsAgent(model, ReversiModel.PLAYER1,
+                MctsConfig.DEFAULT.withThreads(4).withRave(300)).search(SearchBudget.ofNodes(4000));
+        assertEquals(4000, parallel.nodes());
+        assertEquals(model.getPossibleMoves(), parallel.scores().keySet());
+    }
+
+    /**
+     * a cancelled search stops at once, still with a possible move
+     */
+    @Test
+    public void testCancellation() {
+        final ReversiModel model = new ReversiModel(8);
+        final CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        final SearchResult result = new MctsAgent(model, ReversiModel.PLAYER1, MctsConfig.DEFAULT)
+                .search(SearchBudget.UNLIMITED.withToken(token));
+        assertFalse(result.complete());
+        assertTrue(model.getPossibleMoves().contains(result.bestMove()));
+    }
+
+    /**
+     * a move stops at the time limit of the config, with a possible move, however many playouts it may run
+     */
+    @Test
+    public void testTimeLimit() {
+        final ReversiModel model = new ReversiModel(8);
+        final MctsAgent agent = new MctsAgent(model, ReversiModel.PLAYER1,
+                MctsConfig.DEFAULT.withPlayouts(Integer.MAX_VALUE).withTimeLimit(200));
+
+        final long start = System.nanoTime();
+        final Coordinate move = agent.findBestMove();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000);
+        assertTrue(model.getPossibleMoves().contains(move));
+    }
+
+    /**
+     * @param model a position
+     * @param move a possible move of the player to move
+     * @return the exact score of the move for the player to move
+     */
+    private static int scoreOf(final ReversiModel model, final Coordinate move) {
+        final int player = model.getCurrentPlayer();
+        final ReversiModel child = model.getClone();
+        child.makeMove(move.x(), move.y());
+        final EndgameSolver.Result result = new EndgameSolver().solve(child);
+        // the solver scores a finished game for the player who moved last
+        return child.getCurrentPlayer() == player ? result.score() : -result.score();
+    }
+}
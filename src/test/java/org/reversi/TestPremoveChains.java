@@ -0,0 +1,271 @@
+package org.reversi;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reversi.web.ReversiApplication;
+import org.reversi.web.controller.dto.Client;
+import org.reversi.web.controller.dto.Move;
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.GamePlayer;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.GameUpdate;
+import org.reversi.web.model.Premove;
+import org.reversi.web.services.GameNotifier;
+import org.reversi.web.services.GameService;
+import org.reversi.web.storage.GameStorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the premoves played in reply to a move, each game being mirrored by a local snapshot
+ */
+public class TestPremoveChains {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final GamePlayer WHITE = new GamePlayer("white", Disk.WHITE);
+    private static final GamePlayer BLACK = new GamePlayer("black", Disk.BLACK);
+
+    private ConfigurableApplicationContext context;
+    private GameService gameService;
+
+    /**
+     * the payloads published to the topic of each game
+     */
+    private final Map<String, List<JsonNode>> published = new ConcurrentHashMap<>();
+
+    /**
+     * empty constructor
+     */
+    TestPremoveChains() {}
+
+    @BeforeEach
+    void startInstance() {
+        context = SpringApplication.run(ReversiApplication.class, "--server.port=0");
+        gameService = context.getBean(GameService.class);
+        context.getBean("brokerChannel", SubscribableChannel.class).subscribe(message -> {
+            final String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+            if (destination != null && destination.startsWith(GameNotifier.GAME_PROGRESS_TOPIC)) {
+                try {
+                    published.computeIfAbsent(destination.substring(GameNotifier.GAME_PROGRESS_TOPIC.length()),
+                            id -> new CopyOnWriteArrayList<>()).add(MAPPER.readTree((byte[]) message.getPayload()));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void stopInstance() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    /**
+     * the opponent's premove answers the move, then the mover's premove answers it, then the {@code then} of the first,
+     * and all of them are broadcast in the update of the move
+     */
+    @Test
+    public void testChain() throws Exception {
+        final String gameId = startGame();
+        final List<Coordinate> moves = new ArrayList<>();
+        GameSnapshot local = localGame();
+        for (int i = 0; i < 5; i++) {
+            final Coordinate move = firstMove(local);
+            moves.add(move);
+            local = local.play(move.x(), move.y(), 0).orElseThrow();
+            assertEquals(i % 2 == 0 ? BLACK : WHITE, local.currentGamePlayer());
+        }
+
+        final GameUpdate first = gameService.move(move(gameId, Disk.WHITE, moves.get(0), List.of(
+                new Premove(moves.get(1), moves.get(2), List.of(new Premove(moves.get(3), moves.get(4), null))))));
+        assertNull(first.reply());
+        assertEquals(Disk.BLACK, first.currentDisk());
+
+        final GameUpdate update = gameService.move(move(gameId, Disk.BLACK, moves.get(1), List.of(
+                new Premove(moves.get(2), moves.get(3), null))));
+        GameUpdate delta = update;
+        for (int i = 1; i < moves.size(); i++) {
+            assertNotNull(delta, "reply " + i);
+            assertEquals(moves.get(i), delta.placed());
+            assertEquals(i + 1, delta.sequence());
+            delta = delta.reply();
+        }
+        assertNull(delta);
+
+        final GameSnapshot server = gameService.getGame(gameId);
+        assertEquals(local.sequence(), server.sequence());
+        assertArrayEquals(local.board(), server.board());
+        assertEquals(local.currentGamePlayer().disk(), server.currentGamePlayer().disk());
+        assertTrue(premoves(gameId).isEmpty());
+
+        // one message per move made by a player, the premoves riding on the second
+        final List<JsonNode> messages = published.get(gameId);
+        final JsonNode last = messages.get(messages.size() - 1);
+        assertEquals(2, last.get("sequence").asInt());
+        assertEquals(5, last.get("reply").get("reply").get("reply").get("sequence").asInt());
+        assertTrue(last.get("reply").get("reply").get("reply").get("reply").isNull());
+    }
+
+    /**
+     * premoves expecting another move, or replying with an impossible one, are dropped without being played
+     */
+    @Test
+    public void testMissedPremove() throws Exception {
+        GameSnapshot local = localGame();
+        final Coordinate whiteMove = firstMove(local);
+        local = local.play(whiteMove.x(), whiteMove.y(), 0).orElseThrow();
+        final List<Coordinate> blackMoves = sorted(local);
+        assertTrue(blackMoves.size() > 1);
+        final Coordinate blackMove = blackMoves.get(0);
+        final GameSnapshot afterBlack = local.play(blackMove.x(), blackMove.y(), 0).orElseThrow();
+        final Coordinate reply = firstMove(afterBlack);
+
+        final String unexpected = startGame();
+        gameService.move(move(unexpected, Disk.WHITE, whiteMove,
+                List.of(new Premove(blackMoves.get(1), reply, null))));
+        assertMissed(unexpected, gameService.move(move(unexpected, Disk.BLACK, blackMove, null)), afterBlack);
+
+        final String impossible = startGame();
+        gameService.move(move(impossible, Disk.WHITE, whiteMove, List.of(new Premove(blackMove, whiteMove, null))));
+        assertMissed(impossible, gameService.move(move(impossible, Disk.BLACK, blackMove, null)), afterBlack);
+    }
+
+    /**
+     * premoves sent with a move the opponent has to pass on are dropped, the mover being to move again
+     */
+    @Test
+    public void testPass() throws Exception {
+        final List<Coordinate> line = findPass(localGame(), new ArrayList<>());
+        assertNotNull(line);
+
+        final String gameId = startGame();
+        GameSnapshot local = localGame();
+        for (int i = 0; i < line.size() - 1; i++) {
+            final Coordinate move = line.get(i);
+            gameService.move(move(gameId, local.currentGamePlayer().disk(), move, null));
+            local = local.play(move.x(), move.y(), 0).orElseThrow();
+        }
+        final Coordinate passedOn = line.get(line.size() - 1);
+        final Disk mover = local.currentGamePlayer().disk();
+        local = local.play(passedOn.x(), passedOn.y(), 0).orElseThrow();
+        final Coordinate next = firstMove(local);
+
+        final GameUpdate update = gameService.move(move(gameId, mover, passedOn,
+                List.of(new Premove(next, next, null))));
+        assertNull(update.reply());
+        assertEquals(mover, update.currentDisk());
+        assertTrue(premoves(gameId).isEmpty());
+        assertArrayEquals(local.board(), gameService.getGame(gameId).board());
+    }
+
+    /**
+     * Checks that a move was answered by no premove.
+     *
+     * @param gameId   the game id
+     * @param update   the update of the move
+     * @param expected the game right after the move
+     */
+    private void assertMissed(String gameId, GameUpdate update, GameSnapshot expected) throws Exception {
+        assertNull(update.reply());
+        assertEquals(Disk.WHITE, update.currentDisk());
+        assertTrue(premoves(gameId).isEmpty());
+        final GameSnapshot server = gameService.getGame(gameId);
+        assertEquals(expected.sequence(), server.sequence());
+        assertArrayEquals(expected.board(), server.board());
+    }
+
+    /**
+     * Finds a line of moves whose last one leaves the opponent without a move, the game going on.
+     *
+     * @param game the game so far
+     * @param line the moves so far
+     * @return the line, null if there is none from this game
+     */
+    private static List<Coordinate> findPass(GameSnapshot game, List<Coordinate> line) {
+        for (Coordinate move : sorted(game)) {
+            final GameSnapshot next = game.play(move.x(), move.y(), 0).orElseThrow();
+            line.add(move);
+            if (!next.isGameOver() && next.currentGamePlayer().equals(game.currentGamePlayer())) {
+                return line;
+            }
+            if (!next.isGameOver() && findPass(next, line) != null) {
+                return line;
+            }
+            line.remove(line.size() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return a new game between two players on the server, white to move
+     */
+    private String startGame() throws Exception {
+        final GameSnapshot game = gameService.createGame(new Client(WHITE.login()));
+        gameService.connectToGame(new Client(BLACK.login()), game.gameId());
+        return game.gameId();
+    }
+
+    /**
+     * @return the premoves the server holds for the game
+     */
+    private List<Premove> premoves(String gameId) {
+        return context.getBean(GameStorage.class).getGame(gameId).getSnapshot().premoves();
+    }
+
+    /**
+     * @return the local mirror of a new game on the server
+     */
+    private static GameSnapshot localGame() {
+        return GameSnapshot.start("local", 4, WHITE).withPlayer2(BLACK, 0);
+    }
+
+    /**
+     * @return the possible moves of the game, in a fixed order
+     */
+    private static List<Coordinate> sorted(GameSnapshot game) {
+        return game.possibleMoves().stream()
+                .sorted(Comparator.comparingInt(Coordinate::x).thenComparingInt(Coordinate::y))
+                .toList();
+    }
+
+    /**
+     * @return the first possible move of the game
+     */
+    private static Coordinate firstMove(GameSnapshot game) {
+        return sorted(game).get(0);
+    }
+
+    /**
+     * @return a move of the given player, with its premoves
+     */
+    private static Move move(String gameId, Disk disk, Coordinate coord, List<Premove> premoves) {
+        final Move move = new Move();
+        move.setGameId(gameId);
+        move.setDisk(disk);
+        move.setCoord(coord);
+        move.setPremoves(premoves);
+        return move;
+    }
+}
@@ -0,0 +1,93 @@
+package org.reversi;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reversi.web.controller.dto.Move;
+import org.reversi.web.controller.dto.PremovesDeserializer;
+import org.reversi.web.ReversiApplication;
+import org.reversi.web.model.Coordinate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the premoves read with a move
+ */
+public class TestPremoves {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String PREMOVE = "{\"opponent\": {\"x\": 0, \"y\": 0}, \"reply\": {\"x\": 3, \"y\": 0}, \"then\": ";
+
+    /**
+     * empty constructor
+     */
+    TestPremoves() {}
+
+    /**
+     * a tree within the limit is read whole
+     */
+    @Test
+    public void testTree() throws Exception {
+        final Move move = MAPPER.readValue("{\"gameId\": \"game\", \"premoves\": [" + PREMOVE + "[" + PREMOVE
+                + "null}]}]}", Move.class);
+        assertEquals(1, move.getPremoves().size());
+        assertEquals(new Coordinate(3, 0), move.getPremoves().get(0).then().get(0).reply());
+        assertTrue(move.getPremoves().get(0).then().get(0).then().isEmpty());
+    }
+
+    /**
+     * a tree nested far beyond the limit is rejected once the limit is reached, without reading it whole
+     */
+    @Test
+    public void testDeepTree() throws Exception {
+        final int depth = 100_000;
+        final StringBuilder json = new StringBuilder("{\"gameId\": \"game\", \"premoves\": ");
+        json.append(("[" + PREMOVE).repeat(depth)).append("[]").append("}]".repeat(depth)).append('}');
+
+        boolean rejected = false;
+        try {
+            MAPPER.readValue(json.toString(), Move.class);
+        } catch (JsonMappingException e) {
+            rejected = e.getOriginalMessage().contains(String.valueOf(PremovesDeserializer.DEFAULT_MAX_NODES));
+        }
+        assertTrue(rejected);
+    }
+
+    /**
+     * the STOMP messages are read within the configured limit, as the REST requests
+     */
+    @Test
+    public void testStompLimit() {
+        try (ConfigurableApplicationContext context = SpringApplication.run(ReversiApplication.class,
+                "--server.port=0", "--premove.max-nodes=1")) {
+            final MessageConverter converter = context.getBean("brokerMessageConverter", MessageConverter.class);
+            final Move move = (Move) converter.fromMessage(stompMove("[" + PREMOVE + "null}]"), Move.class);
+            assertEquals(1, move.getPremoves().size());
+            assertThrows(MessageConversionException.class,
+                    () -> converter.fromMessage(stompMove("[" + PREMOVE + "[" + PREMOVE + "null}]}]"), Move.class));
+        }
+    }
+
+    /**
+     * @param premoves the premoves, in JSON
+     * @return a STOMP message of a move with the premoves
+     */
+    private static Message<byte[]> stompMove(String premoves) {
+        final String json = "{\"gameId\": \"game\", \"premoves\": " + premoves + "}";
+        return MessageBuilder.withPayload(json.getBytes(StandardCharsets.UTF_8))
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package org.reversi;
+
+import org.reversi.cli.CancellationToken;
+import org.reversi.cli.ReversiAgent;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.SearchBudget;
+import org.reversi.cli.SearchResult;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the budgeted searches of the agent
+ */
+public class TestSearch {
+    private ReversiModel model;
+
+    /**
+     * empty constructor
+     */
+    TestSearch() {}
+
+    @BeforeEach
+    void initModel() {
+        model = new ReversiModel(8);
+        model.makeMove(2, 4);
+        model.makeMove(2, 3);
+    }
+
+    /**
+     * an unbounded search plays the move of the fixed depth search
+     */
+    @Test
+    public void testUnlimited() {
+        final ReversiAgent agent = new ReversiAgent(model, 4, model.getCurrentPlayer());
+        final SearchResult result = agent.search(SearchBudget.UNLIMITED);
+
+        assertTrue(result.complete());
+        assertEquals(4, result.depth());
+        assertEquals(agent.findBestMove(), result.bestMove());
+    }
+
+    /**
+     * a node budget stops the search at the same node on every run
+     */
+    @Test
+    public void testNodeBudget() {
+        final ReversiAgent agent = new ReversiAgent(model, 8, model.getCurrentPlayer());
+        final SearchResult first = agent.search(SearchBudget.ofNodes(2000));
+        final SearchResult second = agent.search(SearchBudget.ofNodes(2000));
+
+        assertFalse(first.complete());
+        assertEquals(2000, first.nodes());
+        assertEquals(first, second);
+        assertTrue(model.getPossibleMoves().contains(first.bestMove()));
+    }
+
+    /**
+     * a cancelled search still returns a possible move
+     */
+    @Test
+    public void testCancellation() {
+        final CancellationToken token = new CancellationToken();
+        token.cancel();
+        final SearchResult result = new ReversiAgent(model, 8, model.getCurrentPlayer())
+                .search(SearchBudget.UNLIMITED.withToken(token));
+
+        assertFalse(result.complete());
+        assertTrue(result.nodes() <= SearchBudget.CHECK_INTERVAL);
+        assertNotNull(result.bestMove());
+    }
+}
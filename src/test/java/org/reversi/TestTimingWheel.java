@@ -0,0 +1,67 @@
+package org.reversi;
+
+import org.reversi.web.clock.TimingWheel;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the timing wheel of the game clocks
+ */
+public class TestTimingWheel {
+    /**
+     * empty constructor
+     */
+    TestTimingWheel() {}
+
+    /**
+     * timeouts run once, never before their delay, also those further than a turn of the wheel,
+     * and the cancelled ones never run
+     */
+    @Test
+    public void testExpiry() throws InterruptedException {
+        try (TimingWheel wheel = new TimingWheel(Duration.ofMillis(5), 8, "test-wheel")) {
+            final int count = 2000;
+            final CountDownLatch expired = new CountDownLatch(count / 2);
+            final AtomicInteger early = new AtomicInteger();
+            final AtomicInteger runs = new AtomicInteger();
+            final List<TimingWheel.Timeout> timeouts = new ArrayList<>();
+
+            for (int i = 0; i < count; i++) {
+                // up to 150 ms, several turns of a wheel of 40 ms
+                final long delay = i % 150;
+                final long start = System.nanoTime();
+                timeouts.add(wheel.schedule(() -> {
+                    if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                        early.incrementAndGet();
+                    }
+                    runs.incrementAndGet();
+                    expired.countDown();
+                }, delay, TimeUnit.MILLISECONDS));
+                if (i % 2 == 1) {
+                    assertTrue(timeouts.get(i).cancel());
+                }
+            }
+
+            assertTrue(expired.await(5, TimeUnit.SECONDS));
+            TimeUnit.MILLISECONDS.sleep(50);
+            assertEquals(count / 2, runs.get());
+            assertEquals(0, early.get());
+            assertEquals(0, wheel.pending());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i % 2 == 0, timeouts.get(i).isExpired());
+                assertFalse(timeouts.get(i).cancel());
+            }
+        }
+    }
+}
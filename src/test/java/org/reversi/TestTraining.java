@@ -0,0 +1,71 @@
+package org.reversi;
+
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.SelfPlay;
+import org.reversi.cli.TrainingDataReader;
+import org.reversi.cli.TrainingDataWriter;
+import org.reversi.cli.WeightTuner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the self-play training data and the weight tuner
+ */
+public class TestTraining {
+    /**
+     * empty constructor
+     */
+    TestTraining() {}
+
+    /**
+     * records read back as written, the count only covering written records
+     * @param dir a temporary directory
+     * @throws IOException if the file can't be written
+     */
+    @Test
+    public void testRoundTrip(@TempDir Path dir) throws IOException {
+        final Path file = dir.resolve("data.bin");
+        try (TrainingDataWriter writer = new TrainingDataWriter(file, 8, 10)) {
+            assertEquals(0, writer.reserve(3));
+            writer.write(0, 0x8100000000000081L, 0x18L, 64);
+            writer.write(1, -1L, 0L, -64);
+            writer.write(2, 1L, 2L, 0);
+        }
+
+        try (TrainingDataReader reader = new TrainingDataReader(file)) {
+            assertEquals(8, reader.getSize());
+            assertEquals(3, reader.getCount());
+            assertEquals(0x8100000000000081L, reader.getOwn(0));
+            assertEquals(0x18L, reader.getOpponent(0));
+            assertEquals(64, reader.getScore(0));
+            assertEquals(-1L, reader.getOwn(1));
+            assertEquals(-64, reader.getScore(1));
+            assertEquals(2L, reader.getOpponent(2));
+        }
+    }
+
+    /**
+     * weights fitted to self-play value corners, and survive their file
+     * @param dir a temporary directory
+     * @throws IOException if a file can't be written
+     */
+    @Test
+    public void testTune(@TempDir Path dir) throws IOException {
+        final Path data = dir.resolve("data.bin");
+        final Path weightsFile = dir.resolve("weights.properties");
+        SelfPlay.run(data, 2000, 2, 2, EvaluationWeights.DEFAULT, 42);
+        WeightTuner.run(data, weightsFile, 10, 2);
+
+        final EvaluationWeights weights = EvaluationWeights.load(weightsFile);
+        assertTrue(weights.corner() > 0);
+        assertEquals(100, Math.max(Math.abs(weights.disk()),
+                Math.max(Math.abs(weights.corner()), Math.abs(weights.fullLine()))));
+    }
+}
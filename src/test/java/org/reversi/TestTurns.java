@@ -0,0 +1,66 @@
+package org.reversi;
+
+import org.reversi.web.model.Coordinate;
+import org.reversi.web.model.Difficulty;
+import org.reversi.web.model.Disk;
+import org.reversi.web.model.GamePlayer;
+import org.reversi.web.model.GameSnapshot;
+import org.reversi.web.model.ReversiGame;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Testing class for the player a web move is made for
+ */
+public class TestTurns {
+    private static final GamePlayer PLAYER1 = new GamePlayer("player1", Disk.WHITE);
+
+    /**
+     * empty constructor
+     */
+    TestTurns() {}
+
+    /**
+     * a move is only made for the player to move, whatever disk the client sends
+     */
+    @Test
+    public void testTwoPlayers() {
+        final GamePlayer player2 = new GamePlayer("player2", Disk.BLACK);
+        final GameSnapshot game = GameSnapshot.start("game", 4, PLAYER1).withPlayer2(player2, 0);
+        assertEquals(PLAYER1, game.moverOf(Disk.WHITE).orElseThrow());
+        assertTrue(game.moverOf(Disk.BLACK).isEmpty());
+
+        final GameSnapshot next = play(game);
+        assertTrue(next.moverOf(Disk.WHITE).isEmpty());
+        assertEquals(player2, next.moverOf(Disk.BLACK).orElseThrow());
+    }
+
+    /**
+     * the human can't move for the computer, neither on its own turn nor while the computer is to move
+     */
+    @Test
+    public void testComputerTurn() {
+        final GameSnapshot game = GameSnapshot.start("game", 4, PLAYER1)
+                .withDifficulty(Difficulty.EASY)
+                .withPlayer2(new GamePlayer(ReversiGame.COMPUTER_LOGIN, Disk.BLACK), 0);
+        assertEquals(PLAYER1, game.moverOf(Disk.WHITE).orElseThrow());
+        assertTrue(game.moverOf(Disk.BLACK).isEmpty());
+
+        final GameSnapshot next = play(game);
+        assertTrue(next.isComputerTurn());
+        assertTrue(next.moverOf(Disk.BLACK).isEmpty());
+        assertTrue(next.moverOf(Disk.WHITE).isEmpty());
+    }
+
+    /**
+     * @param game a game in progress
+     * @return the game after a possible move of the player to move
+     */
+    private static GameSnapshot play(GameSnapshot game) {
+        final Coordinate move = game.possibleMoves().iterator().next();
+        return game.play(move.x(), move.y(), 0).orElseThrow();
+    }
+}
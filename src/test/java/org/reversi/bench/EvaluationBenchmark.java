@@ -0,0 +1,94 @@
+package org.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reversi.cli.BatchEvaluator;
+import org.reversi.cli.EvaluationWeights;
+import org.reversi.cli.PositionBatch;
+import org.reversi.cli.ReversiModel;
+import org.reversi.cli.ScalarBatchEvaluator;
+import org.reversi.cli.VectorBatchEvaluator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the scalar and the SIMD batch evaluators, in positions per second.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec@run-bench}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class EvaluationBenchmark {
+    /**
+     * the number of positions per batch, the children of a node or a chunk of training positions
+     */
+    private static final int POSITIONS = 1024;
+
+    /**
+     * the board size
+     */
+    @Param({"8"})
+    public int size;
+
+    private PositionBatch batch;
+    private int[] scores;
+    private BatchEvaluator scalar;
+    private BatchEvaluator vector;
+
+    /**
+     * fills the batch with random boards, two thirds of their squares occupied
+     */
+    @Setup
+    public void fillBatch() {
+        final Random random = new Random(42);
+        batch = new PositionBatch(size, POSITIONS);
+        for (int i = 0; i < POSITIONS; i++) {
+            final int[][] board = new int[size][size];
+            for (int[] row : board) {
+                for (int col = 0; col < size; col++) {
+                    row[col] = random.nextInt(3) - 1;
+                }
+            }
+            batch.add(board);
+        }
+        scores = new int[batch.getCapacity()];
+        scalar = new ScalarBatchEvaluator(EvaluationWeights.DEFAULT);
+        vector = new VectorBatchEvaluator(EvaluationWeights.DEFAULT);
+    }
+
+    /**
+     * @param blackhole consumes the scores
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void scalar(Blackhole blackhole) {
+        scalar.evaluate(batch, ReversiModel.PLAYER1, scores);
+        blackhole.consume(scores);
+    }
+
+    /**
+     * @param blackhole consumes the scores
+     */
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void vector(Blackhole blackhole) {
+        vector.evaluate(batch, ReversiModel.PLAYER1, scores);
+        blackhole.consume(scores);
+    }
+}
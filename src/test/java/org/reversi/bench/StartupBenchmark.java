@@ -0,0 +1,244 @@
+package org.reversi.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares the startup of the packaged CLI and web app with and without the startup optimizations:
+ * the class data sharing archives of the {@code fast-startup} maven profile and lazy bean initialization.
+ * <p>
+ * The CLI is timed from the launch of its JVM to its first prompt, the web app to the first request it serves.
+ * Each mode is launched several times in fresh JVMs, the median is reported.
+ * <p>
+ * Run with {@code mvn -Pfast-startup package -DskipTests} then
+ * {@code mvn exec:java@run-startup-bench -Dexec.args="target/Reversi-1.0-SNAPSHOT.jar 5"}.
+ */
+public final class StartupBenchmark {
+    /**
+     * the line of the CLI prompting for the first move
+     */
+    private static final String CLI_PROMPT = "Turn: ";
+
+    /**
+     * the longest startup waited for
+     */
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    /**
+     * the interval between two requests to a starting web app
+     */
+    private static final long POLL_MILLIS = 5;
+
+    /**
+     * A way of launching an app.
+     * @param name the name of the mode
+     * @param jvmOptions the options of the JVM
+     * @param appArgs the arguments of the app
+     */
+    private record Mode(String name, List<String> jvmOptions, List<String> appArgs) {}
+
+    private final Path jar;
+    private final int runs;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    /**
+     * @param jar the packaged jar
+     * @param runs the launches per mode
+     */
+    private StartupBenchmark(Path jar, int runs) {
+        this.jar = jar;
+        this.runs = runs;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the packaged jar and optionally the launches per mode, 5 by default
+     * @throws Exception if an app can't be launched
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: StartupBenchmark <jar> [runs]");
+            System.exit(2);
+        }
+        final StartupBenchmark benchmark = new StartupBenchmark(Path.of(args[0]),
+                args.length > 1 ? Integer.parseInt(args[1]) : 5);
+        benchmark.run();
+    }
+
+    /**
+     * times every mode of both apps
+     * @throws Exception if an app can't be launched
+     */
+    private void run() throws Exception {
+        final Path target = jar.toAbsolutePath().getParent();
+        final List<String> vector = List.of("--add-modules", "jdk.incubator.vector");
+        final String lazy = "--spring.profiles.active=fast-startup";
+
+        System.out.printf("%-6s %-14s %12s%n", "app", "mode", "median (ms)");
+        for (Mode mode : modes(target.resolve("cli.jsa"), vector, List.of())) {
+            report("cli", mode, this::timeCli);
+        }
+        for (Mode mode : modes(target.resolve("web.jsa"), vector, List.of(lazy))) {
+            report("web", mode, this::timeWeb);
+        }
+    }
+
+    /**
+     * @param archive the class data sharing archive of the app
+     * @param jvmOptions the options of every launch
+     * @param optimizedArgs the app arguments of the optimized launches, beyond the archive
+     * @return the modes, the archive ones only if it was built
+     */
+    private static List<Mode> modes(Path archive, List<String> jvmOptions, List<String> optimizedArgs) {
+        final List<Mode> modes = new ArrayList<>();
+        final List<String> shared = new ArrayList<>(jvmOptions);
+        shared.add("-XX:SharedArchiveFile=" + archive);
+
+        modes.add(new Mode("default", jvmOptions, List.of()));
+        if (!optimizedArgs.isEmpty()) {
+            modes.add(new Mode("lazy", jvmOptions, optimizedArgs));
+        }
+        if (Files.exists(archive)) {
+            modes.add(new Mode("cds", shared, List.of()));
+            if (!optimizedArgs.isEmpty()) {
+                modes.add(new Mode("cds+lazy", shared, optimizedArgs));
+            }
+        } else {
+            System.out.println("no archive " + archive + ", package with -Pfast-startup for the cds modes");
+        }
+        return modes;
+    }
+
+    /**
+     * A single timed launch.
+     */
+    @FunctionalInterface
+    private interface Launch {
+        /**
+         * @param mode the mode
+         * @return the startup time in nanos
+         * @throws Exception if the app can't be launched
+         */
+        long time(Mode mode) throws Exception;
+    }
+
+    /**
+     * launches an app repeatedly in a mode and prints the median startup
+     * @param app the app name
+     * @param mode the mode
+     * @param launch the timed launch
+     * @throws Exception if the app can't be launched
+     */
+    private void report(String app, Mode mode, Launch launch) throws Exception {
+        // a first launch fills the page cache, it isn't counted
+        launch.time(mode);
+        final long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            nanos[i] = launch.time(mode);
+        }
+        Arrays.sort(nanos);
+        System.out.printf(Locale.ROOT, "%-6s %-14s %12.1f%n", app, mode.name(), nanos[runs / 2] / 1e6);
+    }
+
+    /**
+     * @param mode the mode
+     * @return the time from the launch of the CLI to its first prompt
+     * @throws IOException if the CLI can't be launched or exits before its prompt
+     */
+    private long timeCli(Mode mode) throws IOException {
+        final List<String> command = java(mode);
+        command.addAll(List.of("-cp", jar.toString(), "org.reversi.cli.CLI"));
+        command.addAll(mode.appArgs());
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(CLI_PROMPT)) {
+                    return System.nanoTime() - start;
+                }
+            }
+            throw new IOException("the CLI exited before its prompt");
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * @param mode the mode
+     * @return the time from the launch of the web app to its first served request
+     * @throws Exception if the web app can't be launched or doesn't start in time
+     */
+    private long timeWeb(Mode mode) throws Exception {
+        final int port = freePort();
+        final List<String> command = java(mode);
+        command.addAll(List.of("-jar", jar.toString(), "--server.port=" + port));
+        command.addAll(mode.appArgs());
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build();
+
+        final long start = System.nanoTime();
+        final Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IOException("the web app exited with " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return System.nanoTime() - start;
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            throw new IOException("the web app didn't start within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * @param mode the mode
+     * @return the java command of the mode, without the class path and main class
+     */
+    private static List<String> java(Mode mode) {
+        final List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmOptions());
+        return command;
+    }
+
+    /**
+     * @return a port no socket listens on
+     * @throws IOException if no port is free
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package org.reversi.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory an idle STOMP connection costs the packaged web app, and checks that silent connections
+ * are reaped and that closed ones leave nothing behind.
+ * <p>
+ * The web app is launched in a JVM of its own, so its heap holds no client. Every connection is a raw WebSocket to
+ * the SockJS endpoint, which sends a STOMP {@code CONNECT} negotiating heartbeats, subscribes to the progress of
+ * a game and then only heartbeats, as a browser tab left open on a game. The heap of the web app is read after
+ * a full collection through {@code jcmd}, before the connections, once they are all open, once the heartbeats of
+ * half of them stopped and the idle timeout passed, and once all of them are closed. The resident set size is
+ * reported as well on Linux, it adds the buffers of the connections outside of the heap.
+ * <p>
+ * Each target address of {@code 127.0.0.0/8} has its own range of ephemeral ports, so the connections are spread
+ * over several of them. 100k connections need {@code ulimit -n} above 100k for both JVMs, and
+ * {@code net.ipv4.ip_local_port_range} as wide as possible.
+ * <p>
+ * Run with {@code mvn -Pfast-startup clean package -DskipTests} then
+ * {@code mvn exec:java@run-connection-bench -Dexec.args="target/Reversi-1.0-SNAPSHOT.jar 100000"}.
+ */
+public final class ConnectionBenchmark {
+    /**
+     * the connections per target address, below the ephemeral ports of an address
+     */
+    private static final int CONNECTIONS_PER_ADDRESS = 20_000;
+
+    /**
+     * the connections opening at once
+     */
+    private static final int BATCH_SIZE = 1_000;
+
+    /**
+     * the games subscribed to, shared by the connections
+     */
+    private static final int GAMES = 1_000;
+
+    /**
+     * the heartbeat interval negotiated both ways
+     */
+    private static final long HEARTBEAT_MS = 10_000;
+
+    /**
+     * the idle timeout of the web app
+     */
+    private static final long IDLE_TIMEOUT_MS = 30_000;
+
+    /**
+     * the interval between two scans for idle sessions of the web app
+     */
+    private static final long REAP_INTERVAL_MS = 5_000;
+
+    /**
+     * the longest startup waited for
+     */
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Path jar;
+    private final int connections;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+    private int port;
+    private Process process;
+
+    /**
+     * @param jar the packaged jar
+     * @param connections the connections opened
+     */
+    private ConnectionBenchmark(Path jar, int connections) {
+        this.jar = jar;
+        this.connections = connections;
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args the packaged jar and optionally the connections, 10000 by default
+     * @throws Exception if the web app can't be launched
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: ConnectionBenchmark <jar> [connections] [max heap, 2g by default]");
+            System.exit(2);
+        }
+        final ConnectionBenchmark benchmark = new ConnectionBenchmark(Path.of(args[0]),
+                args.length > 1 ? Integer.parseInt(args[1]) : 10_000);
+        try {
+            benchmark.start(args.length > 2 ? args[2] : "2g");
+            benchmark.run();
+        } finally {
+            benchmark.stop();
+        }
+    }
+
+    /**
+     * opens the connections, silences half of them, closes the rest, and prints the memory at each step
+     * @throws Exception if a connection fails
+     */
+    private void run() throws Exception {
+        final Memory baseline = memory();
+        report("baseline", baseline, baseline, 1);
+
+        final List<Connection> open = new ArrayList<>(connections);
+        final long start = System.nanoTime();
+        for (int i = 0; i < connections; i += BATCH_SIZE) {
+            final List<CompletableFuture<Connection>> batch = new ArrayList<>(BATCH_SIZE);
+            for (int j = i; j < Math.min(i + BATCH_SIZE, connections); j++) {
+                batch.add(connect(j));
+            }
+            for (CompletableFuture<Connection> connection : batch) {
+                open.add(connection.get(60, TimeUnit.SECONDS));
+            }
+        }
+        System.out.printf(Locale.ROOT, "%d connections open in %.1f s%n", open.size(),
+                (System.nanoTime() - start) / 1e9);
+        heartbeats.scheduleAtFixedRate(() -> open.forEach(Connection::heartbeat),
+                HEARTBEAT_MS / 2, HEARTBEAT_MS / 2, TimeUnit.MILLISECONDS);
+
+        report("open", memory(), baseline, connections);
+        System.out.printf("sessions %.0f, followed games %.0f%n",
+                metric("reversi.stomp.sessions"), metric("reversi.stomp.game-subscriptions"));
+
+        // half of the tabs are suspended, their heartbeats stop without a close
+        final int silenced = connections / 2;
+        for (int i = 0; i < silenced; i++) {
+            open.get(i).silent = true;
+        }
+        Thread.sleep(IDLE_TIMEOUT_MS + 2 * REAP_INTERVAL_MS + HEARTBEAT_MS);
+        final int kept = connections - silenced;
+        report("half silent", memory(), baseline, kept);
+        System.out.printf("sessions %.0f (expected %d), reaped %.0f%n",
+                metric("reversi.stomp.sessions"), kept, metric("reversi.stomp.sessions.reaped"));
+
+        heartbeats.shutdown();
+        heartbeats.awaitTermination(10, TimeUnit.SECONDS);
+        final List<CompletableFuture<?>> closes = new ArrayList<>(kept);
+        for (int i = silenced; i < connections; i++) {
+            closes.add(open.get(i).close());
+        }
+        CompletableFuture.allOf(closes.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        open.clear();
+        Thread.sleep(2 * REAP_INTERVAL_MS);
+        final Memory closed = memory();
+        System.out.printf(Locale.ROOT, "%-12s heap %8.1f MB, retained %+.1f MB, sessions %.0f, followed games %.0f%n",
+                "closed", closed.heap() / 1e6, (closed.heap() - baseline.heap()) / 1e6,
+                metric("reversi.stomp.sessions"), metric("reversi.stomp.game-subscriptions"));
+    }
+
+    /**
+     * A connection of the benchmark, following a game.
+     */
+    private static final class Connection implements WebSocket.Listener {
+        private final CompletableFuture<Connection> connected = new CompletableFuture<>();
+        private final String game;
+
+        /**
+         * the last frame sent, the next one waits for it
+         */
+        private CompletableFuture<WebSocket> sent;
+
+        /**
+         * true once the heartbeats stopped
+         */
+        private volatile boolean silent;
+
+        /**
+         * @param game the game followed
+         */
+        private Connection(String game) {
+            this.game = game;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            if (!connected.isDone() && data.toString().startsWith("CONNECTED")) {
+                send("SUBSCRIBE\nid:sub-0\ndestination:/topic/game-progress/" + game + "\n\n\u0000");
+                connected.complete(this);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            connected.completeExceptionally(error);
+        }
+
+        /**
+         * sends a frame once the previous one is sent
+         * @param frame the frame
+         */
+        private synchronized void send(String frame) {
+            sent = sent.thenCompose(ws -> ws.sendText(frame, true));
+        }
+
+        /**
+         * sends an end of line, the STOMP heartbeat, unless the connection is silent
+         */
+        private void heartbeat() {
+            if (!silent) {
+                send("\n");
+            }
+        }
+
+        /**
+         * @return the completion of the close
+         */
+        private synchronized CompletableFuture<WebSocket> close() {
+            sent = sent.thenCompose(ws -> ws.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+            return sent;
+        }
+    }
+
+    /**
+     * @param index the index of the connection
+     * @return the connection, once its STOMP session is connected
+     */
+    private CompletableFuture<Connection> connect(int index) {
+        final int address = 1 + index / CONNECTIONS_PER_ADDRESS;
+        final URI uri = URI.create("ws://127.0.0." + address + ":" + port + "/move/websocket");
+        final Connection connection = new Connection("bench-" + index % GAMES);
+        return httpClient.newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .buildAsync(uri, connection)
+                .thenCompose(webSocket -> {
+                    synchronized (connection) {
+                        connection.sent = CompletableFuture.completedFuture(webSocket);
+                    }
+                    connection.send("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:"
+                            + HEARTBEAT_MS + "," + HEARTBEAT_MS + "\n\n\u0000");
+                    return connection.connected;
+                });
+    }
+
+    /**
+     * The memory of the web app.
+     * @param heap the used heap after a full collection, in bytes
+     * @param rss the resident set size in bytes, 0 if unknown
+     */
+    private record Memory(double heap, double rss) {}
+
+    /**
+     * prints the memory of the web app and its cost per connection
+     * @param step the step of the benchmark
+     * @param memory the memory at this step
+     * @param baseline the memory without connections
+     * @param open the open connections
+     */
+    private static void report(String step, Memory memory, Memory baseline, int open) {
+        System.out.printf(Locale.ROOT, "%-12s heap %8.1f MB, rss %8.1f MB, per connection: heap %6.2f KB, rss %6.2f KB%n",
+                step, memory.heap() / 1e6, memory.rss() / 1e6,
+                (memory.heap() - baseline.heap()) / open / 1e3, (memory.rss() - baseline.rss()) / open / 1e3);
+    }
+
+    /**
+     * @return the memory of the web app, after a full collection
+     * @throws Exception if it can't be read
+     */
+    private Memory memory() throws Exception {
+        final Path jcmd = Path.of(System.getProperty("java.home"), "bin", "jcmd");
+        new ProcessBuilder(jcmd.toString(), Long.toString(process.pid()), "GC.run")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start()
+                .waitFor();
+        final Path status = Path.of("/proc", Long.toString(process.pid()), "status");
+        double rss = 0;
+        if (Files.exists(status)) {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    rss = 1024 * Double.parseDouble(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        }
+        return new Memory(metric("jvm.memory.used?tag=area:heap"), rss);
+    }
+
+    /**
+     * @param name the name of a meter, with its tags as query
+     * @return its value
+     * @throws Exception if the web app doesn't answer
+     */
+    private double metric(String name) throws Exception {
+        final HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/metrics/" + name)).build();
+        final JsonNode meter = MAPPER.readTree(httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return meter.path("measurements").path(0).path("value").asDouble();
+    }
+
+    /**
+     * launches the web app and waits for it to be up
+     * @param maxHeap the max heap of the web app
+     * @throws Exception if the web app can't be launched or doesn't start in time
+     */
+    private void start(String maxHeap) throws Exception {
+        port = freePort();
+        final List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + maxHeap, "--add-modules", "jdk.incubator.vector",
+                "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--server.tomcat.max-connections=" + (connections + 1_000),
+                "--ratelimit.enabled=false",
+                "--logging.level.org.reversi=WARN",
+                "--stomp.heartbeat-ms=" + HEARTBEAT_MS,
+                "--stomp.idle-timeout-ms=" + IDLE_TIMEOUT_MS,
+                "--stomp.reap-interval-ms=" + REAP_INTERVAL_MS));
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        final HttpRequest health = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/health")).build();
+        final long start = System.nanoTime();
+        while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IOException("the web app exited with " + process.exitValue());
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(100);
+        }
+        throw new IOException("the web app didn't start within " + TIMEOUT);
+    }
+
+    /**
+     * stops the heartbeats and the web app
+     * @throws InterruptedException if interrupted while waiting for the web app to exit
+     */
+    private void stop() throws InterruptedException {
+        heartbeats.shutdownNow();
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * @return a port no socket listens on
+     * @throws IOException if no port is free
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
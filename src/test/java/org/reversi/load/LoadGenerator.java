@@ -0,0 +1,280 @@
+package org.reversi.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.reversi.web.ReversiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local load generator, playing random games against an embedded {@link ReversiApplication}.
+ * <p>
+ * Half of the simulated players create games through {@code /game/start}, the other half join them through
+ * {@code /game/connect/random}. All of them follow their game on {@code /topic/game-progress/{gameId}}
+ * and play random legal moves through {@code /game/move}. The move-to-broadcast latency is the time between
+ * sending a move and receiving its delta on the mover's own subscription.
+ * <p>
+ * Run with {@code mvn exec:java@run-loadtest -Dexec.args="--clients 1000 --duration 60"}.
+ * Any other {@code --key=value} argument is passed on to the application, e.g. {@code --reversi.threads.virtual=true}.
+ */
+public final class LoadGenerator {
+    /**
+     * the json mapper shared by all players
+     */
+    static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final WebSocketStompClient stompClient;
+    private final ThreadPoolTaskScheduler scheduler;
+
+    /**
+     * move-to-broadcast latency in microseconds
+     */
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+
+    /**
+     * the number of moves broadcast back to their mover
+     */
+    private final LongAdder moves = new LongAdder();
+
+    /**
+     * the number of finished games
+     */
+    private final LongAdder games = new LongAdder();
+
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates a new load generator against the given server.
+     *
+     * @param port the port of the server
+     */
+    private LoadGenerator(int port) {
+        this.baseUrl = "http://localhost:" + port;
+        this.httpClient = HttpClient.newHttpClient();
+
+        this.scheduler = new ThreadPoolTaskScheduler();
+        this.scheduler.initialize();
+        this.stompClient = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient())))
+        );
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        this.stompClient.setTaskScheduler(scheduler);
+    }
+
+    /**
+     * Runs the load test.
+     *
+     * @param args {@code --clients n}, {@code --duration seconds}, the rest is passed to the application
+     * @throws Exception if the application or the players fail to start
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = 100;
+        int durationSeconds = 30;
+        final List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0", "--logging.level.org.reversi=WARN",
+                // all simulated players share the loopback address
+                "--ratelimit.enabled=false"
+        ));
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--duration" -> durationSeconds = Integer.parseInt(args[++i]);
+                default -> appArgs.add(args[i]);
+            }
+        }
+
+        final ConfigurableApplicationContext context = SpringApplication.run(
+                ReversiApplication.class, appArgs.toArray(String[]::new)
+        );
+        final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        try {
+            new LoadGenerator(port).run(clients, durationSeconds);
+        } finally {
+            context.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Starts the players, lets them play for the given duration and prints the report.
+     *
+     * @param clients         the number of simulated players
+     * @param durationSeconds the duration of the measurement
+     * @throws Exception if the players fail to start
+     */
+    private void run(int clients, int durationSeconds) throws Exception {
+        final List<SimulatedPlayer> players = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            final boolean creator = i % 2 == 0;
+            players.add(new SimulatedPlayer(this, "player-" + i, creator));
+        }
+
+        // creators first, so every joiner finds a game
+        CompletableFuture.allOf(players.stream()
+                .filter(SimulatedPlayer::isCreator)
+                .map(SimulatedPlayer::start)
+                .toArray(CompletableFuture[]::new)).join();
+        CompletableFuture.allOf(players.stream()
+                .filter(player -> !player.isCreator())
+                .map(SimulatedPlayer::start)
+                .toArray(CompletableFuture[]::new)).join();
+
+        scheduler.scheduleAtFixedRate(
+                () -> players.forEach(SimulatedPlayer::resyncIfStalled), Duration.ofSeconds(1)
+        );
+
+        // warm up, then measure
+        TimeUnit.SECONDS.sleep(Math.min(10, durationSeconds / 3 + 1));
+        latencies.reset();
+        moves.reset();
+        games.reset();
+
+        final long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        final double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+
+        report(clients, elapsedSeconds);
+        players.forEach(SimulatedPlayer::stop);
+    }
+
+    /**
+     * Prints throughput and latency percentiles.
+     *
+     * @param clients        the number of simulated players
+     * @param elapsedSeconds the duration of the measurement
+     */
+    private void report(int clients, double elapsedSeconds) {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        final double movesPerSecond = moves.sum() / elapsedSeconds;
+
+        System.out.printf("clients: %d, cores: %d, duration: %.1f s%n", clients, cores, elapsedSeconds);
+        System.out.printf("moves: %d (%.1f/s, %.1f/s per core), finished games: %d%n",
+                moves.sum(), movesPerSecond, movesPerSecond / cores, games.sum());
+        System.out.printf("move-to-broadcast latency (ms): p50 %.3f, p99 %.3f, p999 %.3f, max %.3f%n",
+                latencies.getValueAtPercentile(50) / 1e3,
+                latencies.getValueAtPercentile(99) / 1e3,
+                latencies.getValueAtPercentile(99.9) / 1e3,
+                latencies.getMaxValue() / 1e3);
+    }
+
+    /**
+     * Posts a json body to the server.
+     *
+     * @param path the request path
+     * @param body the request body
+     * @return the response body, or null if the request failed
+     */
+    CompletableFuture<JsonNode> post(String path, Object body) {
+        try {
+            final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+                    .build();
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(LoadGenerator::parse);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Gets the full snapshot of a game.
+     *
+     * @param gameId the game id
+     * @return the game, or null if the request failed
+     */
+    CompletableFuture<JsonNode> getGame(String gameId) {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/game/" + gameId)).GET().build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(LoadGenerator::parse);
+    }
+
+    /**
+     * Parses successful json responses.
+     *
+     * @param response the response
+     * @return the json body, or null if the request failed
+     */
+    private static JsonNode parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(response.body());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the stomp client shared by all players
+     */
+    WebSocketStompClient stompClient() {
+        return stompClient;
+    }
+
+    /**
+     * @return the url of the sockjs stomp endpoint
+     */
+    String stompUrl() {
+        return baseUrl + "/move";
+    }
+
+    /**
+     * @return true until the measurement is over
+     */
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Records a move broadcast back to its mover.
+     *
+     * @param latencyNanos the move-to-broadcast latency
+     */
+    void recordMove(long latencyNanos) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), latencies.getHighestTrackableValue()));
+        moves.increment();
+    }
+
+    /**
+     * Records a finished game.
+     */
+    void recordGame() {
+        games.increment();
+    }
+
+    /**
+     * @param login the player's login
+     * @return the client request body
+     */
+    static Map<String, String> client(String login) {
+        return Map.of("login", login);
+    }
+}
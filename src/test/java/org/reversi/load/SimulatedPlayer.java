@@ -0,0 +1,287 @@
+package org.reversi.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A player of the {@link LoadGenerator}, following one game at a time and playing random legal moves.
+ * <p>
+ * The player state is only touched while holding the player's monitor,
+ * as http responses and stomp frames arrive on different threads.
+ */
+final class SimulatedPlayer {
+    /**
+     * a game without progress for this long is resynced, e.g. after a broadcast raced the subscription
+     */
+    private static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final LoadGenerator generator;
+    private final String login;
+    private final boolean creator;
+
+    private StompSession session;
+    private StompSession.Subscription subscription;
+
+    private String gameId;
+    private String disk;
+    private int size;
+    private int sequence;
+    private String status;
+    private String currentDisk;
+    private List<int[]> possibleMoves = List.of();
+
+    /**
+     * the sequence number this player last moved at, to never move twice in the same position
+     */
+    private int movedAt = -1;
+
+    /**
+     * the sequence number of the delta answering this player's pending move, -1 if none
+     */
+    private int pendingSequence = -1;
+    private long sentAt;
+    private long lastProgress;
+
+    /**
+     * Instantiates a new simulated player.
+     *
+     * @param generator the load generator
+     * @param login     the login
+     * @param creator   true iff the player creates games, otherwise it joins random ones
+     */
+    SimulatedPlayer(LoadGenerator generator, String login, boolean creator) {
+        this.generator = generator;
+        this.login = login;
+        this.creator = creator;
+    }
+
+    /**
+     * @return true iff the player creates games
+     */
+    boolean isCreator() {
+        return creator;
+    }
+
+    /**
+     * Opens the player's stomp session and enters its first game.
+     *
+     * @return completes once the player is in a game
+     */
+    CompletableFuture<Void> start() {
+        return generator.stompClient()
+                .connectAsync(generator.stompUrl(), new StompSessionHandlerAdapter() { })
+                .thenCompose(stompSession -> {
+                    synchronized (this) {
+                        this.session = stompSession;
+                    }
+                    return nextGame();
+                });
+    }
+
+    /**
+     * Closes the player's stomp session.
+     */
+    synchronized void stop() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
+    /**
+     * Creates a new game or joins a random one.
+     *
+     * @return completes once the player is in a game
+     */
+    private CompletableFuture<Void> nextGame() {
+        if (creator) {
+            return generator.post("/game/start", LoadGenerator.client(login))
+                    .thenAccept(game -> join(game, "WHITE"));
+        }
+        return generator.post("/game/connect/random", LoadGenerator.client(login))
+                .thenCompose(game -> {
+                    if (game == null) {
+                        // no game available yet, retry shortly
+                        return CompletableFuture.runAsync(() -> { },
+                                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                        ).thenCompose(ignored -> nextGame());
+                    }
+                    join(game, "BLACK");
+                    return CompletableFuture.completedFuture(null);
+                });
+    }
+
+    /**
+     * Follows the given game.
+     *
+     * @param game the game snapshot returned on create or connect
+     * @param disk the player's disk
+     */
+    private synchronized void join(JsonNode game, String disk) {
+        this.gameId = game.get("gameId").asText();
+        this.disk = disk;
+        this.sequence = -1;
+        this.movedAt = -1;
+        this.pendingSequence = -1;
+        this.subscription = session.subscribe("/topic/game-progress/" + gameId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return JsonNode.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                onMessage((JsonNode) payload);
+            }
+        });
+        applySnapshot(game);
+
+        if (creator) {
+            // the opponent might have joined before the subscription was registered
+            resync();
+        }
+    }
+
+    /**
+     * Handles a message broadcast on the game progress topic.
+     *
+     * @param message a delta or a full snapshot
+     */
+    private synchronized void onMessage(JsonNode message) {
+        if ("delta".equals(message.path("type").asText())) {
+            applyDelta(message);
+        } else {
+            applySnapshot(message);
+        }
+    }
+
+    /**
+     * Applies a full snapshot of the followed game.
+     *
+     * @param game the snapshot
+     */
+    private synchronized void applySnapshot(JsonNode game) {
+        if (game == null || !game.get("gameId").asText().equals(gameId) || game.get("sequence").asInt() < sequence) {
+            return;
+        }
+        size = game.get("size").asInt();
+        sequence = game.get("sequence").asInt();
+        status = game.get("status").asText();
+        currentDisk = game.get("currentGamePlayer").get("disk").asText();
+
+        final List<int[]> moves = new ArrayList<>();
+        game.get("possibleMoves").forEach(coord -> moves.add(new int[] {coord.get("x").asInt(), coord.get("y").asInt()}));
+        possibleMoves = moves;
+
+        progress();
+    }
+
+    /**
+     * Applies a delta update of the followed game, resyncing on gaps.
+     *
+     * @param update the delta
+     */
+    private synchronized void applyDelta(JsonNode update) {
+        final int updateSequence = update.get("sequence").asInt();
+        if (!update.get("gameId").asText().equals(gameId) || updateSequence <= sequence) {
+            return;
+        }
+        if (updateSequence != sequence + 1) {
+            resync();
+            return;
+        }
+
+        if (updateSequence == pendingSequence) {
+            generator.recordMove(System.nanoTime() - sentAt);
+            pendingSequence = -1;
+        }
+
+        sequence = updateSequence;
+        status = update.get("status").asText();
+        currentDisk = update.get("currentDisk").asText();
+
+        final List<int[]> moves = new ArrayList<>();
+        final JsonNode mask = update.get("possibleMoves");
+        for (int word = 0; word < mask.size(); word++) {
+            final int bits = mask.get(word).asInt();
+            for (int bit = 0; bit < 32; bit++) {
+                if ((bits >>> bit & 1) != 0) {
+                    final int cell = word * 32 + bit;
+                    moves.add(new int[] {cell / size, cell % size});
+                }
+            }
+        }
+        possibleMoves = moves;
+
+        progress();
+    }
+
+    /**
+     * Moves if it's this player's turn, or moves on to the next game once this one is over.
+     */
+    private void progress() {
+        lastProgress = System.nanoTime();
+
+        if ("FINISHED".equals(status)) {
+            subscription.unsubscribe();
+            gameId = null;
+            if (creator) {
+                generator.recordGame();
+            }
+            if (generator.isRunning()) {
+                nextGame();
+            }
+            return;
+        }
+
+        if (!generator.isRunning() || !"IN_PROGRESS".equals(status)
+                || !disk.equals(currentDisk) || sequence <= movedAt || possibleMoves.isEmpty()) {
+            return;
+        }
+
+        movedAt = sequence;
+        pendingSequence = sequence + 1;
+        final int[] move = possibleMoves.get(ThreadLocalRandom.current().nextInt(possibleMoves.size()));
+        sentAt = System.nanoTime();
+
+        generator.post("/game/move", Map.of(
+                "disk", disk,
+                "coord", Map.of("x", move[0], "y", move[1]),
+                "gameId", gameId
+        )).thenAccept(response -> {
+            if (response == null) {
+                resync();
+            }
+        });
+    }
+
+    /**
+     * Resyncs the followed game from its full snapshot if it made no progress for a while.
+     */
+    synchronized void resyncIfStalled() {
+        if (gameId != null && System.nanoTime() - lastProgress > STALL_NANOS) {
+            resync();
+        }
+    }
+
+    /**
+     * Fetches the full snapshot of the followed game.
+     */
+    private synchronized void resync() {
+        if (gameId == null) {
+            return;
+        }
+        lastProgress = System.nanoTime();
+        generator.getGame(gameId).thenAccept(this::applySnapshot);
+    }
+}